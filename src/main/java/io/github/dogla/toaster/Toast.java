@@ -17,116 +17,402 @@ package io.github.dogla.toaster;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.UnaryOperator;
 
 import io.github.dogla.toaster.ui.ToastToolkit;
 import lombok.AccessLevel;
 import lombok.Builder;
-import lombok.Builder.Default;
+import lombok.Builder.ObtainVia;
 import lombok.Getter;
 import lombok.Singular;
 
 /**
  * A simple toast.
+ * <p>
+ * The layout, icon, color and animation attributes are held by a shared immutable {@link ToastStyle}.
+ * The corresponding builder methods (e.g. {@link ToastBuilder#backgroundColor(ToastColor)}) derive a new style from the current one.
+ * </p>
  */
-@Builder(toBuilder = true) @Getter
+@Getter
 public class Toast {
 	
-	private static Logger logger = LoggerFactory.getLogger(Toast.class);
+	private static final AtomicReferenceFieldUpdater<Toast, ToastContent> CONTENT_UPDATER = 
+			AtomicReferenceFieldUpdater.newUpdater(Toast.class, ToastContent.class, "content"); //$NON-NLS-1$
 	
+	// listeners are created lazily because most toasts are never updated
+	@Getter(AccessLevel.NONE)
+	private volatile ToastUpdateListener[] updateListeners;
 	@Getter(AccessLevel.NONE)
-	private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
+	private volatile PropertyChangeSupport pcs;
+	// only set for sampled toasts (@see ToastTracer)
+	private volatile ToastTrace trace;
 	
-	@Default
-	private String id = UUID.randomUUID().toString();
+	private final String id;
 	
-	// notification attributes
-	private String title;
-	private String message;
-	private String details;
-	private boolean sticky;
-	private Object icon;
-	private Object data;
-	@Singular
-	private List<ToastAction> actions;
+	// notification attributes (title, message, details, icon and display time are part of the updatable content)
+	private volatile ToastContent content;
+	private final boolean sticky;
+	private final Object data;
+	private final List<ToastAction> actions;
+	// the lower bound of a display time shortened by the display time policy, 0 to use the bound of the policy
+	private final int minDisplayTime;
+	// the time (@see System#currentTimeMillis()) after which the toast is dropped if it is still pending, 0 if the toast does not expire
+	private final long deadline;
 	
 	// layout attributes
-	@Default
-	private ToastPosition position = ToastPosition.BOTTOM_RIGHT;
-	@Default
-	private int minWidth = 350;
-	@Default
-	private int minHeight = -1;
-	@Default
-	private int maxWidth = 350;
-	@Default
-	private int maxHeight = -1;
-	
-	// icon dimension attributes
-	@Default
-	private int minIconWidth = 64;
-	@Default
-	private int minIconHeight = 64;
-	@Default
-	private int maxIconWidth = 64;
-	@Default
-	private int maxIconHeight = 64;
-	@Default
-	private boolean allowIconUpscaling = false;
-	
-	// style attributes
-	@Default
-	private ToastColor backgroundColor = new ToastColor(30, 30, 30);
-	@Default
-	private ToastColor iconBackgroundColor = new ToastColor(30, 30, 30);
-	@Default
-	private ToastColor borderColor = new ToastColor(20, 20, 20);
-	@Default
-	private ToastColor titleForegroundColor = new ToastColor(255, 255, 255);
-	@Default
-	private ToastColor messageForegroundColor = new ToastColor(148, 148, 148);
-	@Default
-	private ToastColor detailsForegroundColor = new ToastColor(148, 148, 148);
-	@Default
-	private ToastColor actionsBackgroundColor = new ToastColor(55, 55, 55);
-	@Default
-	private ToastColor actionsForegroundColor = new ToastColor(255, 255, 255);
-	@Default
-	private ToastColor actionsBackgroundColorHovered = null;
-	@Default
-	private ToastColor actionsForegroundColorHovered = null;
-	@Default
-	private int transparency = 255;
-
-	// animation attributes
-	@Default
-	private int displayTime = 5000;
-	@Default
-	private int fadeInTime = 200;
-	@Default
-	private int fadeOutTime = 600;
-	@Default
-	private int fadeInSteps = 8;
-	@Default
-	private int fadeOutSteps = 24;
+	private final ToastPosition position;
+	private final ToastStyle style;
+	
+	@Builder(toBuilder = true)
+	private Toast(String id, @ObtainVia(method = "getTitle") String title, @ObtainVia(method = "getMessage") String message, @ObtainVia(method = "getDetails") String details, 
+			boolean sticky, @ObtainVia(method = "getIcon") Object icon, Object data, @Singular List<ToastAction> actions, 
+			ToastPosition position, ToastStyle style, @ObtainVia(method = "getDisplayTime") int displayTime, int minDisplayTime, long deadline) {
+		this.id = id != null ? id : Toaster.getIdGenerator().nextId();
+		this.content = new ToastContent(0, title, message, details, icon, displayTime);
+		this.sticky = sticky;
+		this.data = data;
+		this.actions = actions;
+		this.minDisplayTime = minDisplayTime;
+		this.deadline = deadline;
+		this.position = position;
+		this.style = style;
+	}
+	
+	/**
+	 * @return the current snapshot of the updatable content
+	 */
+	public ToastContent getContent() {
+		return content;
+	}
+	
+	/*package*/ void setTrace(ToastTrace trace) {
+		this.trace = trace;
+	}
+	
+	/**
+	 * @return the title
+	 */
+	public String getTitle() {
+		return content.getTitle();
+	}
+	
+	/**
+	 * @return the message
+	 */
+	public String getMessage() {
+		return content.getMessage();
+	}
+	
+	/**
+	 * @return the details
+	 */
+	public String getDetails() {
+		return content.getDetails();
+	}
+	
+	/**
+	 * @return the icon
+	 */
+	public Object getIcon() {
+		return content.getIcon();
+	}
+	
+	/**
+	 * @return the display time in milliseconds
+	 */
+	public int getDisplayTime() {
+		return content.getDisplayTime();
+	}
+	
+	/**
+	 * @return the lower bound in milliseconds of a display time shortened by the display time policy 
+	 * or 0 to use the bound of the policy (@see {@link ToastDisplayTimePolicy})
+	 */
+	public int getMinDisplayTime() {
+		return minDisplayTime;
+	}
+	
+	/**
+	 * @return <code>true</code> if the toast has a deadline which has passed
+	 */
+	public boolean isExpired() {
+		return isExpired(System.currentTimeMillis());
+	}
+	
+	/**
+	 * @param now the current time (@see {@link System#currentTimeMillis()})
+	 * 
+	 * @return <code>true</code> if the toast has a deadline which has passed
+	 */
+	public boolean isExpired(long now) {
+		return deadline > 0 && now >= deadline;
+	}
+	
+	/**
+	 * Updates the content of the toast atomically.
+	 * The given function is applied to the current content and may be called several times if the toast is updated concurrently,
+	 * it should therefore be free of side effects. The listeners are notified once with all changed fields.
+	 * 
+	 * @param function the function creating the new content from the current content (e.g. {@link ToastContent#withTitle(String)})
+	 * 
+	 * @return the new content
+	 */
+	public ToastContent updateContent(UnaryOperator<ToastContent> function) {
+		ToastContent oldContent;
+		ToastContent newContent;
+		do {
+			oldContent = content;
+			newContent = function.apply(oldContent);
+			if (newContent == oldContent) {
+				return oldContent;
+			}
+			if (newContent.getVersion() <= oldContent.getVersion()) {
+				throw new IllegalArgumentException("The version of the new content has to be greater than the version of the current content."); //$NON-NLS-1$
+			}
+		} while (!CONTENT_UPDATER.compareAndSet(this, oldContent, newContent));
+		int changedFields = oldContent.diff(newContent);
+		if (changedFields != 0) {
+			fireUpdate(changedFields);
+			firePropertyChanges(changedFields, oldContent, newContent);
+		}
+		return newContent;
+	}
 	
 	/**
 	 * @return the builder
 	 */
 	public ToastBuilder copy() {
-		return toBuilder().id(UUID.randomUUID().toString());
+		return toBuilder().id(Toaster.getIdGenerator().nextId());
+	}
+	
+	/**
+	 * @return the minimum width of the toast
+	 */
+	public int getMinWidth() {
+		return style.getMinWidth();
+	}
+	
+	/**
+	 * @return the minimum height of the toast
+	 */
+	public int getMinHeight() {
+		return style.getMinHeight();
+	}
+	
+	/**
+	 * @return the maximum width of the toast
+	 */
+	public int getMaxWidth() {
+		return style.getMaxWidth();
+	}
+	
+	/**
+	 * @return the maximum height of the toast
+	 */
+	public int getMaxHeight() {
+		return style.getMaxHeight();
+	}
+	
+	/**
+	 * @return the minimum width of the icon
+	 */
+	public int getMinIconWidth() {
+		return style.getMinIconWidth();
+	}
+	
+	/**
+	 * @return the minimum height of the icon
+	 */
+	public int getMinIconHeight() {
+		return style.getMinIconHeight();
+	}
+	
+	/**
+	 * @return the maximum width of the icon
+	 */
+	public int getMaxIconWidth() {
+		return style.getMaxIconWidth();
+	}
+	
+	/**
+	 * @return the maximum height of the icon
+	 */
+	public int getMaxIconHeight() {
+		return style.getMaxIconHeight();
+	}
+	
+	/**
+	 * @return <code>true</code> if icons smaller than the minimum icon size are scaled up
+	 */
+	public boolean isAllowIconUpscaling() {
+		return style.isAllowIconUpscaling();
+	}
+	
+	/**
+	 * @return the background color
+	 */
+	public ToastColor getBackgroundColor() {
+		return style.getBackgroundColor();
+	}
+	
+	/**
+	 * @return the background color of the icon
+	 */
+	public ToastColor getIconBackgroundColor() {
+		return style.getIconBackgroundColor();
+	}
+	
+	/**
+	 * @return the border color
+	 */
+	public ToastColor getBorderColor() {
+		return style.getBorderColor();
+	}
+	
+	/**
+	 * @return the foreground color of the title
+	 */
+	public ToastColor getTitleForegroundColor() {
+		return style.getTitleForegroundColor();
+	}
+	
+	/**
+	 * @return the foreground color of the message
+	 */
+	public ToastColor getMessageForegroundColor() {
+		return style.getMessageForegroundColor();
+	}
+	
+	/**
+	 * @return the foreground color of the details
+	 */
+	public ToastColor getDetailsForegroundColor() {
+		return style.getDetailsForegroundColor();
+	}
+	
+	/**
+	 * @return the default background color of the actions
+	 */
+	public ToastColor getActionsBackgroundColor() {
+		return style.getActionsBackgroundColor();
+	}
+	
+	/**
+	 * @return the default foreground color of the actions
+	 */
+	public ToastColor getActionsForegroundColor() {
+		return style.getActionsForegroundColor();
+	}
+	
+	/**
+	 * @return the default hovered background color of the actions or <code>null</code>
+	 */
+	public ToastColor getActionsBackgroundColorHovered() {
+		return style.getActionsBackgroundColorHovered();
+	}
+	
+	/**
+	 * @return the default hovered foreground color of the actions or <code>null</code>
+	 */
+	public ToastColor getActionsForegroundColorHovered() {
+		return style.getActionsForegroundColorHovered();
+	}
+	
+	/**
+	 * @return the transparency (0 - 255)
+	 */
+	public int getTransparency() {
+		return style.getTransparency();
+	}
+	
+	/**
+	 * @return the fade in time in milliseconds
+	 */
+	public int getFadeInTime() {
+		return style.getFadeInTime();
+	}
+	
+	/**
+	 * @return the fade out time in milliseconds
+	 */
+	public int getFadeOutTime() {
+		return style.getFadeOutTime();
+	}
+	
+	/**
+	 * @return the number of fade in steps
+	 */
+	public int getFadeInSteps() {
+		return style.getFadeInSteps();
+	}
+	
+	/**
+	 * @return the number of fade out steps
+	 */
+	public int getFadeOutSteps() {
+		return style.getFadeOutSteps();
+	}
+	
+	/**
+	 * Registers a listener to detect updates after the toast was initialized.
+	 * 
+	 * @param listener the listener
+	 */
+	public synchronized void addUpdateListener(ToastUpdateListener listener) {
+		ToastUpdateListener[] listeners = updateListeners;
+		if (listeners == null) {
+			updateListeners = new ToastUpdateListener[] { listener };
+		} else {
+			ToastUpdateListener[] newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+			newListeners[listeners.length] = listener;
+			updateListeners = newListeners;
+		}
+	}
+	
+	/**
+	 * Removes an update listener.
+	 * 
+	 * @param listener the listener
+	 */
+	public synchronized void removeUpdateListener(ToastUpdateListener listener) {
+		ToastUpdateListener[] listeners = updateListeners;
+		if (listeners == null) {
+			return;
+		}
+		for (int i = 0; i < listeners.length; i++) {
+			if (listeners[i] == listener) {
+				if (listeners.length == 1) {
+					updateListeners = null;
+				} else {
+					ToastUpdateListener[] newListeners = new ToastUpdateListener[listeners.length - 1];
+					System.arraycopy(listeners, 0, newListeners, 0, i);
+					System.arraycopy(listeners, i + 1, newListeners, i, listeners.length - i - 1);
+					updateListeners = newListeners;
+				}
+				return;
+			}
+		}
 	}
 	
     /**
      * Registers a property change listener to detect changes after the toast was initialized.
      * 
      * @param listener the property changed listener
+     * 
+     * @deprecated use {@link #addUpdateListener(ToastUpdateListener)}
      */
+	@Deprecated
     public void addPropertyChangeListener(PropertyChangeListener listener) {
+		synchronized (this) {
+			if (pcs == null) {
+				pcs = new PropertyChangeSupport(this);
+			}
+		}
         this.pcs.addPropertyChangeListener(listener);
     }
 
@@ -134,100 +420,135 @@ public class Toast {
      * Removes a property change listener.
      * 
      * @param listener the property changed listener
+     * 
+     * @deprecated use {@link #removeUpdateListener(ToastUpdateListener)}
      */
+	@Deprecated
     public void removePropertyChangeListener(PropertyChangeListener listener) {
-        this.pcs.removePropertyChangeListener(listener);
+		PropertyChangeSupport support = this.pcs;
+		if (support != null) {
+			support.removePropertyChangeListener(listener);
+		}
     }
 	
 	/**
 	 * Updates the title of the toast.
-	 * The toast UI should recognize those changes and update the corresponding UI accordingly (@see {@link #addPropertyChangeListener(PropertyChangeListener)}).
+	 * The toast UI should recognize those changes and update the corresponding UI accordingly (@see {@link #addUpdateListener(ToastUpdateListener)}).
 	 * 
 	 * @param title the title
 	 */
 	public void updateTitle(String title) {
-		String oldValue = this.title;
-        this.title = title;
-        this.pcs.firePropertyChange("title", oldValue, title); //$NON-NLS-1$
+		updateContent(c -> c.withTitle(title));
 	}
 
 	/**
 	 * Updates the message of the toast.
-	 * The toast UI should recognize those changes and update the corresponding UI accordingly (@see {@link #addPropertyChangeListener(PropertyChangeListener)}).
+	 * The toast UI should recognize those changes and update the corresponding UI accordingly (@see {@link #addUpdateListener(ToastUpdateListener)}).
 	 * 
 	 * @param message the message
 	 */
 	public void updateMessage(String message) {
-		String oldValue = this.message;
-        this.message = message;
-        this.pcs.firePropertyChange("message", oldValue, message); //$NON-NLS-1$
+		updateContent(c -> c.withMessage(message));
 	}
 
 	/**
 	 * Updates the details of the toast.
-	 * The toast UI should recognize those changes and update the corresponding UI accordingly (@see {@link #addPropertyChangeListener(PropertyChangeListener)}).
+	 * The toast UI should recognize those changes and update the corresponding UI accordingly (@see {@link #addUpdateListener(ToastUpdateListener)}).
 	 * 
 	 * @param details the details
 	 */
 	public void updateDetails(String details) {
-		String oldValue = this.details;
-        this.details = details;
-        this.pcs.firePropertyChange("details", oldValue, details); //$NON-NLS-1$
+		updateContent(c -> c.withDetails(details));
+	}
+	
+	/**
+	 * Updates the title, message and details of the toast at once.
+	 * The listeners are notified only once with all changed fields (@see {@link #addUpdateListener(ToastUpdateListener)}).
+	 * 
+	 * @param title the title
+	 * @param message the message
+	 * @param details the details
+	 */
+	public void updateText(String title, String message, String details) {
+		updateContent(c -> c.withText(title, message, details));
 	}
 
 	/**
 	 * Updates the icon of the toast.
-	 * The toast UI should recognize those changes and update the corresponding UI accordingly (@see {@link #addPropertyChangeListener(PropertyChangeListener)}).
+	 * The toast UI should recognize those changes and update the corresponding UI accordingly (@see {@link #addUpdateListener(ToastUpdateListener)}).
 	 * 
 	 * @param icon the icon
 	 */
 	public void updateIcon(Object icon) {
-		Object oldValue = this.icon;
-        this.icon = icon;
-        this.pcs.firePropertyChange("icon", oldValue, icon); //$NON-NLS-1$
+		updateContent(c -> c.withIcon(icon));
 	}
 	
 	/**
 	 * Updates the displayTime of the toast.
-	 * The toast UI should recognize those changes and update the corresponding UI accordingly (@see {@link #addPropertyChangeListener(PropertyChangeListener)}).
+	 * The toast UI should recognize those changes and update the corresponding UI accordingly (@see {@link #addUpdateListener(ToastUpdateListener)}).
 	 * 
 	 * @param displayTime the displayTime
 	 */
 	public void updateDisplayTime(int displayTime) {
-		int oldValue = this.displayTime;
-        this.displayTime = displayTime;
-        this.pcs.firePropertyChange("displayTime", oldValue, displayTime); //$NON-NLS-1$
-	}	
+		updateContent(c -> c.withDisplayTime(displayTime));
+	}
+	
+	private void fireUpdate(int changedFields) {
+		ToastUpdateListener[] listeners = updateListeners;
+		if (listeners != null) {
+			ToastUpdateEvent event = new ToastUpdateEvent(this, changedFields);
+			for (ToastUpdateListener listener : listeners) {
+				listener.toastUpdated(event);
+			}
+		}
+	}
+	
+	@SuppressWarnings("nls")
+	private void firePropertyChanges(int changedFields, ToastContent oldContent, ToastContent newContent) {
+		PropertyChangeSupport support = this.pcs;
+		if (support == null) {
+			return;
+		}
+		if (ToastField.TITLE.isContainedIn(changedFields)) {
+			support.firePropertyChange("title", oldContent.getTitle(), newContent.getTitle());
+		}
+		if (ToastField.MESSAGE.isContainedIn(changedFields)) {
+			support.firePropertyChange("message", oldContent.getMessage(), newContent.getMessage());
+		}
+		if (ToastField.DETAILS.isContainedIn(changedFields)) {
+			support.firePropertyChange("details", oldContent.getDetails(), newContent.getDetails());
+		}
+		if (ToastField.ICON.isContainedIn(changedFields)) {
+			support.firePropertyChange("icon", oldContent.getIcon(), newContent.getIcon());
+		}
+		if (ToastField.DISPLAY_TIME.isContainedIn(changedFields)) {
+			support.firePropertyChange("displayTime", oldContent.getDisplayTime(), newContent.getDisplayTime());
+		}
+	}
 	
 	/**
-	 * Shows the toast with the default toolkit.
+	 * Shows the toast with the default toolkit without blocking the caller.
 	 * 
 	 * @return the instance itself
 	 * 
-	 * @see Toaster#toast(Toast)
+	 * @see Toaster#submit(Toast)
 	 */
 	public Toast toast() {
-		Thread t = new Thread(() -> {
-			Toaster.toast(this);
-		});
-		t.setUncaughtExceptionHandler((thread, e) -> logger.error("Uncaught exception detected: {}", e.getMessage(), e)); //$NON-NLS-1$
-		t.start();
+		Toaster.submit(this);
 		return this;
 	}
 	
 	/**
-	 * Shows the toast with the given toolkit.
+	 * Shows the toast with the given toolkit without blocking the caller.
 	 * 
 	 * @return the instance itself
 	 * 
 	 * @param toolkit the toolkit
+	 * 
+	 * @see Toaster#submit(ToastToolkit, Toast)
 	 */
 	public Toast toast(ToastToolkit toolkit) {
-		Thread t = new Thread(() -> {
-			Toaster.toast(toolkit, this);
-		});
-		t.setUncaughtExceptionHandler((thread, e) -> logger.error("Uncaught exception detected: {}", e.getMessage(), e)); //$NON-NLS-1$
-		t.start();
+		Toaster.submit(toolkit, this);
 		return this;
 	}
 
@@ -239,8 +560,8 @@ public class Toast {
 	public String toString() {
 		StringBuilder builder = new StringBuilder();
 		builder.append("Toast [id=").append(id)
-			.append(", title=").append(title)
-			.append(", message=").append(message)
+			.append(", title=").append(getTitle())
+			.append(", message=").append(getMessage())
 		.append("]");
 		return builder.toString();
 	}
@@ -281,4 +602,379 @@ public class Toast {
 		return true;
 	}
 	
+	/**
+	 * The builder of the toasts. 
+	 * The style attributes are collected in a style builder which is derived from the current style and only built once per {@link #build()}.
+	 */
+	public static class ToastBuilder {
+		
+		private ToastPosition position = ToastPosition.BOTTOM_RIGHT;
+		private ToastStyle style = ToastStyle.DARK;
+		private ToastStyle.ToastStyleBuilder styleBuilder;
+		private int displayTime = 5000;
+		// the time to live resolved to the deadline by build(), -1 if the deadline is set directly
+		private long ttl = -1;
+		
+		/**
+		 * Sets the deadline relative to the time the toast is built (@see {@link #build()}), 
+		 * i.e. the time to live includes the time between building and submitting the toast.
+		 * If the toast is still pending after its deadline, it is dropped without being shown.
+		 * 
+		 * @param ttl the time to live in milliseconds
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see Toast#getDeadline()
+		 */
+		public ToastBuilder ttl(long ttl) {
+			this.ttl = Math.max(ttl, 0);
+			return this;
+		}
+		
+		/**
+		 * Sets the absolute deadline and discards a time to live set before (@see {@link #ttl(long)}).
+		 * 
+		 * @param deadline the time (@see {@link System#currentTimeMillis()}) after which the toast is dropped 
+		 * 		if it is still pending, 0 if the toast does not expire
+		 * 
+		 * @return the builder itself
+		 */
+		public ToastBuilder deadline(long deadline) {
+			this.deadline = deadline;
+			this.ttl = -1;
+			return this;
+		}
+		
+		/**
+		 * Sets the style of the toast. 
+		 * All previously set style attributes are discarded.
+		 * 
+		 * @param style the style
+		 * 
+		 * @return the builder itself
+		 */
+		public ToastBuilder style(ToastStyle style) {
+			this.style = style != null ? style : ToastStyle.DARK;
+			this.styleBuilder = null;
+			return this;
+		}
+		
+		private ToastStyle.ToastStyleBuilder styleBuilder() {
+			if (styleBuilder == null) {
+				styleBuilder = style.toBuilder();
+			}
+			return styleBuilder;
+		}
+		
+		/**
+		 * @param minWidth the minimum width of the toast
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getMinWidth()
+		 */
+		public ToastBuilder minWidth(int minWidth) {
+			styleBuilder().minWidth(minWidth);
+			return this;
+		}
+		
+		/**
+		 * @param minHeight the minimum height of the toast
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getMinHeight()
+		 */
+		public ToastBuilder minHeight(int minHeight) {
+			styleBuilder().minHeight(minHeight);
+			return this;
+		}
+		
+		/**
+		 * @param maxWidth the maximum width of the toast
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getMaxWidth()
+		 */
+		public ToastBuilder maxWidth(int maxWidth) {
+			styleBuilder().maxWidth(maxWidth);
+			return this;
+		}
+		
+		/**
+		 * @param maxHeight the maximum height of the toast
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getMaxHeight()
+		 */
+		public ToastBuilder maxHeight(int maxHeight) {
+			styleBuilder().maxHeight(maxHeight);
+			return this;
+		}
+		
+		/**
+		 * @param minIconWidth the minimum width of the icon
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getMinIconWidth()
+		 */
+		public ToastBuilder minIconWidth(int minIconWidth) {
+			styleBuilder().minIconWidth(minIconWidth);
+			return this;
+		}
+		
+		/**
+		 * @param minIconHeight the minimum height of the icon
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getMinIconHeight()
+		 */
+		public ToastBuilder minIconHeight(int minIconHeight) {
+			styleBuilder().minIconHeight(minIconHeight);
+			return this;
+		}
+		
+		/**
+		 * @param maxIconWidth the maximum width of the icon
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getMaxIconWidth()
+		 */
+		public ToastBuilder maxIconWidth(int maxIconWidth) {
+			styleBuilder().maxIconWidth(maxIconWidth);
+			return this;
+		}
+		
+		/**
+		 * @param maxIconHeight the maximum height of the icon
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getMaxIconHeight()
+		 */
+		public ToastBuilder maxIconHeight(int maxIconHeight) {
+			styleBuilder().maxIconHeight(maxIconHeight);
+			return this;
+		}
+		
+		/**
+		 * @param allowIconUpscaling the flag whether icons smaller than the minimum icon size are scaled up
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#isAllowIconUpscaling()
+		 */
+		public ToastBuilder allowIconUpscaling(boolean allowIconUpscaling) {
+			styleBuilder().allowIconUpscaling(allowIconUpscaling);
+			return this;
+		}
+		
+		/**
+		 * @param backgroundColor the background color
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getBackgroundColor()
+		 */
+		public ToastBuilder backgroundColor(ToastColor backgroundColor) {
+			styleBuilder().backgroundColor(backgroundColor);
+			return this;
+		}
+		
+		/**
+		 * @param iconBackgroundColor the background color of the icon
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getIconBackgroundColor()
+		 */
+		public ToastBuilder iconBackgroundColor(ToastColor iconBackgroundColor) {
+			styleBuilder().iconBackgroundColor(iconBackgroundColor);
+			return this;
+		}
+		
+		/**
+		 * @param borderColor the border color
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getBorderColor()
+		 */
+		public ToastBuilder borderColor(ToastColor borderColor) {
+			styleBuilder().borderColor(borderColor);
+			return this;
+		}
+		
+		/**
+		 * @param titleForegroundColor the foreground color of the title
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getTitleForegroundColor()
+		 */
+		public ToastBuilder titleForegroundColor(ToastColor titleForegroundColor) {
+			styleBuilder().titleForegroundColor(titleForegroundColor);
+			return this;
+		}
+		
+		/**
+		 * @param messageForegroundColor the foreground color of the message
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getMessageForegroundColor()
+		 */
+		public ToastBuilder messageForegroundColor(ToastColor messageForegroundColor) {
+			styleBuilder().messageForegroundColor(messageForegroundColor);
+			return this;
+		}
+		
+		/**
+		 * @param detailsForegroundColor the foreground color of the details
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getDetailsForegroundColor()
+		 */
+		public ToastBuilder detailsForegroundColor(ToastColor detailsForegroundColor) {
+			styleBuilder().detailsForegroundColor(detailsForegroundColor);
+			return this;
+		}
+		
+		/**
+		 * @param actionsBackgroundColor the default background color of the actions
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getActionsBackgroundColor()
+		 */
+		public ToastBuilder actionsBackgroundColor(ToastColor actionsBackgroundColor) {
+			styleBuilder().actionsBackgroundColor(actionsBackgroundColor);
+			return this;
+		}
+		
+		/**
+		 * @param actionsForegroundColor the default foreground color of the actions
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getActionsForegroundColor()
+		 */
+		public ToastBuilder actionsForegroundColor(ToastColor actionsForegroundColor) {
+			styleBuilder().actionsForegroundColor(actionsForegroundColor);
+			return this;
+		}
+		
+		/**
+		 * @param actionsBackgroundColorHovered the default hovered background color of the actions
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getActionsBackgroundColorHovered()
+		 */
+		public ToastBuilder actionsBackgroundColorHovered(ToastColor actionsBackgroundColorHovered) {
+			styleBuilder().actionsBackgroundColorHovered(actionsBackgroundColorHovered);
+			return this;
+		}
+		
+		/**
+		 * @param actionsForegroundColorHovered the default hovered foreground color of the actions
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getActionsForegroundColorHovered()
+		 */
+		public ToastBuilder actionsForegroundColorHovered(ToastColor actionsForegroundColorHovered) {
+			styleBuilder().actionsForegroundColorHovered(actionsForegroundColorHovered);
+			return this;
+		}
+		
+		/**
+		 * @param transparency the transparency (0 - 255)
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getTransparency()
+		 */
+		public ToastBuilder transparency(int transparency) {
+			styleBuilder().transparency(transparency);
+			return this;
+		}
+		
+		/**
+		 * @param fadeInTime the fade in time in milliseconds
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getFadeInTime()
+		 */
+		public ToastBuilder fadeInTime(int fadeInTime) {
+			styleBuilder().fadeInTime(fadeInTime);
+			return this;
+		}
+		
+		/**
+		 * @param fadeOutTime the fade out time in milliseconds
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getFadeOutTime()
+		 */
+		public ToastBuilder fadeOutTime(int fadeOutTime) {
+			styleBuilder().fadeOutTime(fadeOutTime);
+			return this;
+		}
+		
+		/**
+		 * @param fadeInSteps the number of fade in steps
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getFadeInSteps()
+		 */
+		public ToastBuilder fadeInSteps(int fadeInSteps) {
+			styleBuilder().fadeInSteps(fadeInSteps);
+			return this;
+		}
+		
+		/**
+		 * @param fadeOutSteps the number of fade out steps
+		 * 
+		 * @return the builder itself
+		 * 
+		 * @see ToastStyle#getFadeOutSteps()
+		 */
+		public ToastBuilder fadeOutSteps(int fadeOutSteps) {
+			styleBuilder().fadeOutSteps(fadeOutSteps);
+			return this;
+		}
+		
+		/**
+		 * @return the toast
+		 */
+		public Toast build() {
+			if (styleBuilder != null) {
+				// share the derived style with all toasts built afterwards
+				style = styleBuilder.build();
+				styleBuilder = null;
+			}
+			List<ToastAction> actions;
+			if (this.actions == null || this.actions.isEmpty()) {
+				actions = Collections.emptyList();
+			} else if (this.actions.size() == 1) {
+				actions = Collections.singletonList(this.actions.get(0));
+			} else {
+				actions = Collections.unmodifiableList(new ArrayList<>(this.actions));
+			}
+			long deadline = ttl >= 0 ? System.currentTimeMillis() + ttl : this.deadline;
+			return new Toast(id, title, message, details, sticky, icon, data, actions, position, style, displayTime, minDisplayTime, deadline);
+		}
+		
+	}
+	
 }
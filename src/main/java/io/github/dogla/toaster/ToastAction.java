@@ -39,6 +39,9 @@ public class ToastAction {
 	private ToastColor foregroundColorHovered;
 	@Default
 	private boolean closeToastOnExecute = true;
+	// only for trivial executables which must not block the popup display thread
+	@Default
+	private boolean executeInUIThread = false;
 	
 	/**
 	 * @param defaultColor
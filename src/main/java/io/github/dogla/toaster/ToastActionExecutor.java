@@ -0,0 +1,243 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes the executables of selected {@link ToastAction}s.
+ * <p>
+ * The executables are executed by a bounded pool of daemon threads, the default executor uses virtual threads on Java 21 and newer 
+ * (@see {@link ToastExecutors#newBlockingExecutor(String, int, int)}). Actions which are marked with
+ * {@link ToastAction#isExecuteInUIThread()} are executed directly in the calling (popup display) thread.
+ * If the pool and its queue are exhausted further executions are rejected and logged.
+ * The execution time of each action is recorded per action text (@see {@link #getStatistics()}). 
+ * Only the statistics of the {@value #MAX_STATISTICS} most recently executed action texts are kept, 
+ * so generated texts (e.g. containing a file name) do not grow the statistics without bound.
+ * </p>
+ *
+ * @author Dominik
+ */
+public class ToastActionExecutor {
+	
+	private static Logger logger = LoggerFactory.getLogger(ToastActionExecutor.class);
+	
+	/** The default number of threads */
+	public static final int DEFAULT_THREADS = 4;
+	/** The default capacity of the queue for waiting executions */
+	public static final int DEFAULT_QUEUE_CAPACITY = 256;
+	/** The maximum number of action texts with statistics */
+	public static final int MAX_STATISTICS = 256;
+	
+	private static ToastActionExecutor DEFAULT_EXECUTOR;
+	
+	private final ExecutorService executor;
+	private final Map<String, Recorder> recorders = Collections.synchronizedMap(new LinkedHashMap<String, Recorder>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Recorder> eldest) {
+			return size() > MAX_STATISTICS;
+		}
+	});
+	
+	/**
+	 * @return the shared default executor
+	 */
+	public static synchronized ToastActionExecutor getDefault() {
+		if (DEFAULT_EXECUTOR == null) {
+			DEFAULT_EXECUTOR = new ToastActionExecutor(ToastExecutors.newBlockingExecutor("Toaster Action Thread", DEFAULT_THREADS, DEFAULT_QUEUE_CAPACITY)); //$NON-NLS-1$
+		}
+		return DEFAULT_EXECUTOR;
+	}
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param threads the maximum number of threads
+	 * @param queueCapacity the maximum number of waiting executions
+	 */
+	public ToastActionExecutor(int threads, int queueCapacity) {
+		this(ToastExecutors.newBoundedExecutor("Toaster Action Thread", threads, queueCapacity)); //$NON-NLS-1$
+	}
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param executor the executor service used to execute the actions
+	 */
+	public ToastActionExecutor(ExecutorService executor) {
+		this.executor = executor;
+	}
+	
+	/**
+	 * Executes the executable of the given action. Actions without executable are ignored.
+	 * 
+	 * @param toast the toast
+	 * @param action the selected action
+	 */
+	public void execute(Toast toast, ToastAction action) {
+		Consumer<Toast> executable = action.getExecutable();
+		if (executable == null) {
+			return;
+		}
+		Recorder recorder = recorders.computeIfAbsent(String.valueOf(action.getText()), text -> new Recorder());
+		if (action.isExecuteInUIThread()) {
+			run(toast, executable, recorder);
+			return;
+		}
+		try {
+			executor.execute(() -> run(toast, executable, recorder));
+		} catch (RejectedExecutionException e) {
+			recorder.rejected.increment();
+			logger.warn("Action '{}' of toast {} was rejected: {}", action.getText(), toast, e.getMessage()); //$NON-NLS-1$
+		}
+	}
+	
+	private static void run(Toast toast, Consumer<Toast> executable, Recorder recorder) {
+		long start = System.nanoTime();
+		try {
+			executable.accept(toast);
+		} catch (Exception e) {
+			recorder.failed.increment();
+			logger.error(e.getMessage(), e);
+		} finally {
+			recorder.record(System.nanoTime() - start);
+		}
+	}
+	
+	/**
+	 * @return the statistics of the executed actions by action text
+	 */
+	public Map<String, Statistics> getStatistics() {
+		Map<String, Statistics> result = new TreeMap<>();
+		recorders.forEach((text, recorder) -> result.put(text, recorder.toStatistics()));
+		return Collections.unmodifiableMap(result);
+	}
+	
+	/**
+	 * Resets the statistics.
+	 */
+	public void resetStatistics() {
+		recorders.clear();
+	}
+	
+	/**
+	 * Shuts down the underlying executor service. Already queued executions are still executed.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+	
+	private static class Recorder {
+		private final LongAdder executions = new LongAdder();
+		private final LongAdder failed = new LongAdder();
+		private final LongAdder rejected = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final AtomicLong maxNanos = new AtomicLong();
+		
+		private void record(long nanos) {
+			executions.increment();
+			totalNanos.add(nanos);
+			maxNanos.accumulateAndGet(nanos, Math::max);
+		}
+		
+		private Statistics toStatistics() {
+			return new Statistics(executions.sum(), failed.sum(), rejected.sum(), totalNanos.sum(), maxNanos.get());
+		}
+	}
+	
+	/**
+	 * The execution statistics of an action.
+	 */
+	public static class Statistics {
+		
+		private final long executions;
+		private final long failed;
+		private final long rejected;
+		private final long totalNanos;
+		private final long maxNanos;
+		
+		private Statistics(long executions, long failed, long rejected, long totalNanos, long maxNanos) {
+			this.executions = executions;
+			this.failed = failed;
+			this.rejected = rejected;
+			this.totalNanos = totalNanos;
+			this.maxNanos = maxNanos;
+		}
+		
+		/**
+		 * @return the number of executions (including failed executions)
+		 */
+		public long getExecutions() {
+			return executions;
+		}
+		
+		/**
+		 * @return the number of executions which threw an exception
+		 */
+		public long getFailed() {
+			return failed;
+		}
+		
+		/**
+		 * @return the number of executions which were rejected because the executor was exhausted
+		 */
+		public long getRejected() {
+			return rejected;
+		}
+		
+		/**
+		 * @return the total execution time in nanoseconds
+		 */
+		public long getTotalNanos() {
+			return totalNanos;
+		}
+		
+		/**
+		 * @return the maximum execution time in nanoseconds
+		 */
+		public long getMaxNanos() {
+			return maxNanos;
+		}
+		
+		/**
+		 * @return the average execution time in nanoseconds
+		 */
+		public long getAverageNanos() {
+			return executions == 0 ? 0 : totalNanos / executions;
+		}
+		
+		@SuppressWarnings("nls")
+		@Override
+		public String toString() {
+			return "Statistics [executions=" + executions + ", failed=" + failed + ", rejected=" + rejected
+					+ ", avg=" + TimeUnit.NANOSECONDS.toMicros(getAverageNanos()) + "µs, max=" + TimeUnit.NANOSECONDS.toMicros(maxNanos) + "µs]";
+		}
+	}
+	
+}
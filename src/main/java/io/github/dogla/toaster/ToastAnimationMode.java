@@ -0,0 +1,32 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+/**
+ * The animation mode of the popups (@see {@link ToastAnimationPolicy}).
+ *
+ * @author Dominik
+ */
+public enum ToastAnimationMode {
+	
+	/** The popups fade in and out with the steps and times of their style */
+	FULL,
+	/** The popups fade in and out with less steps in less time */
+	REDUCED,
+	/** The popups are shown and closed without animation */
+	NONE;
+	
+}
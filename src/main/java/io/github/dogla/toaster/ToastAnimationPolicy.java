@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import lombok.Builder;
+import lombok.Builder.Default;
+import lombok.Getter;
+
+/**
+ * The thresholds of the adaptive animation (@see {@link Toaster#setAnimationPolicy(ToastAnimationPolicy)}).
+ * <p>
+ * The animation of the popups is reduced or skipped if the number of pending toasts or the load of the popup display thread
+ * reaches the corresponding threshold, so a deep queue is drained faster and the display thread is not busy with fading popups.
+ * The load is the fraction of the time the toaster spent on the popup display thread within the last {@link #getLoadWindow() load window}.
+ * </p>
+ *
+ * @author Dominik
+ */
+@Builder(toBuilder = true) @Getter
+public final class ToastAnimationPolicy {
+	
+	/** The default policy */
+	public static final ToastAnimationPolicy DEFAULT = ToastAnimationPolicy.builder().build();
+	
+	/** A policy which always animates the popups fully */
+	public static final ToastAnimationPolicy ALWAYS_FULL = ToastAnimationPolicy.builder()
+			.reducedPending(Integer.MAX_VALUE)
+			.skippedPending(Integer.MAX_VALUE)
+			.reducedLoad(Double.POSITIVE_INFINITY)
+			.skippedLoad(Double.POSITIVE_INFINITY)
+			.build();
+	
+	// the minimum number of pending toasts to reduce/skip the animation
+	@Default
+	private final int reducedPending = 4;
+	@Default
+	private final int skippedPending = 16;
+	
+	// the minimum load of the popup display thread (0..1) to reduce/skip the animation
+	@Default
+	private final double reducedLoad = 0.3;
+	@Default
+	private final double skippedLoad = 0.6;
+	
+	// the factor applied to the fade steps and times in the reduced mode
+	@Default
+	private final double reductionFactor = 0.25;
+	
+	// the time in milliseconds over which the load is measured
+	@Default
+	private final int loadWindow = 250;
+	
+	/**
+	 * @param pending the number of pending toasts
+	 * @param load the load of the popup display thread (0..1)
+	 * 
+	 * @return the animation mode
+	 */
+	public ToastAnimationMode getMode(int pending, double load) {
+		if (pending >= skippedPending || load >= skippedLoad) {
+			return ToastAnimationMode.NONE;
+		}
+		if (pending >= reducedPending || load >= reducedLoad) {
+			return ToastAnimationMode.REDUCED;
+		}
+		return ToastAnimationMode.FULL;
+	}
+	
+	/**
+	 * @param mode the animation mode
+	 * @param steps the fade steps of the style
+	 * 
+	 * @return the fade steps to use in the given mode (at least 1)
+	 */
+	public int getSteps(ToastAnimationMode mode, int steps) {
+		int result = mode == ToastAnimationMode.REDUCED ? (int) Math.round(steps * reductionFactor) : steps;
+		return Math.max(result, 1);
+	}
+	
+	/**
+	 * @param mode the animation mode
+	 * @param time the fade time in milliseconds of the style
+	 * 
+	 * @return the fade time in milliseconds to use in the given mode
+	 */
+	public int getTime(ToastAnimationMode mode, int time) {
+		switch (mode) {
+		case NONE:
+			return 0;
+		case REDUCED:
+			return (int) Math.round(time * reductionFactor);
+		default:
+			return time;
+		}
+	}
+	
+}
@@ -15,8 +15,6 @@
  */
 package io.github.dogla.toaster;
 
-import lombok.Getter;
-
 /**
  * Instances of this class are descriptions of colors in terms of the primary
  * additive color model (red, green and blue). A color may be described in terms
@@ -24,21 +22,26 @@ import lombok.Getter;
  * each color is specified by a value in the range 0 to 255, where 0 indicates
  * no color (blackness) and 255 indicates maximum intensity.
  * <p>
- * The hashCode() method in this class uses the values of the public fields to
- * compute the hash value. When storing instances of the class in hashed
- * collections, do not modify these fields after the object has been inserted.
+ * Instances are immutable and store the components packed into a single int (<code>0xRRGGBB</code>, see {@link #getRGB()}).
+ * Use {@link #of(int, int, int)} to obtain shared instances of common colors, their {@link #brighter()} and {@link #darker()} 
+ * variants are computed only once per instance.
  * </p>
  *
  * @author Dominik
  */
-@Getter
 public final class ToastColor {
 
     private static final double FACTOR = 0.7;
+    
+    private static final int INTERN_TABLE_BITS = 8;
+    // direct mapped table of recently used colors, races only lead to additional instances
+    private static final ToastColor[] INTERN_TABLE = new ToastColor[1 << INTERN_TABLE_BITS];
+    
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray(); //$NON-NLS-1$
 
-	private int red;
-	private int green;
-	private int blue;
+	private final int rgb;
+	private ToastColor brighter;
+	private ToastColor darker;
 
 	/**
 	 * Constructs an instance of this class with the given red, green and blue values.
@@ -51,31 +54,112 @@ public final class ToastColor {
 	 *            the blue component of the new instance
 	 *
 	 * @exception IllegalArgumentException if the red, green or blue argument is not between 0 and 255
+	 * 
+	 * @see #of(int, int, int)
 	 */
 	public ToastColor(int red, int green, int blue) {
 		if ((red > 255) || (red < 0) || (green > 255) || (green < 0) || (blue > 255) || (blue < 0)) {
 			throw new IllegalArgumentException("Values have to be between 0 to 255"); //$NON-NLS-1$
 		}
-		this.red = red;
-		this.green = green;
-		this.blue = blue;
+		this.rgb = (red << 16) | (green << 8) | blue;
+	}
+	
+	private ToastColor(int rgb) {
+		this.rgb = rgb;
+	}
+	
+	/**
+	 * Returns a shared instance of the given color.
+	 *
+	 * @param red
+	 *            the red component
+	 * @param green
+	 *            the green component
+	 * @param blue
+	 *            the blue component
+	 *
+	 * @return the color
+	 * 
+	 * @exception IllegalArgumentException if the red, green or blue argument is not between 0 and 255
+	 */
+	public static ToastColor of(int red, int green, int blue) {
+		if ((red > 255) || (red < 0) || (green > 255) || (green < 0) || (blue > 255) || (blue < 0)) {
+			throw new IllegalArgumentException("Values have to be between 0 to 255"); //$NON-NLS-1$
+		}
+		return of((red << 16) | (green << 8) | blue);
+	}
+	
+	/**
+	 * Returns a shared instance of the given color.
+	 *
+	 * @param rgb the packed color <code>0xRRGGBB</code>, the upper 8 bits are ignored
+	 *
+	 * @return the color
+	 */
+	public static ToastColor of(int rgb) {
+		rgb &= 0xFFFFFF;
+		int index = (rgb * 0x9E3779B1) >>> (32 - INTERN_TABLE_BITS);
+		ToastColor color = INTERN_TABLE[index];
+		if (color == null || color.rgb != rgb) {
+			color = new ToastColor(rgb);
+			INTERN_TABLE[index] = color;
+		}
+		return color;
+	}
+	
+	/**
+	 * @return the packed color <code>0xRRGGBB</code>
+	 */
+	public int getRGB() {
+		return rgb;
+	}
+	
+	/**
+	 * @return the red component (0 - 255)
+	 */
+	public int getRed() {
+		return (rgb >>> 16) & 0xFF;
+	}
+	
+	/**
+	 * @return the green component (0 - 255)
+	 */
+	public int getGreen() {
+		return (rgb >>> 8) & 0xFF;
+	}
+	
+	/**
+	 * @return the blue component (0 - 255)
+	 */
+	public int getBlue() {
+		return rgb & 0xFF;
 	}
 	
     /**
-     * Creates a new <code>ToastColor</code> that is a brighter version of this <code>ToastColor</code>.
+     * Returns a <code>ToastColor</code> that is a brighter version of this <code>ToastColor</code>.
      * <p>
      * This method applies an arbitrary scale factor to each of the three RGB
      * components of this <code>ToastColor</code> to create a brighter version of this <code>ToastColor</code>.
      * Although <code>brighter</code> and <code>darker</code> are inverse operations, the results of a
      * series of invocations of these two methods might be inconsistent because of rounding errors.
+     * The result is computed only once per instance.
      * 
-     * @return a new <code>ToastColor</code> object that is a brighter version of this <code>ToastColor</code>.
+     * @return a <code>ToastColor</code> object that is a brighter version of this <code>ToastColor</code>.
      * @see #darker()
      */
     public ToastColor brighter() {
-        int r = red;
-        int g = green;
-        int b = blue;
+    	ToastColor result = brighter;
+    	if (result == null) {
+    		result = computeBrighter();
+    		brighter = result;
+    	}
+    	return result;
+    }
+    
+    private ToastColor computeBrighter() {
+        int r = getRed();
+        int g = getGreen();
+        int b = getBlue();
 
         /* From 2D group:
          * 1. black.brighter() should return grey
@@ -84,7 +168,7 @@ public final class ToastColor {
          */
         int i = (int)(1.0/(1.0-FACTOR));
         if ( r == 0 && g == 0 && b == 0) {
-            return new ToastColor(i, i, i);
+            return of(i, i, i);
         }
         if ( r > 0 && r < i ) {
 			r = i;
@@ -96,11 +180,11 @@ public final class ToastColor {
 			b = i;
 		}
 
-        return new ToastColor(Math.min((int)(r/FACTOR), 255), Math.min((int)(g/FACTOR), 255), Math.min((int)(b/FACTOR), 255));
+        return of(Math.min((int)(r/FACTOR), 255), Math.min((int)(g/FACTOR), 255), Math.min((int)(b/FACTOR), 255));
     }
 
     /**
-     * Creates a new <code>ToastColor</code> that is a darker version of this <code>ToastColor</code>.
+     * Returns a <code>ToastColor</code> that is a darker version of this <code>ToastColor</code>.
      * <p>
      * This method applies an arbitrary scale factor to each of the three RGB
      * components of this <code>ToastColor</code> to create a darker version of
@@ -109,19 +193,30 @@ public final class ToastColor {
      * <code>darker</code> are inverse operations, the results of a series
      * of invocations of these two methods might be inconsistent because
      * of rounding errors.
+     * The result is computed only once per instance.
      * 
-     * @return a new <code>ToastColor</code> object that is a darker version of this <code>ToastColor</code>.
+     * @return a <code>ToastColor</code> object that is a darker version of this <code>ToastColor</code>.
      * @see #brighter()
      */
     public ToastColor darker() {
-        return new ToastColor(Math.max((int)(red  *FACTOR), 0), Math.max((int)(green*FACTOR), 0), Math.max((int)(blue *FACTOR), 0));
+    	ToastColor result = darker;
+    	if (result == null) {
+    		result = of(Math.max((int)(getRed()*FACTOR), 0), Math.max((int)(getGreen()*FACTOR), 0), Math.max((int)(getBlue()*FACTOR), 0));
+    		darker = result;
+    	}
+    	return result;
     }
     
 	/**
 	 * @return a string representation of the <code>ToastColor</code> in hex format
 	 */
 	public String toHEX() {
-		return ("#" + String.format("%02X", red) + String.format("%02X", green) + String.format("%02X", blue)).toUpperCase(); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		char[] chars = new char[7];
+		chars[0] = '#';
+		for (int i = 6; i > 0; i--) {
+			chars[i] = HEX_DIGITS[(rgb >>> ((6 - i) * 4)) & 0xF];
+		}
+		return new String(chars);
 	}
 	
 	@Override
@@ -132,13 +227,12 @@ public final class ToastColor {
 		if (!(object instanceof ToastColor)) {
 			return false;
 		}
-		ToastColor color = (ToastColor) object;
-		return (color.red == this.red) && (color.green == this.green) && (color.blue == this.blue);
+		return ((ToastColor) object).rgb == this.rgb;
 	}
 
 	@Override
 	public int hashCode() {
-		return (blue << 16) | (green << 8) | red;
+		return rgb;
 	}
 
 	@Override
@@ -0,0 +1,179 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import java.util.Objects;
+
+/**
+ * An immutable snapshot of the updatable content of a toast (@see {@link Toast#getContent()}).
+ * <p>
+ * Every update of a toast replaces its content by a new snapshot with an incremented version,
+ * so readers (e.g. the popup display thread) can read a consistent state without locking and detect changes by the version.
+ * </p>
+ *
+ * @author Dominik
+ */
+public final class ToastContent {
+	
+	private final long version;
+	private final String title;
+	private final String message;
+	private final String details;
+	private final Object icon;
+	private final int displayTime;
+	
+	/*package*/ ToastContent(long version, String title, String message, String details, Object icon, int displayTime) {
+		this.version = version;
+		this.title = title;
+		this.message = message;
+		this.details = details;
+		this.icon = icon;
+		this.displayTime = displayTime;
+	}
+	
+	/**
+	 * @return the version which is incremented by every update of the toast
+	 */
+	public long getVersion() {
+		return version;
+	}
+	
+	/**
+	 * @return the title
+	 */
+	public String getTitle() {
+		return title;
+	}
+	
+	/**
+	 * @return the message
+	 */
+	public String getMessage() {
+		return message;
+	}
+	
+	/**
+	 * @return the details
+	 */
+	public String getDetails() {
+		return details;
+	}
+	
+	/**
+	 * @return the icon
+	 */
+	public Object getIcon() {
+		return icon;
+	}
+	
+	/**
+	 * @return the display time
+	 */
+	public int getDisplayTime() {
+		return displayTime;
+	}
+	
+	/**
+	 * @param title the title
+	 * 
+	 * @return the next version with the given title or the instance itself if the title is unchanged
+	 */
+	public ToastContent withTitle(String title) {
+		return Objects.equals(this.title, title) ? this : new ToastContent(version + 1, title, message, details, icon, displayTime);
+	}
+	
+	/**
+	 * @param message the message
+	 * 
+	 * @return the next version with the given message or the instance itself if the message is unchanged
+	 */
+	public ToastContent withMessage(String message) {
+		return Objects.equals(this.message, message) ? this : new ToastContent(version + 1, title, message, details, icon, displayTime);
+	}
+	
+	/**
+	 * @param details the details
+	 * 
+	 * @return the next version with the given details or the instance itself if the details are unchanged
+	 */
+	public ToastContent withDetails(String details) {
+		return Objects.equals(this.details, details) ? this : new ToastContent(version + 1, title, message, details, icon, displayTime);
+	}
+	
+	/**
+	 * @param title the title
+	 * @param message the message
+	 * @param details the details
+	 * 
+	 * @return the next version with the given texts or the instance itself if the texts are unchanged
+	 */
+	public ToastContent withText(String title, String message, String details) {
+		if (Objects.equals(this.title, title) && Objects.equals(this.message, message) && Objects.equals(this.details, details)) {
+			return this;
+		}
+		return new ToastContent(version + 1, title, message, details, icon, displayTime);
+	}
+	
+	/**
+	 * @param icon the icon
+	 * 
+	 * @return the next version with the given icon or the instance itself if the icon is unchanged
+	 */
+	public ToastContent withIcon(Object icon) {
+		return Objects.equals(this.icon, icon) ? this : new ToastContent(version + 1, title, message, details, icon, displayTime);
+	}
+	
+	/**
+	 * @param displayTime the display time
+	 * 
+	 * @return the next version with the given display time or the instance itself if the display time is unchanged
+	 */
+	public ToastContent withDisplayTime(int displayTime) {
+		return this.displayTime == displayTime ? this : new ToastContent(version + 1, title, message, details, icon, displayTime);
+	}
+	
+	/**
+	 * @param other the other content
+	 * 
+	 * @return the mask of the fields which differ between this and the given content (@see {@link ToastField#mask()})
+	 */
+	public int diff(ToastContent other) {
+		int changedFields = 0;
+		if (!Objects.equals(title, other.title)) {
+			changedFields |= ToastField.TITLE.mask();
+		}
+		if (!Objects.equals(message, other.message)) {
+			changedFields |= ToastField.MESSAGE.mask();
+		}
+		if (!Objects.equals(details, other.details)) {
+			changedFields |= ToastField.DETAILS.mask();
+		}
+		if (!Objects.equals(icon, other.icon)) {
+			changedFields |= ToastField.ICON.mask();
+		}
+		if (displayTime != other.displayTime) {
+			changedFields |= ToastField.DISPLAY_TIME.mask();
+		}
+		return changedFields;
+	}
+	
+	@SuppressWarnings("nls")
+	@Override
+	public String toString() {
+		return "ToastContent [version=" + version + ", title=" + title + ", message=" + message + "]";
+	}
+	
+}
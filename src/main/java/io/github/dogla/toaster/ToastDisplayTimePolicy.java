@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import lombok.Builder;
+import lombok.Builder.Default;
+import lombok.Getter;
+
+/**
+ * Shortens the display time of non-sticky toasts if toasts are pending (@see {@link Toaster#setDisplayTimePolicy(ToastDisplayTimePolicy)}).
+ * <p>
+ * The visible toasts drain the queue with a rate of <code>visible / displayTime</code> while new toasts arrive with the observed arrival rate.
+ * The display time is shortened so that each pending toast is shown within the {@link #getClearanceTime() clearance time} after it was queued, 
+ * i.e. the pending toasts are shown within the time left for the oldest one:
+ * <code>displayTime = visible / (pending / (clearanceTime - oldestPendingAge) + arrivalRate)</code>.
+ * It is never shortened below the minimum display time of the toast ({@link Toast#getMinDisplayTime()}) or of the policy,
+ * and never extended beyond the display time of the toast. Without pending toasts the display time is not changed.
+ * </p>
+ *
+ * @author Dominik
+ */
+@Builder(toBuilder = true) @Getter
+public final class ToastDisplayTimePolicy {
+	
+	/** The default policy */
+	public static final ToastDisplayTimePolicy DEFAULT = ToastDisplayTimePolicy.builder().build();
+	
+	// the time in milliseconds in which a pending toast should be shown
+	@Default
+	private final int clearanceTime = 30000;
+	
+	// the minimum display time in milliseconds for toasts without an own minimum
+	@Default
+	private final int minDisplayTime = 1500;
+	
+	/**
+	 * @param toast the toast
+	 * @param pending the number of pending toasts
+	 * @param oldestPendingAge the time in milliseconds since the oldest pending toast was queued
+	 * @param visible the number of visible toasts
+	 * @param arrivalRate the number of new toasts per second
+	 * 
+	 * @return the display time in milliseconds
+	 */
+	public int getDisplayTime(Toast toast, int pending, long oldestPendingAge, int visible, double arrivalRate) {
+		int minimum = toast.getMinDisplayTime() > 0 ? toast.getMinDisplayTime() : minDisplayTime;
+		return getDisplayTime(toast.getDisplayTime(), minimum, pending, oldestPendingAge, visible, arrivalRate);
+	}
+	
+	/**
+	 * @param displayTime the display time in milliseconds of the toast
+	 * @param minimum the minimum display time in milliseconds
+	 * @param pending the number of pending toasts
+	 * @param oldestPendingAge the time in milliseconds since the oldest pending toast was queued
+	 * @param visible the number of visible toasts
+	 * @param arrivalRate the number of new toasts per second
+	 * 
+	 * @return the display time in milliseconds
+	 */
+	public int getDisplayTime(int displayTime, int minimum, int pending, long oldestPendingAge, int visible, double arrivalRate) {
+		if (pending <= 0 || displayTime <= minimum) {
+			return displayTime;
+		}
+		// toasts per millisecond which have to be shown to show the pending toasts in time
+		long remainingTime = Math.max(clearanceTime - oldestPendingAge, 1);
+		double requiredRate = pending / (double) remainingTime + Math.max(arrivalRate, 0) / 1000;
+		double shortened = Math.max(visible, 1) / requiredRate;
+		return (int) Math.max(minimum, Math.min(displayTime, shortened));
+	}
+	
+}
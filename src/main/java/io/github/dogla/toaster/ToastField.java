@@ -0,0 +1,54 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+/**
+ * The updatable fields of a toast (@see {@link ToastUpdateEvent}).
+ *
+ * @author Dominik
+ */
+public enum ToastField {
+	
+	/** The title */
+	TITLE,
+	/** The message */
+	MESSAGE,
+	/** The details */
+	DETAILS,
+	/** The icon */
+	ICON,
+	/** The display time */
+	DISPLAY_TIME;
+	
+	private final int mask = 1 << ordinal();
+	
+	/**
+	 * @return the bit of this field within a mask of changed fields
+	 */
+	public int mask() {
+		return mask;
+	}
+	
+	/**
+	 * @param mask the mask of changed fields
+	 * 
+	 * @return <code>true</code> if the field is contained in the given mask
+	 */
+	public boolean isContainedIn(int mask) {
+		return (mask & this.mask) != 0;
+	}
+	
+}
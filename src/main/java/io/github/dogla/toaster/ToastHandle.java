@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The handle of an asynchronously submitted toast (@see {@link Toaster#submit(Toast)}).
+ * <p>
+ * The futures of the handle are completed in the popup display thread after the internal lock of the toaster was released,
+ * so dependent actions may show or cancel other toasts. Dependent actions which take some time
+ * should nevertheless be registered with the <code>*Async</code> methods of the {@link CompletableFuture}.
+ * If the toast could not be shown (e.g. because the toast could not be prepared or the popup could not be created) 
+ * all futures which are not completed yet are completed exceptionally. If the toast expired before it was shown (@see {@link Toast#getDeadline()}),
+ * the future {@link #shown()} is completed with a {@link TimeoutException} and the toast is closed without any selected action.
+ * Expired toasts found by the periodic sweep are completed in the sweep thread.
+ * If a pending toast is cancelled (@see {@link Toaster#cancel(String)}), the future {@link #shown()} is cancelled 
+ * and the toast is closed without any selected action in the cancelling thread.
+ * </p>
+ *
+ * @author Dominik
+ */
+public class ToastHandle {
+	
+	private static Logger logger = LoggerFactory.getLogger(ToastHandle.class);
+	
+	private final Toast toast;
+	private final CompletableFuture<Toast> queued = new CompletableFuture<>();
+	private final CompletableFuture<Toast> shown = new CompletableFuture<>();
+	private final CompletableFuture<Toast> closed = new CompletableFuture<>();
+	private final CompletableFuture<ToastAction> actionSelected = new CompletableFuture<>();
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param toast the toast
+	 */
+	/*package*/ ToastHandle(Toast toast) {
+		this.toast = toast;
+	}
+	
+	/**
+	 * @return the toast
+	 */
+	public Toast getToast() {
+		return toast;
+	}
+	
+	/**
+	 * @return the future completed after the toast was accepted by the toast manager, i.e. it is either shown or waiting for a free area 
+	 */
+	public CompletableFuture<Toast> queued() {
+		return queued;
+	}
+	
+	/**
+	 * @return the future completed after the popup of the toast was shown
+	 */
+	public CompletableFuture<Toast> shown() {
+		return shown;
+	}
+	
+	/**
+	 * @return the future completed after the popup of the toast was closed
+	 */
+	public CompletableFuture<Toast> closed() {
+		return closed;
+	}
+	
+	/**
+	 * Returns the future completed with the selected action.
+	 * If the popup is closed without selecting an action the future is completed with <code>null</code>.
+	 * 
+	 * @return the future completed with the selected action
+	 */
+	public CompletableFuture<ToastAction> actionSelected() {
+		return actionSelected;
+	}
+	
+	/*package*/ void onQueued() {
+		queued.complete(toast);
+	}
+	
+	/*package*/ void onShown() {
+		shown.complete(toast);
+	}
+	
+	/*package*/ void onActionSelected(ToastAction action) {
+		actionSelected.complete(action);
+	}
+	
+	/*package*/ void onClosed() {
+		actionSelected.complete(null);
+		closed.complete(toast);
+	}
+	
+	/*package*/ void onExpired() {
+		shown.completeExceptionally(new TimeoutException("Toast expired before it was shown.")); //$NON-NLS-1$
+		actionSelected.complete(null);
+		closed.complete(toast);
+	}
+	
+	/*package*/ void onCancelled() {
+		shown.cancel(false);
+		actionSelected.complete(null);
+		closed.complete(toast);
+	}
+	
+	/*package*/ void onFailed(Throwable throwable) {
+		logger.error("Toast could not be shown: {}", toast, throwable); //$NON-NLS-1$
+		queued.completeExceptionally(throwable);
+		shown.completeExceptionally(throwable);
+		actionSelected.completeExceptionally(throwable);
+		closed.completeExceptionally(throwable);
+	}
+	
+}
@@ -0,0 +1,484 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A memory-bounded history of closed toasts.
+ * <p>
+ * The history is a ring buffer which only keeps the displayed attributes of the toasts in columns.
+ * The texts are interned in a reference counted table of the history, so repeated titles or messages are only stored once.
+ * The icons are only kept (by reference) if this is enabled when the history is created, because they may be large images.
+ * The toasts themselves (and their listeners, colors and actions) are not retained.
+ * If the history is full the oldest entry is evicted.
+ * </p>
+ * <p>
+ * The words of the title, message and details are indexed, so {@link #search(String, int)} does not have to scan all entries.
+ * Queries by time range ({@link #getRange(long, long)}) use a binary search because the entries are ordered by their closing time.
+ * </p>
+ *
+ * @author Dominik
+ */
+public class ToastHistory {
+	
+	/** The default capacity */
+	public static final int DEFAULT_CAPACITY = 1000;
+	
+	private static final ToastPosition[] POSITIONS = ToastPosition.values();
+	
+	private final int capacity;
+	// columns (icons is null if the icons are not retained)
+	private final String[] ids;
+	private final String[] titles;
+	private final String[] messages;
+	private final String[] details;
+	private final Object[] icons;
+	private final byte[] positions;
+	private final boolean[] sticky;
+	private final long[] shownAt;
+	private final long[] closedAt;
+	
+	// sequence number of the next entry, the slot of an entry is its sequence number modulo the capacity
+	private long nextSequence;
+	private final Map<String, Interned> strings = new HashMap<>();
+	private final Map<String, Postings> index = new HashMap<>();
+	
+	/**
+	 * Constructor. The icons of the toasts are not retained.
+	 *
+	 * @param capacity the maximum number of entries
+	 */
+	public ToastHistory(int capacity) {
+		this(capacity, false);
+	}
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param capacity the maximum number of entries
+	 * @param retainIcons <code>true</code> if the icons of the toasts should be kept by the entries
+	 */
+	public ToastHistory(int capacity, boolean retainIcons) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be greater than 0."); //$NON-NLS-1$
+		}
+		this.capacity = capacity;
+		this.ids = new String[capacity];
+		this.titles = new String[capacity];
+		this.messages = new String[capacity];
+		this.details = new String[capacity];
+		this.icons = retainIcons ? new Object[capacity] : null;
+		this.positions = new byte[capacity];
+		this.sticky = new boolean[capacity];
+		this.shownAt = new long[capacity];
+		this.closedAt = new long[capacity];
+	}
+	
+	/**
+	 * Records the given toast.
+	 * 
+	 * @param toast the closed toast
+	 * @param shownTime the time in milliseconds when the toast was shown
+	 * @param closedTime the time in milliseconds when the toast was closed
+	 */
+	/*package*/ synchronized void record(Toast toast, long shownTime, long closedTime) {
+		if (nextSequence >= capacity) {
+			evict(nextSequence - capacity);
+		}
+		long sequence = nextSequence++;
+		int slot = slot(sequence);
+		// ids are unique, so interning them would not save anything
+		ids[slot] = toast.getId();
+		titles[slot] = intern(toast.getTitle());
+		messages[slot] = intern(toast.getMessage());
+		details[slot] = intern(toast.getDetails());
+		if (icons != null) {
+			icons[slot] = toast.getIcon();
+		}
+		positions[slot] = (byte) toast.getPosition().ordinal();
+		sticky[slot] = toast.isSticky();
+		shownAt[slot] = shownTime;
+		// keep the entries ordered by closing time even if the system clock is changed
+		closedAt[slot] = sequence > 0 ? Math.max(closedTime, closedAt[slot(sequence - 1)]) : closedTime;
+		for (String token : tokens(slot)) {
+			index.computeIfAbsent(token, t -> new Postings()).add(sequence);
+		}
+	}
+	
+	private void evict(long sequence) {
+		int slot = slot(sequence);
+		// the evicted entry is the oldest entry of all its postings
+		for (String token : tokens(slot)) {
+			Postings postings = index.get(token);
+			if (postings != null) {
+				postings.removeFirst(sequence);
+				if (postings.size == 0) {
+					index.remove(token);
+				}
+			}
+		}
+		release(titles[slot]);
+		release(messages[slot]);
+		release(details[slot]);
+		ids[slot] = null;
+		titles[slot] = null;
+		messages[slot] = null;
+		details[slot] = null;
+		if (icons != null) {
+			icons[slot] = null;
+		}
+	}
+	
+	private Set<String> tokens(int slot) {
+		Set<String> tokens = new LinkedHashSet<>();
+		tokenize(titles[slot], tokens);
+		tokenize(messages[slot], tokens);
+		tokenize(details[slot], tokens);
+		return tokens;
+	}
+	
+	private static void tokenize(String text, Set<String> tokens) {
+		if (text == null) {
+			return;
+		}
+		int length = text.length();
+		int start = -1;
+		for (int i = 0; i <= length; i++) {
+			boolean letter = i < length && Character.isLetterOrDigit(text.charAt(i));
+			if (letter && start < 0) {
+				start = i;
+			} else if (!letter && start >= 0) {
+				// independent of the default locale (e.g. the dotless i of the turkish locale)
+				tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+				start = -1;
+			}
+		}
+	}
+	
+	private String intern(String value) {
+		if (value == null) {
+			return null;
+		}
+		Interned interned = strings.get(value);
+		if (interned == null) {
+			interned = new Interned(value);
+			strings.put(value, interned);
+		}
+		interned.references++;
+		return interned.value;
+	}
+	
+	private void release(String value) {
+		if (value == null) {
+			return;
+		}
+		Interned interned = strings.get(value);
+		if (interned != null && --interned.references == 0) {
+			strings.remove(value);
+		}
+	}
+	
+	private int slot(long sequence) {
+		return (int) (sequence % capacity);
+	}
+	
+	private long firstSequence() {
+		return Math.max(0, nextSequence - capacity);
+	}
+	
+	/**
+	 * Searches for entries containing all words of the given text in their title, message or details.
+	 * The words are compared case insensitive.
+	 * 
+	 * @param text the text to search for
+	 * @param limit the maximum number of results
+	 * 
+	 * @return the matching entries, the latest entry first
+	 */
+	public synchronized List<Entry> search(String text, int limit) {
+		Set<String> tokens = new LinkedHashSet<>();
+		tokenize(text, tokens);
+		if (tokens.isEmpty()) {
+			return getLatest(limit);
+		}
+		// start with the smallest postings
+		List<Postings> postings = new ArrayList<>(tokens.size());
+		for (String token : tokens) {
+			Postings p = index.get(token);
+			if (p == null) {
+				return Collections.emptyList();
+			}
+			postings.add(p);
+		}
+		postings.sort((p1, p2) -> Integer.compare(p1.size, p2.size));
+		Postings smallest = postings.get(0);
+		List<Entry> result = new ArrayList<>();
+		for (int i = smallest.size - 1; i >= 0 && result.size() < limit; i--) {
+			long sequence = smallest.get(i);
+			boolean matches = true;
+			for (int j = 1; j < postings.size() && matches; j++) {
+				matches = postings.get(j).contains(sequence);
+			}
+			if (matches) {
+				result.add(entry(sequence));
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the entries which were closed in the given time range.
+	 * 
+	 * @param fromTime the start of the range in milliseconds (inclusive)
+	 * @param toTime the end of the range in milliseconds (exclusive)
+	 * 
+	 * @return the entries in the range, the oldest entry first
+	 */
+	public synchronized List<Entry> getRange(long fromTime, long toTime) {
+		long from = lowerBound(fromTime);
+		long to = lowerBound(toTime);
+		List<Entry> result = new ArrayList<>((int) Math.max(0, to - from));
+		for (long sequence = from; sequence < to; sequence++) {
+			result.add(entry(sequence));
+		}
+		return result;
+	}
+	
+	// returns the sequence of the first entry closed at or after the given time
+	private long lowerBound(long time) {
+		long low = firstSequence();
+		long high = nextSequence;
+		while (low < high) {
+			long mid = (low + high) >>> 1;
+			if (closedAt[slot(mid)] < time) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+	
+	/**
+	 * @param count the maximum number of entries
+	 * 
+	 * @return the latest entries, the latest entry first
+	 */
+	public synchronized List<Entry> getLatest(int count) {
+		List<Entry> result = new ArrayList<>();
+		for (long sequence = nextSequence - 1; sequence >= firstSequence() && result.size() < count; sequence--) {
+			result.add(entry(sequence));
+		}
+		return result;
+	}
+	
+	private Entry entry(long sequence) {
+		int slot = slot(sequence);
+		return new Entry(ids[slot], titles[slot], messages[slot], details[slot], icons != null ? icons[slot] : null, POSITIONS[positions[slot]], sticky[slot], shownAt[slot], closedAt[slot]);
+	}
+	
+	/**
+	 * @return the number of entries
+	 */
+	public synchronized int size() {
+		return (int) (nextSequence - firstSequence());
+	}
+	
+	/**
+	 * @return the maximum number of entries
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+	
+	/**
+	 * @return <code>true</code> if the icons of the toasts are kept by the entries
+	 */
+	public boolean isRetainIcons() {
+		return icons != null;
+	}
+	
+	/**
+	 * Removes all entries.
+	 */
+	public synchronized void clear() {
+		Arrays.fill(ids, null);
+		Arrays.fill(titles, null);
+		Arrays.fill(messages, null);
+		Arrays.fill(details, null);
+		if (icons != null) {
+			Arrays.fill(icons, null);
+		}
+		strings.clear();
+		index.clear();
+		nextSequence = 0;
+	}
+	
+	private static class Interned {
+		private final String value;
+		private int references;
+		private Interned(String value) {
+			this.value = value;
+		}
+	}
+	
+	/**
+	 * Ascending sequence numbers of the entries containing a token.
+	 */
+	private static class Postings {
+		private long[] sequences = new long[2];
+		private int head;
+		private int size;
+		
+		private void add(long sequence) {
+			if (head + size == sequences.length) {
+				if (head > 0) {
+					System.arraycopy(sequences, head, sequences, 0, size);
+					head = 0;
+				}
+				if (size == sequences.length) {
+					sequences = Arrays.copyOf(sequences, size * 2);
+				}
+			}
+			sequences[head + size++] = sequence;
+		}
+		
+		private void removeFirst(long sequence) {
+			if (size > 0 && sequences[head] == sequence) {
+				head++;
+				size--;
+				if (size == 0) {
+					head = 0;
+				}
+			}
+		}
+		
+		private long get(int i) {
+			return sequences[head + i];
+		}
+		
+		private boolean contains(long sequence) {
+			return Arrays.binarySearch(sequences, head, head + size, sequence) >= 0;
+		}
+	}
+	
+	/**
+	 * An immutable entry of the history.
+	 */
+	public static class Entry {
+		
+		private final String id;
+		private final String title;
+		private final String message;
+		private final String details;
+		private final Object icon;
+		private final ToastPosition position;
+		private final boolean sticky;
+		private final long shownTime;
+		private final long closedTime;
+		
+		private Entry(String id, String title, String message, String details, Object icon, ToastPosition position, boolean sticky, long shownTime, long closedTime) {
+			this.id = id;
+			this.title = title;
+			this.message = message;
+			this.details = details;
+			this.icon = icon;
+			this.position = position;
+			this.sticky = sticky;
+			this.shownTime = shownTime;
+			this.closedTime = closedTime;
+		}
+
+		/**
+		 * @return the id of the toast
+		 */
+		public String getId() {
+			return id;
+		}
+
+		/**
+		 * @return the title
+		 */
+		public String getTitle() {
+			return title;
+		}
+
+		/**
+		 * @return the message
+		 */
+		public String getMessage() {
+			return message;
+		}
+
+		/**
+		 * @return the details
+		 */
+		public String getDetails() {
+			return details;
+		}
+
+		/**
+		 * @return the icon or <code>null</code> if the history does not retain icons (@see {@link ToastHistory#isRetainIcons()})
+		 */
+		public Object getIcon() {
+			return icon;
+		}
+
+		/**
+		 * @return the position
+		 */
+		public ToastPosition getPosition() {
+			return position;
+		}
+
+		/**
+		 * @return <code>true</code> if the toast was sticky
+		 */
+		public boolean isSticky() {
+			return sticky;
+		}
+
+		/**
+		 * @return the time in milliseconds when the toast was shown
+		 */
+		public long getShownTime() {
+			return shownTime;
+		}
+
+		/**
+		 * @return the time in milliseconds when the toast was closed
+		 */
+		public long getClosedTime() {
+			return closedTime;
+		}
+		
+		@SuppressWarnings("nls")
+		@Override
+		public String toString() {
+			return "Entry [id=" + id + ", title=" + title + ", message=" + message + ", closedTime=" + closedTime + "]";
+		}
+	}
+	
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The strategy to generate the ids of the toasts (@see {@link Toaster#setIdGenerator(ToastIdGenerator)}).
+ * 
+ * @author Dominik
+ */
+@FunctionalInterface
+public interface ToastIdGenerator {
+	
+	/**
+	 * @return a new unique id
+	 */
+	String nextId();
+	
+	/**
+	 * Creates the default generator.
+	 * The ids consist of a prefix which is unique per process (process id and creation time of the generator) and a monotonic counter, 
+	 * e.g. <code>"1z3k-kx8b2c1q-1f"</code>.
+	 * Creating an id only increments the counter and is therefore much cheaper than a random {@link UUID}.
+	 * 
+	 * @return the sequential generator
+	 */
+	static ToastIdGenerator sequential() {
+		String prefix = Long.toString(ProcessHandle.current().pid(), Character.MAX_RADIX) 
+				+ '-' + Long.toString(System.currentTimeMillis(), Character.MAX_RADIX) + '-';
+		AtomicLong counter = new AtomicLong();
+		return () -> prefix + Long.toString(counter.incrementAndGet(), Character.MAX_RADIX);
+	}
+	
+	/**
+	 * Creates a generator using random {@link UUID}s like previous versions of the toaster.
+	 * 
+	 * @return the UUID generator
+	 */
+	static ToastIdGenerator uuid() {
+		return () -> UUID.randomUUID().toString();
+	}
+	
+}
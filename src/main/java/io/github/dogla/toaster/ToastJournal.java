@@ -0,0 +1,462 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.dogla.toaster.ui.ToastToolkit;
+
+/**
+ * A durable journal of the toasts which were not closed yet.
+ * <p>
+ * The journal is a memory-mapped, append-only file with a fixed capacity. Each toast which is accepted by the
+ * toast manager is appended as a compact binary record and marked as done in place when its popup is closed.
+ * After a crash or an exit with pending toasts the unfinished toasts can be replayed (@see {@link #replay(ToastToolkit)}).
+ * All file operations are executed by a single background thread, so the popup display thread never blocks on the journal.
+ * </p>
+ * <p>
+ * The file consists of a header and two segments of the same size, only one of them is active. 
+ * Done records are removed by a periodic compaction which copies the unfinished records to the inactive segment,
+ * writes it to the storage device and only then switches the active segment in the header. 
+ * So a crash during the compaction always leaves a complete journal.
+ * </p>
+ * <p>
+ * Records are written to the mapped file immediately, so they survive a crash of the process. 
+ * They are written to the storage device (e.g. to survive a power loss) every <code>forceInterval</code> milliseconds 
+ * if the journal was changed, on every compaction and on {@link #flush()} and {@link #close()}.
+ * </p>
+ * <p>
+ * Header layout: <code>int magic, int version, int activeSegment, int segmentSize</code><br>
+ * Record layout: <code>int length, byte state, long createdTime, long doneTime, long deadline, byte position, byte sticky,
+ * string id, string title, string message, string details, string icon</code> where each string is stored as
+ * <code>int length</code> (-1 for <code>null</code>) followed by its UTF-8 bytes. A length of 0 marks the end of the journal.
+ * Icons are only journaled if they are given as string (e.g. base64) with at most {@value #MAX_ICON_LENGTH} characters.
+ * </p>
+ *
+ * @author Dominik
+ */
+public class ToastJournal implements AutoCloseable {
+	
+	private static Logger logger = LoggerFactory.getLogger(ToastJournal.class);
+	
+	/** The default capacity of the journal file in bytes */
+	public static final int DEFAULT_CAPACITY = 4 * 1024 * 1024;
+	/** The default compaction interval in milliseconds */
+	public static final long DEFAULT_COMPACTION_INTERVAL = 60_000;
+	/** The default interval in milliseconds to write the changes to the storage device */
+	public static final long DEFAULT_FORCE_INTERVAL = 1000;
+	/** The maximum length of journaled icons */
+	public static final int MAX_ICON_LENGTH = 8192;
+	
+	private static final int MAGIC = 0x544A4E4C; // TJNL
+	private static final int VERSION = 3;
+	private static final int ACTIVE_SEGMENT_OFFSET = 8;
+	private static final int SEGMENT_SIZE_OFFSET = 12;
+	private static final int HEADER_SIZE = 16;
+	private static final byte STATE_PENDING = 0;
+	private static final byte STATE_DONE = 1;
+	private static final int STATE_OFFSET = 4;
+	private static final int DONE_TIME_OFFSET = 13;
+	private static final int FIXED_RECORD_SIZE = 4 + 1 + 8 + 8 + 8 + 1 + 1;
+	private static final ToastPosition[] POSITIONS = ToastPosition.values();
+	
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	private final int segmentSize;
+	private final ScheduledExecutorService writer;
+	private final List<Toast> unfinishedToasts;
+	
+	// only accessed by the writer thread
+	private final Map<String, Integer> pendingRecords = new HashMap<>();
+	private int activeSegment;
+	private int end;
+	private int doneBytes;
+	private boolean dirty;
+	
+	/**
+	 * Opens the journal with the default capacity, compaction interval and force interval.
+	 * 
+	 * @param file the journal file
+	 * 
+	 * @throws IOException if the journal could not be opened
+	 */
+	public ToastJournal(Path file) throws IOException {
+		this(file, DEFAULT_CAPACITY, DEFAULT_COMPACTION_INTERVAL, DEFAULT_FORCE_INTERVAL);
+	}
+
+	/**
+	 * Opens the journal with the default force interval.
+	 * 
+	 * @param file the journal file
+	 * @param capacity the capacity of the file in bytes
+	 * @param compactionInterval the compaction interval in milliseconds
+	 * 
+	 * @throws IOException if the journal could not be opened
+	 * 
+	 * @see #ToastJournal(Path, int, long, long)
+	 */
+	public ToastJournal(Path file, int capacity, long compactionInterval) throws IOException {
+		this(file, capacity, compactionInterval, DEFAULT_FORCE_INTERVAL);
+	}
+
+	/**
+	 * Opens the journal. If the file exists its unfinished toasts are read (@see {@link #getUnfinishedToasts()}).
+	 * 
+	 * @param file the journal file
+	 * @param capacity the capacity of the file in bytes, each of the two segments gets one half of it 
+	 * 		(ignored for an existing journal which keeps its capacity)
+	 * @param compactionInterval the compaction interval in milliseconds
+	 * @param forceInterval the interval in milliseconds to write the changes to the storage device, 
+	 * 		0 to write them only on compaction, {@link #flush()} and {@link #close()}
+	 * 
+	 * @throws IOException if the journal could not be opened
+	 */
+	public ToastJournal(Path file, int capacity, long compactionInterval, long forceInterval) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			ByteBuffer header = readHeader(channel);
+			this.segmentSize = header != null ? header.getInt(SEGMENT_SIZE_OFFSET) : Math.max((capacity - HEADER_SIZE) / 2, 64);
+			this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + 2L * segmentSize);
+			this.unfinishedToasts = Collections.unmodifiableList(read(header != null));
+			compactNow();
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+		this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "Toaster Journal Thread"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.writer.scheduleWithFixedDelay(this::compactIfNecessary, compactionInterval, compactionInterval, TimeUnit.MILLISECONDS);
+		if (forceInterval > 0) {
+			this.writer.scheduleWithFixedDelay(this::forceIfNecessary, forceInterval, forceInterval, TimeUnit.MILLISECONDS);
+		}
+	}
+	
+	/**
+	 * @return the header of an existing journal or <code>null</code> for a new or unknown file
+	 */
+	private static ByteBuffer readHeader(FileChannel channel) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while (header.hasRemaining()) {
+			if (channel.read(header, header.position()) < 0) {
+				return null;
+			}
+		}
+		if (header.getInt(0) != MAGIC) {
+			return null;
+		}
+		if (header.getInt(4) != VERSION) {
+			throw new IOException("Unsupported journal version: " + header.getInt(4)); //$NON-NLS-1$
+		}
+		int segmentSize = header.getInt(SEGMENT_SIZE_OFFSET);
+		int activeSegment = header.getInt(ACTIVE_SEGMENT_OFFSET);
+		if (segmentSize <= 0 || segmentSize > (Integer.MAX_VALUE - HEADER_SIZE) / 2 || (activeSegment != 0 && activeSegment != 1)) {
+			throw new IOException("Corrupt journal header."); //$NON-NLS-1$
+		}
+		return header;
+	}
+	
+	private List<Toast> read(boolean existing) {
+		List<Toast> toasts = new ArrayList<>();
+		if (!existing) {
+			buffer.putInt(0, MAGIC);
+			buffer.putInt(4, VERSION);
+			buffer.putInt(ACTIVE_SEGMENT_OFFSET, 0);
+			buffer.putInt(SEGMENT_SIZE_OFFSET, segmentSize);
+			buffer.putInt(segmentStart(0), 0);
+			activeSegment = 0;
+			end = segmentStart(0);
+			return toasts;
+		}
+		activeSegment = buffer.getInt(ACTIVE_SEGMENT_OFFSET);
+		int segmentEnd = segmentStart(activeSegment) + segmentSize;
+		int offset = segmentStart(activeSegment);
+		while (offset + 4 <= segmentEnd) {
+			int length = buffer.getInt(offset);
+			if (length < FIXED_RECORD_SIZE || offset + length > segmentEnd) {
+				// end of the journal (or a truncated record)
+				break;
+			}
+			if (buffer.get(offset + STATE_OFFSET) == STATE_PENDING) {
+				ByteBuffer record = buffer.duplicate();
+				record.position(offset + 4 + 1 + 8 + 8);
+				record.limit(offset + length);
+				try {
+					long deadline = record.getLong();
+					ToastPosition position = POSITIONS[record.get()];
+					boolean sticky = record.get() != 0;
+					String id = readString(record);
+					String title = readString(record);
+					String message = readString(record);
+					String details = readString(record);
+					String icon = readString(record);
+					toasts.add(Toast.builder().id(id).title(title).message(message).details(details).icon(icon).position(position).sticky(sticky)
+							.deadline(deadline).build());
+					pendingRecords.put(id, offset);
+				} catch (RuntimeException e) {
+					logger.warn("Corrupt journal record detected at offset {}: {}", offset, e.getMessage()); //$NON-NLS-1$
+					break;
+				}
+			} else {
+				doneBytes += length;
+			}
+			offset += length;
+		}
+		end = offset;
+		logger.debug("{} unfinished toasts found in the journal.", toasts.size()); //$NON-NLS-1$
+		return toasts;
+	}
+	
+	/**
+	 * @return the toasts which were not closed when the journal was opened
+	 */
+	public List<Toast> getUnfinishedToasts() {
+		return unfinishedToasts;
+	}
+	
+	/**
+	 * Shows the unfinished toasts again. The toasts keep their ids, so they are not journaled twice.
+	 * Toasts whose deadline passed in the meantime expire without being shown (@see {@link Toast#getDeadline()}).
+	 * 
+	 * @param toolkit the toolkit
+	 * 
+	 * @return the handles of the replayed toasts
+	 */
+	public List<ToastHandle> replay(ToastToolkit toolkit) {
+		List<ToastHandle> handles = new ArrayList<>(unfinishedToasts.size());
+		for (Toast toast : unfinishedToasts) {
+			handles.add(Toaster.submit(toolkit, toast));
+		}
+		return handles;
+	}
+	
+	/**
+	 * Appends the given toast in the background.
+	 * 
+	 * @param toast the toast
+	 */
+	/*package*/ void append(Toast toast) {
+		long createdTime = System.currentTimeMillis();
+		Object icon = toast.getIcon();
+		String iconKey = icon instanceof String && ((String) icon).length() <= MAX_ICON_LENGTH ? (String) icon : null;
+		byte[][] strings = { bytes(toast.getId()), bytes(toast.getTitle()), bytes(toast.getMessage()), bytes(toast.getDetails()), bytes(iconKey) };
+		byte position = (byte) toast.getPosition().ordinal();
+		byte sticky = (byte) (toast.isSticky() ? 1 : 0);
+		long deadline = toast.getDeadline();
+		String id = toast.getId();
+		execute(() -> {
+			if (pendingRecords.containsKey(id)) {
+				// e.g. a replayed toast
+				return;
+			}
+			int length = FIXED_RECORD_SIZE;
+			for (byte[] string : strings) {
+				length += 4 + (string != null ? string.length : 0);
+			}
+			if (end + length + 4 > segmentStart(activeSegment) + segmentSize) {
+				compactNow();
+				if (end + length + 4 > segmentStart(activeSegment) + segmentSize) {
+					logger.warn("Journal is full. Toast was not journaled: {}", toast); //$NON-NLS-1$
+					return;
+				}
+			}
+			ByteBuffer record = buffer.duplicate();
+			record.position(end + 4);
+			record.put(STATE_PENDING);
+			record.putLong(createdTime);
+			record.putLong(0);
+			record.putLong(deadline);
+			record.put(position);
+			record.put(sticky);
+			for (byte[] string : strings) {
+				writeString(record, string);
+			}
+			// terminate the journal before the length makes the record visible
+			buffer.putInt(end + length, 0);
+			buffer.putInt(end, length);
+			pendingRecords.put(id, end);
+			end += length;
+			dirty = true;
+		});
+	}
+	
+	/**
+	 * Marks the record of the given toast as done in the background.
+	 * 
+	 * @param id the id of the toast
+	 */
+	/*package*/ void markDone(String id) {
+		long doneTime = System.currentTimeMillis();
+		execute(() -> {
+			Integer offset = pendingRecords.remove(id);
+			if (offset != null) {
+				buffer.putLong(offset + DONE_TIME_OFFSET, doneTime);
+				buffer.put(offset + STATE_OFFSET, STATE_DONE);
+				doneBytes += buffer.getInt(offset);
+				dirty = true;
+			}
+		});
+	}
+	
+	/**
+	 * Compacts the journal in the background.
+	 * 
+	 * @return the future completed after the compaction
+	 */
+	public CompletableFuture<Void> compact() {
+		return CompletableFuture.runAsync(this::compactNow, writer);
+	}
+	
+	/**
+	 * Writes all changes to the storage device.
+	 * 
+	 * @return the future completed after the changes were written
+	 */
+	public CompletableFuture<Void> flush() {
+		return CompletableFuture.runAsync(this::force, writer);
+	}
+	
+	private void force() {
+		dirty = false;
+		buffer.force();
+	}
+	
+	private void forceIfNecessary() {
+		if (dirty) {
+			force();
+		}
+	}
+	
+	private void execute(Runnable runnable) {
+		try {
+			writer.execute(() -> {
+				try {
+					runnable.run();
+				} catch (RuntimeException e) {
+					logger.error(e.getMessage(), e);
+				}
+			});
+		} catch (RuntimeException e) {
+			logger.warn("Journal is closed: {}", e.getMessage()); //$NON-NLS-1$
+		}
+	}
+	
+	private void compactIfNecessary() {
+		if (doneBytes > 0) {
+			compactNow();
+		}
+	}
+	
+	private void compactNow() {
+		if (doneBytes == 0) {
+			return;
+		}
+		// copy the unfinished records in order of their offsets to the inactive segment
+		List<Map.Entry<String, Integer>> records = new ArrayList<>(pendingRecords.entrySet());
+		records.sort(Map.Entry.comparingByValue());
+		int targetSegment = 1 - activeSegment;
+		int[] offsets = new int[records.size()];
+		int offset = segmentStart(targetSegment);
+		ByteBuffer source = buffer.duplicate();
+		ByteBuffer target = buffer.duplicate();
+		for (int i = 0; i < offsets.length; i++) {
+			int recordOffset = records.get(i).getValue().intValue();
+			int length = buffer.getInt(recordOffset);
+			source.limit(recordOffset + length);
+			source.position(recordOffset);
+			target.position(offset);
+			target.put(source);
+			source.clear();
+			offsets[i] = offset;
+			offset += length;
+		}
+		buffer.putInt(offset, 0);
+		// the copy has to be durable before it is activated, the previous segment is not changed until the next compaction
+		buffer.force();
+		buffer.putInt(ACTIVE_SEGMENT_OFFSET, targetSegment);
+		force();
+		activeSegment = targetSegment;
+		end = offset;
+		for (int i = 0; i < offsets.length; i++) {
+			pendingRecords.put(records.get(i).getKey(), Integer.valueOf(offsets[i]));
+		}
+		doneBytes = 0;
+		logger.debug("Journal compacted: {} bytes used by {} unfinished toasts.", end - segmentStart(activeSegment), records.size()); //$NON-NLS-1$
+	}
+	
+	private int segmentStart(int segment) {
+		return HEADER_SIZE + segment * segmentSize;
+	}
+	
+	private static byte[] bytes(String value) {
+		return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+	}
+	
+	private static void writeString(ByteBuffer record, byte[] value) {
+		if (value == null) {
+			record.putInt(-1);
+		} else {
+			record.putInt(value.length);
+			record.put(value);
+		}
+	}
+	
+	private static String readString(ByteBuffer record) {
+		int length = record.getInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] value = new byte[length];
+		record.get(value);
+		return new String(value, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Writes all pending changes and closes the journal.
+	 */
+	@Override
+	public void close() throws IOException {
+		writer.shutdown();
+		try {
+			writer.awaitTermination(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		buffer.force();
+		channel.close();
+	}
+	
+}
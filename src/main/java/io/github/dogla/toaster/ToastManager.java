@@ -18,25 +18,25 @@ package io.github.dogla.toaster;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
-import org.eclipse.swt.SWT;
-import org.eclipse.swt.graphics.Color;
-import org.eclipse.swt.graphics.GC;
-import org.eclipse.swt.graphics.Image;
-import org.eclipse.swt.graphics.ImageData;
-import org.eclipse.swt.graphics.ImageLoader;
-import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.github.dogla.toaster.ToastTrace.Stage;
+import io.github.dogla.toaster.layout.SlotLayout;
 import io.github.dogla.toaster.ui.ToastPopup;
+import io.github.dogla.toaster.ui.ToastPopupClosedCallback;
 import io.github.dogla.toaster.ui.ToastToolkit;
 
 @SuppressWarnings("nls")
@@ -44,9 +44,31 @@ import io.github.dogla.toaster.ui.ToastToolkit;
 	
 	private static Logger logger = LoggerFactory.getLogger(ToastManager.class);
 	
-	private Map<ToastPosition, Set<Rectangle>> visibleToasts = new HashMap<>();
-	private List<ToastPopup> visiblePopups = new ArrayList<>();
-	private Deque<ToastRequest> pendingToasts = new ArrayDeque<>(); 
+	private Map<ToastPosition, SlotLayout> visibleToasts = new EnumMap<>(ToastPosition.class);
+	private List<ToastRequest> visibleRequests = new ArrayList<>();
+	private PendingQueue pendingToasts = new PendingQueue(); 
+	private ToastSizePredictor sizePredictor = new ToastSizePredictor();
+	private volatile ToastHistory history = new ToastHistory(ToastHistory.DEFAULT_CAPACITY);
+	private volatile ToastJournal journal;
+	private final ToastMetrics metrics = new ToastMetrics();
+	private volatile ToastAnimationPolicy animationPolicy = ToastAnimationPolicy.DEFAULT;
+	private volatile ToastDisplayTimePolicy displayTimePolicy;
+	private volatile Consumer<Toast> expiryCallback;
+	// completions of the toast handles collected while holding the lock, run after the lock was released (guarded by visibleToasts)
+	private final List<Runnable> handleNotifications = new ArrayList<>();
+	// set while popups are closed in a batch > the pending toasts are placed once after the batch (guarded by visibleToasts)
+	private boolean batchClosing;
+	// started with the first pending toast which has a deadline (guarded by visibleToasts)
+	private ScheduledExecutorService expirySweeper;
+	// the load window of the adaptive animation and display time (written while holding the lock of visibleToasts)
+	private volatile long loadWindowStart = System.nanoTime();
+	private long loadWindowDisplayThreadNanos;
+	private long loadWindowQueued;
+	private double displayThreadLoad;
+	private double arrivalRate;
+	
+	private static final long ARRIVAL_RATE_SMOOTHING = TimeUnit.SECONDS.toNanos(2);
+	private static final long EXPIRY_SWEEP_INTERVAL = 1000;
 	
 	private static ToastManager INSTANCE = new ToastManager();
 	
@@ -54,194 +76,751 @@ import io.github.dogla.toaster.ui.ToastToolkit;
 		return INSTANCE;
 	}
 	
-	protected void toast(ToastToolkit toolkit, Toast toast) {
+	private ToastManager() {
+		for (ToastPosition position : ToastPosition.values()) {
+			visibleToasts.put(position, new SlotLayout(isBottomUp(position)));
+		}
+	}
+	
+	protected void toast(ToastToolkit toolkit, Toast toast, ToastHandle handle) {
 		// get popup area in current display thread
 		Rectangle monitorClientArea = toolkit.getPopupArea();
-		toolkit.getPopupDisplay().syncExec(() -> {
+		toolkit.syncExec(() -> {
 			// create/show in popup display thread
-			toast(new ToastRequest(toolkit, toast, monitorClientArea), false);
+			long start = System.nanoTime();
+			ToastTracer.mark(toast, Stage.DISPLAY_THREAD_ENTERED);
+			toast(new ToastRequest(toolkit, toast, monitorClientArea, handle), false);
+			metrics.addDisplayThreadTime(start);
+			notifyHandles();
+		});
+	}
+	
+	protected void toastAll(ToastToolkit toolkit, List<Toast> toasts, List<ToastHandle> handles) {
+		// get popup area once for all toasts in current display thread
+		Rectangle monitorClientArea = toolkit.getPopupArea();
+		toolkit.syncExec(() -> {
+			// create/show all toasts in one visit of the popup display thread, the remainder is queued in order
+			long start = System.nanoTime();
+			synchronized (visibleToasts) {
+				for (int i = 0; i < toasts.size(); i++) {
+					Toast toast = toasts.get(i);
+					ToastHandle handle = handles.get(i);
+					ToastTracer.mark(toast, Stage.DISPLAY_THREAD_ENTERED);
+					try {
+						toast(new ToastRequest(toolkit, toast, monitorClientArea, handle), false);
+					} catch (RuntimeException e) {
+						// do not lose the remaining toasts of the batch
+						metrics.onFailed();
+						notifyLater(() -> handle.onFailed(e));
+					}
+				}
+			}
+			metrics.addDisplayThreadTime(start);
+			notifyHandles();
 		});
 	}
 	
+	protected void submit(ToastToolkit toolkit, Toast toast, ToastHandle handle) {
+		Runnable runnable = () -> {
+			// compute the popup area and create/show in popup display thread without blocking the caller
+			long start = System.nanoTime();
+			ToastTracer.mark(toast, Stage.DISPLAY_THREAD_ENTERED);
+			try {
+				Rectangle monitorClientArea = toolkit.getPopupArea();
+				toast(new ToastRequest(toolkit, toast, monitorClientArea, handle), false);
+			} catch (RuntimeException | Error e) {
+				// e.g. SWT errors while creating the popup
+				fail(handle, e);
+			}
+			metrics.addDisplayThreadTime(start);
+			notifyHandles();
+		};
+		try {
+			// e.g. the display could not be created
+			toolkit.asyncExec(runnable, e -> fail(handle, e));
+		} catch (RuntimeException e) {
+			// e.g. the display is already disposed
+			fail(handle, e);
+		}
+	}
+	
+	/**
+	 * Completes the given handle exceptionally because its toast could not be shown. Must be called without holding the lock.
+	 * 
+	 * @param handle the handle
+	 * @param throwable the cause
+	 */
+	protected void fail(ToastHandle handle, Throwable throwable) {
+		metrics.onFailed();
+		handle.onFailed(throwable);
+	}
+	
 	protected void toast(ToastRequest toastRequest, boolean isPendingToast) {
 		synchronized (visibleToasts) {
 			Toast toast = toastRequest.getToast();
+			ToastHandle handle = toastRequest.getHandle();
+			if (!isPendingToast) {
+				ToastJournal currentJournal = journal;
+				if (currentJournal != null) {
+					currentJournal.append(toast);
+				}
+				metrics.onQueued();
+				notifyLater(handle::onQueued);
+				// already expired (e.g. a replayed toast) > drop it without creating a popup
+				if (toast.isExpired()) {
+					expire(toastRequest);
+					updateQueue();
+					return;
+				}
+			}
 			// previous toasts already pending > add the new toast directly to the queue
 			if (!isPendingToast && !pendingToasts.isEmpty()) {
 				logger.debug("Other toasts already pending. Added toast to the queue: {}", toast);
 				pendingToasts.add(toastRequest);
+				if (toast.getDeadline() > 0) {
+					startExpirySweeper();
+				}
+				updateQueue();
+				return;
+			}
+			
+			// check predicted size first > the popup is only created if there is a chance to show it
+			if (!toastRequest.hasPopup() && !mayHaveFreeArea(toastRequest)) {
+				queue(toastRequest, isPendingToast);
+				updateQueue();
 				return;
 			}
 			
 			// compute location for new UI 
-			ToastPopup toastPopup = toastRequest.getOrCreatePopup();
+			ToastPopup toastPopup = getOrCreatePopup(toastRequest);
+			ToastTracer.mark(toast, Stage.POPUP_CREATED);
 			ToastPosition toastPosition = toast.getPosition();
-			Point position = computeLocation(toastPosition, toastPopup);
-			if (position != null) {
+			SlotLayout layout = visibleToasts.get(toastPosition);
+			int width = toastPopup.getWidth();
+			int height = toastPopup.getHeight();
+			int x = computeX(toastPosition, toastRequest.getPopupArea(), width);
+			int y = computeY(layout, toastRequest.getPopupArea(), x, width, height);
+			if (y != SlotLayout.NO_SPACE) {
 				// relocate UI
-				toastPopup.setLocation(position.x, position.y);
+				toastPopup.setLocation(x, y);
+				ToastTracer.mark(toast, Stage.LOCATION_COMPUTED);
 				
-				// remember height
-				Rectangle rectangle = new Rectangle(position.x, position.y, toastPopup.getWidth(), toastPopup.getHeight());
-				visibleToasts.computeIfAbsent(toastPosition, k -> new HashSet<Rectangle>()).add(rectangle);
-				
-				// unregister pending toast
-				if (isPendingToast) {
-					logger.debug("Unregistering pending toast: {}", toast);
-					pendingToasts.remove(toastRequest);
-				}
+				// occupy area
+				int slot = layout.allocate(x, y, width, height);
 				
 				// show UI
 				logger.debug("Showing toast: {}", toast);
-				visiblePopups.add(toastPopup);
-				toastPopup.show(() -> {
-					logger.debug("Toast closed: {}", toast);
-					synchronized (visibleToasts) {
-						visiblePopups.remove(toastPopup);
-						Set<Rectangle> set = visibleToasts.get(toastPosition);
-						if (set != null) {
-							if (!set.remove(rectangle)) {
-								logger.error("Toast closed but corresponding rectangle was not found.");
-							}
-							// check for pending toasts
-							if (!pendingToasts.isEmpty()) {
-								ToastRequest pendingToastRequest = pendingToasts.peek();
-								Toast pendingToast = pendingToastRequest.getToast();
-								logger.debug("Pending toasts detected. Picking toast: {}", pendingToast);
-								logger.debug("{} more pending tasks.", pendingToasts.size());
-								
-								ToastPosition pendingToastPosition = pendingToast.getPosition();
-								ToastPopup pendingToastPopup = pendingToastRequest.getOrCreatePopup();
-								Point pendingPosition = computeLocation(pendingToastPosition, pendingToastPopup);
-								if (pendingPosition != null) {
-									// show pending toast
-									pendingToasts.remove(pendingToastRequest);
-									toast(pendingToastRequest, true);
-								} else {
-									// no valid position found
-									logger.debug("No free area found for Pending toast: {}", pendingToast);
-								}
-							}
-						}
+				visibleRequests.add(toastRequest);
+				long shownTime = System.currentTimeMillis();
+				toastPopup.show(new ToastPopupClosedCallback() {
+					@Override
+					public void onClosed() {
+						onPopupClosed(toastRequest, layout, slot, shownTime, null);
+					}
+					@Override
+					public void onFailed(Throwable throwable) {
+						onPopupClosed(toastRequest, layout, slot, shownTime, throwable);
+					}
+					@Override
+					public void onActionSelected(ToastAction action) {
+						handle.onActionSelected(action);
 					}
 				});
-			} else if (!isPendingToast) {
-				// no free area available -> queue until some toasts were closed
-				logger.debug("No free area found for the toast. Added toast to the queue: {}", toast);
-				pendingToasts.add(toastRequest);
+				metrics.onShown();
+				notifyLater(handle::onShown);
 			} else {
-				// no free area available for already pended toast > requeue at the start
-				logger.debug("No free area found for already pending toast. Readded toast to the queue: {}", toast);
-				pendingToasts.addFirst(toastRequest);
+				queue(toastRequest, isPendingToast);
 			}
+			updateQueue();
 		}
 	}
-
-	private Point computeLocation(ToastPosition toastPosition, ToastPopup popup) {
-		Rectangle popupArea = popup.getPopupArea();
-		int toastWidth = popup.getWidth();
-		int toastHeight = popup.getHeight();
+	
+	private void onPopupClosed(ToastRequest toastRequest, SlotLayout layout, int slot, long shownTime, Throwable failure) {
+		Toast toast = toastRequest.getToast();
+		ToastHandle handle = toastRequest.getHandle();
+		logger.debug("Toast closed: {}", toast);
+		long start = System.nanoTime();
+		synchronized (visibleToasts) {
+			visibleRequests.remove(toastRequest);
+			if (!layout.release(slot)) {
+				logger.error("Toast closed but corresponding slot was not found.");
+			}
+			if (!batchClosing) {
+				showNextPending();
+			}
+			updateQueue();
+		}
+		metrics.addDisplayThreadTime(start);
+		notifyHandles();
+		// record and complete outside of the lock
+		ToastTrace trace = toast.getTrace();
+		if (trace != null) {
+			// e.g. closed before fully opaque
+			trace.complete();
+		}
+		if (failure != null) {
+			// neither recorded nor marked as done, the toast was not shown
+			fail(handle, failure);
+			return;
+		}
+		metrics.onClosed();
+		ToastHistory currentHistory = history;
+		if (currentHistory != null) {
+			currentHistory.record(toast, shownTime, System.currentTimeMillis());
+		}
+		ToastJournal currentJournal = journal;
+		if (currentJournal != null) {
+			currentJournal.markDone(toast.getId());
+		}
+		handle.onClosed();
+	}
+	
+	/**
+	 * Shows the next pending toast if there is a free area for it. Expired toasts at the head of the queue are dropped lazily.
+	 * Must only be called in the popup display thread while holding the lock.
+	 * 
+	 * @return <code>true</code> if the next pending toast was shown (or failed), i.e. the next one may fit as well
+	 */
+	private boolean showNextPending() {
+		long now = System.currentTimeMillis();
+		while (!pendingToasts.isEmpty() && pendingToasts.peek().getToast().isExpired(now)) {
+			expire(pendingToasts.poll());
+		}
+		if (pendingToasts.isEmpty()) {
+			return false;
+		}
+		ToastRequest pendingToastRequest = pendingToasts.peek();
+		Toast pendingToast = pendingToastRequest.getToast();
+		logger.debug("Pending toasts detected. Picking toast: {}", pendingToast);
+		logger.debug("{} more pending tasks.", pendingToasts.size());
 		
-		int minX = popupArea.x;
-		int minY = popupArea.y;
-		int maxX = popupArea.x + popupArea.width - toastWidth;
-		int maxY = popupArea.y + popupArea.height - toastHeight;
-		switch (toastPosition) {
-			case BOTTOM_LEFT:
-				return search(new Point(minX, maxY), toastWidth, toastHeight, minY, maxY, toastPosition, popup);
-			case BOTTOM_RIGHT:
-				return search(new Point(maxX, maxY), toastWidth, toastHeight, minY, maxY, toastPosition, popup);
-			case TOP_LEFT:
-				return search(new Point(minX, minY), toastWidth, toastHeight, minY, maxY, toastPosition, popup);
-			case TOP_RIGHT:
-				return search(new Point(maxX, minY), toastWidth, toastHeight, minY, maxY, toastPosition, popup);
-			default:
-				throw new IllegalStateException("Unhandled position detected");
+		if (mayHaveFreeArea(pendingToastRequest)) {
+			// unregister and show pending toast
+			logger.debug("Unregistering pending toast: {}", pendingToast);
+			pendingToasts.poll();
+			try {
+				toast(pendingToastRequest, true);
+			} catch (RuntimeException e) {
+				metrics.onFailed();
+				notifyLater(() -> pendingToastRequest.getHandle().onFailed(e));
+			}
+			// requeued at the head if the created popup is larger than predicted
+			return pendingToasts.peek() != pendingToastRequest;
+		}
+		// no valid position found
+		logger.debug("No free area found for Pending toast: {}", pendingToast);
+		return false;
+	}
+	
+	/**
+	 * Shows as many pending toasts as fit into the free areas, e.g. after several popups were closed at once.
+	 * Must only be called in the popup display thread while holding the lock.
+	 */
+	private void showAllPending() {
+		while (showNextPending()) {
+			// next pending toast
+		}
+	}
+	
+	/**
+	 * Drops the expired pending toasts. Executed periodically by the expiry sweeper.
+	 */
+	private void sweepExpired() {
+		List<ToastRequest> expired;
+		ToastRequest nextPending;
+		synchronized (visibleToasts) {
+			long now = System.currentTimeMillis();
+			ToastRequest head = pendingToasts.peek();
+			expired = pendingToasts.removeIf(toastRequest -> toastRequest.getToast().isExpired(now));
+			if (expired.isEmpty()) {
+				return;
+			}
+			expired.forEach(this::expire);
+			updateQueue();
+			nextPending = getChangedHead(head);
+		}
+		logger.debug("{} expired toasts dropped.", expired.size());
+		// complete outside of the lock because the callbacks may show other toasts
+		notifyHandles();
+		showNextPendingLater(nextPending);
+	}
+	
+	/**
+	 * Returns the new head of the queue if the given head was removed, because it may fit into the area the removed head was waiting for.
+	 * Must only be called while holding the lock.
+	 */
+	private ToastRequest getChangedHead(ToastRequest head) {
+		ToastRequest newHead = pendingToasts.peek();
+		return newHead != head ? newHead : null;
+	}
+	
+	/**
+	 * Tries to show the next pending toast in the display thread of the given request.
+	 */
+	private void showNextPendingLater(ToastRequest nextPending) {
+		if (nextPending == null) {
+			return;
 		}
+		nextPending.toolkit.asyncExec(() -> {
+			long start = System.nanoTime();
+			synchronized (visibleToasts) {
+				showNextPending();
+				updateQueue();
+			}
+			metrics.addDisplayThreadTime(start);
+			notifyHandles();
+		});
 	}
 	
-	private Point search(Point location, int width, int height, int minY, int maxY, ToastPosition toastPosition, ToastPopup popup) {
-		Point result = location;
-		while (result != null && isForbidden(toastPosition, result, width, height)) {
-			switch (toastPosition) {
-				case BOTTOM_LEFT:
-				case BOTTOM_RIGHT: {
-					// search position further up
-					int newY = result.y - 1;
-					result = newY < minY ? null : new Point(result.x, newY);
-					break;
+	/**
+	 * Cancels the pending and visible toasts with the given id. 
+	 * The pending toasts are found by the id index of the queue, the visible popups are closed in one batch in the popup display thread.
+	 * 
+	 * @return <code>true</code> if a toast was found
+	 */
+	protected boolean cancel(String id) {
+		List<ToastRequest> pending;
+		List<ToastRequest> visible = new ArrayList<>();
+		ToastRequest nextPending;
+		synchronized (visibleToasts) {
+			ToastRequest head = pendingToasts.peek();
+			pending = pendingToasts.remove(id);
+			for (ToastRequest visibleRequest : visibleRequests) {
+				if (visibleRequest.getToast().getId().equals(id)) {
+					visible.add(visibleRequest);
 				}
-				default: {
-					// search position further down
-					int newY = result.y + 1;
-					result = newY > maxY ? null : new Point(result.x, newY);
-					break;
+			}
+			if (!pending.isEmpty()) {
+				updateQueue();
+			}
+			nextPending = getChangedHead(head);
+		}
+		onCancelled(pending, visible, nextPending);
+		return !pending.isEmpty() || !visible.isEmpty();
+	}
+	
+	/**
+	 * Cancels the pending and visible toasts matching the given predicate. 
+	 * The visible popups are closed in one batch in the popup display thread.
+	 * 
+	 * @return the number of cancelled toasts
+	 */
+	protected int cancelIf(Predicate<Toast> predicate) {
+		List<ToastRequest> pending;
+		List<ToastRequest> visible = new ArrayList<>();
+		ToastRequest nextPending;
+		synchronized (visibleToasts) {
+			ToastRequest head = pendingToasts.peek();
+			pending = pendingToasts.removeIf(toastRequest -> predicate.test(toastRequest.getToast()));
+			for (ToastRequest visibleRequest : visibleRequests) {
+				if (predicate.test(visibleRequest.getToast())) {
+					visible.add(visibleRequest);
 				}
 			}
+			if (!pending.isEmpty()) {
+				updateQueue();
+			}
+			nextPending = getChangedHead(head);
 		}
-		//inspectPopups(toastPosition, popup, result);
-		return result;
+		onCancelled(pending, visible, nextPending);
+		return pending.size() + visible.size();
 	}
-
-	@SuppressWarnings("unused")
-	private void inspectPopups(ToastPosition toastPosition, ToastPopup popup, Point result) {
-		Rectangle popupArea = popup.getPopupArea();
-		Image image = new Image(popup.getDisplay(), popupArea.width, popupArea.height);
-		GC gc = new GC(image);
-		// draw invisible area
-		Set<Rectangle> forbiddenAreas = visibleToasts.get(toastPosition);
-		if (forbiddenAreas != null && !forbiddenAreas.isEmpty()) {
-			gc.setBackground(new Color(popup.getDisplay(), 255, 0, 0));
-			for (Rectangle rectangle : forbiddenAreas) {
-				gc.fillRectangle(rectangle);
-			}
-		}
-		// draw computed area
-		gc.setForeground(new Color(popup.getDisplay(), 0, 0, 0));
-		if (result != null) {
-			// free area found
-			gc.drawRectangle(result.x, result.y, popup.getWidth(), popup.getHeight());
-		} else {
-			// no area found
-			gc.drawRectangle(popupArea.width-2*popup.getWidth(), popupArea.height-popup.getHeight(), popup.getWidth(), popup.getHeight());
+	
+	/**
+	 * Completes the cancelled pending toasts and closes the cancelled visible toasts. Must be called without holding the lock.
+	 */
+	private void onCancelled(List<ToastRequest> pending, List<ToastRequest> visible, ToastRequest nextPending) {
+		for (ToastRequest toastRequest : pending) {
+			Toast toast = toastRequest.getToast();
+			logger.debug("Pending toast cancelled: {}", toast);
+			metrics.onCancelled();
+			ToastTrace trace = toast.getTrace();
+			if (trace != null) {
+				trace.complete();
+			}
+			ToastJournal currentJournal = journal;
+			if (currentJournal != null) {
+				currentJournal.markDone(toast.getId());
+			}
+			toastRequest.closeUnshownPopup();
+			toastRequest.getHandle().onCancelled();
 		}
-		
-		gc.dispose();
-		
-		ImageLoader imageLoader = new ImageLoader();
-		imageLoader.data = new ImageData[] { image.getImageData() };
-		imageLoader.save("D:\\toasts\\" + popup.getToast().getTitle() + ".png", SWT.IMAGE_PNG);
+		showNextPendingLater(nextPending);
+		if (visible.isEmpty()) {
+			return;
+		}
+		for (ToastRequest toastRequest : visible) {
+			logger.debug("Visible toast cancelled: {}", toastRequest.getToast());
+			metrics.onCancelled();
+		}
+		closeLater(visible);
 	}
 	
-	private boolean isForbidden(ToastPosition toastPosition, Point p, int width, int height) {
-		Set<Rectangle> forbiddenAreas = visibleToasts.get(toastPosition);
-		if (forbiddenAreas != null && !forbiddenAreas.isEmpty()) {
-			for (Rectangle rectangle : forbiddenAreas) {
-				if (rectangle.intersects(p.x, p.y, width, height)) {
-					return true;
+	/**
+	 * Closes the visible toasts matching the given predicate in one batch in the popup display thread.
+	 * 
+	 * @return the number of matching toasts
+	 */
+	protected int dismissIf(Predicate<Toast> predicate) {
+		List<ToastRequest> visible = new ArrayList<>();
+		synchronized (visibleToasts) {
+			for (ToastRequest visibleRequest : visibleRequests) {
+				if (predicate.test(visibleRequest.getToast())) {
+					visible.add(visibleRequest);
 				}
 			}
 		}
-		return false;
+		closeLater(visible);
+		return visible.size();
 	}
 	
-	protected boolean isEmpty() {
-		if (!pendingToasts.isEmpty()) {
-			return false;
+	/**
+	 * Closes the popups of the given visible requests in one batch per toolkit (usually there is only one) in the popup display thread.
+	 * Popups closed in the meantime are skipped. The pending toasts are not placed after each closed popup but once after the batch.
+	 */
+	private void closeLater(List<ToastRequest> visible) {
+		Map<ToastToolkit, List<ToastRequest>> requestsByToolkit = new HashMap<>();
+		for (ToastRequest toastRequest : visible) {
+			requestsByToolkit.computeIfAbsent(toastRequest.toolkit, toolkit -> new ArrayList<>()).add(toastRequest);
+		}
+		requestsByToolkit.forEach((toolkit, toastRequests) -> toolkit.asyncExec(() -> {
+			synchronized (visibleToasts) {
+				batchClosing = true;
+			}
+			try {
+				for (ToastRequest toastRequest : toastRequests) {
+					boolean stillVisible;
+					synchronized (visibleToasts) {
+						stillVisible = visibleRequests.contains(toastRequest);
+					}
+					if (stillVisible) {
+						toastRequest.getOrCreatePopup().close();
+					}
+				}
+			} finally {
+				long start = System.nanoTime();
+				synchronized (visibleToasts) {
+					batchClosing = false;
+					showAllPending();
+					updateQueue();
+				}
+				metrics.addDisplayThreadTime(start);
+				notifyHandles();
+			}
+		}));
+	}
+	
+	/**
+	 * Drops the given expired request. The handle and the expiry callback are notified after the lock was released (@see {@link #notifyHandles()}).
+	 * Must only be called while holding the lock.
+	 */
+	private void expire(ToastRequest toastRequest) {
+		Toast toast = toastRequest.getToast();
+		logger.debug("Toast expired: {}", toast);
+		metrics.onExpired();
+		ToastTrace trace = toast.getTrace();
+		if (trace != null) {
+			trace.complete();
+		}
+		ToastJournal currentJournal = journal;
+		if (currentJournal != null) {
+			currentJournal.markDone(toast.getId());
+		}
+		Consumer<Toast> callback = expiryCallback;
+		notifyLater(() -> {
+			toastRequest.closeUnshownPopup();
+			toastRequest.getHandle().onExpired();
+			if (callback != null) {
+				callback.accept(toast);
+			}
+		});
+	}
+	
+	/**
+	 * Registers a completion of a toast handle which is run by {@link #notifyHandles()} after the lock was released.
+	 * Must only be called while holding the lock.
+	 */
+	private void notifyLater(Runnable notification) {
+		handleNotifications.add(notification);
+	}
+	
+	/**
+	 * Runs the completions of the toast handles registered while holding the lock, 
+	 * so dependent actions of the handles (e.g. showing or cancelling other toasts) can not deadlock with the lock.
+	 * Must be called without holding the lock.
+	 */
+	private void notifyHandles() {
+		List<Runnable> notifications;
+		synchronized (visibleToasts) {
+			if (handleNotifications.isEmpty()) {
+				return;
+			}
+			notifications = new ArrayList<>(handleNotifications);
+			handleNotifications.clear();
+		}
+		for (Runnable notification : notifications) {
+			try {
+				notification.run();
+			} catch (RuntimeException e) {
+				logger.error(e.getMessage(), e);
+			}
+		}
+	}
+	
+	/**
+	 * Starts the periodic sweep of expired toasts. Must only be called while holding the lock.
+	 */
+	private void startExpirySweeper() {
+		if (expirySweeper != null) {
+			return;
+		}
+		expirySweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "Toaster Expiry Thread");
+			thread.setDaemon(true);
+			return thread;
+		});
+		expirySweeper.scheduleWithFixedDelay(() -> {
+			try {
+				sweepExpired();
+			} catch (RuntimeException e) {
+				logger.error(e.getMessage(), e);
+			}
+		}, EXPIRY_SWEEP_INTERVAL, EXPIRY_SWEEP_INTERVAL, TimeUnit.MILLISECONDS);
+	}
+	
+	protected Consumer<Toast> getExpiryCallback() {
+		return expiryCallback;
+	}
+	
+	protected void setExpiryCallback(Consumer<Toast> expiryCallback) {
+		this.expiryCallback = expiryCallback;
+	}
+	
+	/**
+	 * Updates the queue values and the animation mode. Must only be called while holding the lock.
+	 */
+	private void updateQueue() {
+		metrics.updateQueue(pendingToasts.size(), visibleRequests.size());
+		updateAnimationMode(System.nanoTime());
+	}
+	
+	/**
+	 * Updates the load of the popup display thread and the arrival rate if the load window elapsed and switches the animation mode. 
+	 * Must only be called while holding the lock.
+	 */
+	private void updateAnimationMode(long now) {
+		ToastAnimationPolicy policy = animationPolicy;
+		long elapsed = now - loadWindowStart;
+		if (elapsed >= TimeUnit.MILLISECONDS.toNanos(policy.getLoadWindow())) {
+			long displayThreadNanos = metrics.getDisplayThreadNanos();
+			long queued = metrics.getQueued();
+			displayThreadLoad = Math.max(0, displayThreadNanos - loadWindowDisplayThreadNanos) / (double) elapsed;
+			// smoothed over the last seconds, so a single burst does not dominate the rate
+			double windowRate = Math.max(0, queued - loadWindowQueued) * 1e9 / elapsed;
+			double weight = elapsed / (double) (elapsed + ARRIVAL_RATE_SMOOTHING);
+			arrivalRate += weight * (windowRate - arrivalRate);
+			loadWindowStart = now;
+			loadWindowDisplayThreadNanos = displayThreadNanos;
+			loadWindowQueued = queued;
+			metrics.updateLoad(displayThreadLoad, arrivalRate);
+		}
+		ToastAnimationMode mode = policy.getMode(pendingToasts.size(), displayThreadLoad);
+		if (mode != metrics.getAnimationMode()) {
+			logger.debug("Animation mode switched to {} (pending: {}, load: {})", mode, pendingToasts.size(), displayThreadLoad);
+		}
+		metrics.updateAnimationMode(mode);
+	}
+	
+	/**
+	 * Updates the load values and the animation mode if the load window elapsed since the last update.
+	 */
+	private void refreshLoad() {
+		long now = System.nanoTime();
+		if (now - loadWindowStart >= TimeUnit.MILLISECONDS.toNanos(animationPolicy.getLoadWindow())) {
+			synchronized (visibleToasts) {
+				updateAnimationMode(now);
+			}
+		}
+	}
+	
+	/**
+	 * @return the current animation mode, updated if the load window elapsed since the last update
+	 */
+	protected ToastAnimationMode getAnimationMode() {
+		refreshLoad();
+		return metrics.getAnimationMode();
+	}
+	
+	/**
+	 * @param toast the toast
+	 * 
+	 * @return the display time of the toast, shortened by the display time policy if toasts are pending
+	 */
+	protected int getDisplayTime(Toast toast) {
+		ToastDisplayTimePolicy policy = displayTimePolicy;
+		if (policy == null) {
+			return toast.getDisplayTime();
+		}
+		refreshLoad();
+		int pending;
+		int visible;
+		long oldestPendingAge;
+		synchronized (visibleToasts) {
+			pending = pendingToasts.size();
+			visible = visibleRequests.size();
+			ToastRequest oldest = pendingToasts.peek();
+			oldestPendingAge = oldest != null ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.getQueuedTime()) : 0;
+		}
+		return policy.getDisplayTime(toast, pending, oldestPendingAge, visible, metrics.getArrivalRate());
+	}
+	
+	protected ToastDisplayTimePolicy getDisplayTimePolicy() {
+		return displayTimePolicy;
+	}
+	
+	protected void setDisplayTimePolicy(ToastDisplayTimePolicy displayTimePolicy) {
+		this.displayTimePolicy = displayTimePolicy;
+	}
+	
+	protected ToastAnimationPolicy getAnimationPolicy() {
+		return animationPolicy;
+	}
+	
+	protected void setAnimationPolicy(ToastAnimationPolicy animationPolicy) {
+		synchronized (visibleToasts) {
+			this.animationPolicy = animationPolicy;
+			updateAnimationMode(System.nanoTime());
+		}
+	}
+	
+	private void queue(ToastRequest toastRequest, boolean isPendingToast) {
+		Toast toast = toastRequest.getToast();
+		if (toast.getDeadline() > 0) {
+			startExpirySweeper();
+		}
+		if (!isPendingToast) {
+			// no free area available -> queue until some toasts were closed
+			logger.debug("No free area found for the toast. Added toast to the queue: {}", toast);
+			pendingToasts.add(toastRequest);
+		} else {
+			// no free area available for already pended toast > requeue at the start
+			logger.debug("No free area found for already pending toast. Readded toast to the queue: {}", toast);
+			pendingToasts.addFirst(toastRequest);
+		}
+	}
+	
+	private ToastPopup getOrCreatePopup(ToastRequest toastRequest) {
+		if (toastRequest.hasPopup()) {
+			return toastRequest.getOrCreatePopup();
+		}
+		ToastPopup popup = toastRequest.getOrCreatePopup();
+		sizePredictor.record(toastRequest.getToast(), popup.getWidth(), popup.getHeight());
+		return popup;
+	}
+	
+	/**
+	 * Checks if there may be a free area for the given request. 
+	 * If the popup of the request was not created yet, its predicted size is only used as a hint: 
+	 * The request is kept without popup only if a size measured for a toast of the same shape does not fit.
+	 * If nothing is visible at the position of the toast or the size is only estimated, 
+	 * the real popup has to be created and the free area is checked with its real size.
+	 */
+	private boolean mayHaveFreeArea(ToastRequest toastRequest) {
+		if (toastRequest.hasPopup()) {
+			ToastPopup popup = toastRequest.getOrCreatePopup();
+			return hasFreeArea(toastRequest, popup.getWidth(), popup.getHeight());
+		}
+		Toast toast = toastRequest.getToast();
+		if (visibleToasts.get(toast.getPosition()).isEmpty()) {
+			return true;
+		}
+		long size = sizePredictor.predict(toast);
+		if (hasFreeArea(toastRequest, ToastSizePredictor.width(size), ToastSizePredictor.height(size))) {
+			return true;
+		}
+		return !sizePredictor.isMeasured(toast);
+	}
+	
+	private boolean hasFreeArea(ToastRequest toastRequest, int width, int height) {
+		ToastPosition toastPosition = toastRequest.getToast().getPosition();
+		Rectangle popupArea = toastRequest.getPopupArea();
+		int x = computeX(toastPosition, popupArea, width);
+		return computeY(visibleToasts.get(toastPosition), popupArea, x, width, height) != SlotLayout.NO_SPACE;
+	}
+	
+	private static boolean isBottomUp(ToastPosition toastPosition) {
+		switch (toastPosition) {
+			case BOTTOM_LEFT:
+			case BOTTOM_RIGHT:
+				return true;
+			case TOP_LEFT:
+			case TOP_RIGHT:
+				return false;
+			default:
+				throw new IllegalStateException("Unhandled position detected");
+		}
+	}
+	
+	private static int computeX(ToastPosition toastPosition, Rectangle popupArea, int toastWidth) {
+		switch (toastPosition) {
+			case BOTTOM_LEFT:
+			case TOP_LEFT:
+				return popupArea.x;
+			case BOTTOM_RIGHT:
+			case TOP_RIGHT:
+				return popupArea.x + popupArea.width - toastWidth;
+			default:
+				throw new IllegalStateException("Unhandled position detected");
 		}
-		Set<Entry<ToastPosition, Set<Rectangle>>> entrySet = visibleToasts.entrySet();
-		for (Entry<ToastPosition,Set<Rectangle>> entry : entrySet) {
-			Set<Rectangle> value = entry.getValue();
-			if (value != null && value.size() > 0) {
+	}
+	
+	private static int computeY(SlotLayout layout, Rectangle popupArea, int x, int toastWidth, int toastHeight) {
+		int minY = popupArea.y;
+		int maxY = popupArea.y + popupArea.height - toastHeight;
+		return layout.findY(x, toastWidth, toastHeight, minY, maxY);
+	}
+	
+	protected ToastHistory getHistory() {
+		return history;
+	}
+	
+	protected void setHistory(ToastHistory history) {
+		this.history = history;
+	}
+	
+	protected ToastMetrics getMetrics() {
+		return metrics;
+	}
+	
+	protected ToastJournal getJournal() {
+		return journal;
+	}
+	
+	protected void setJournal(ToastJournal journal) {
+		this.journal = journal;
+	}
+	
+	protected boolean isEmpty() {
+		synchronized (visibleToasts) {
+			if (!pendingToasts.isEmpty()) {
 				return false;
 			}
+			for (SlotLayout layout : visibleToasts.values()) {
+				if (!layout.isEmpty()) {
+					return false;
+				}
+			}
+			return true;
 		}
-		return true;
 	}
 	
 	protected ToastPopup[] getVisiblePopups() {
 		synchronized (visibleToasts) {
-			return visiblePopups.toArray(new ToastPopup[visiblePopups.size()]);
+			ToastPopup[] popups = new ToastPopup[visibleRequests.size()];
+			for (int i = 0; i < popups.length; i++) {
+				popups[i] = visibleRequests.get(i).getOrCreatePopup();
+			}
+			return popups;
 		}
 	}
 	
@@ -249,11 +828,18 @@ import io.github.dogla.toaster.ui.ToastToolkit;
 		private ToastToolkit toolkit;
 		private Toast toast;
 		private Rectangle monitorClientArea;
+		private ToastHandle handle;
 		private ToastPopup popup;
-		private ToastRequest(ToastToolkit toolkit, Toast toast, Rectangle monitorClientArea) {
+		private final long queuedTime = System.nanoTime();
+		// the next pending request with the same toast id (@see PendingQueue)
+		private ToastRequest sameId;
+		// removed from the pending queue but not yet from its deque (@see PendingQueue)
+		private boolean withdrawn;
+		private ToastRequest(ToastToolkit toolkit, Toast toast, Rectangle monitorClientArea, ToastHandle handle) {
 			this.toolkit = toolkit;
 			this.toast = toast;
 			this.monitorClientArea = monitorClientArea;
+			this.handle = handle;
 		}
 		ToastPopup getOrCreatePopup() {
 			if (popup == null) {
@@ -261,9 +847,146 @@ import io.github.dogla.toaster.ui.ToastToolkit;
 			}
 			return popup;
 		}
+		boolean hasPopup() {
+			return popup != null;
+		}
+		/**
+		 * Releases the popup of a pending request which was created but never shown (e.g. because it did not fit).
+		 */
+		void closeUnshownPopup() {
+			if (popup != null) {
+				popup.close();
+			}
+		}
+		Rectangle getPopupArea() {
+			return monitorClientArea;
+		}
 		public Toast getToast() {
 			return toast;
 		}
+		ToastHandle getHandle() {
+			return handle;
+		}
+		long getQueuedTime() {
+			return queuedTime;
+		}
+	}
+	
+	/**
+	 * The queue of the pending toasts with an index of the toast ids.
+	 * <p>
+	 * Requests removed by id or predicate are only marked as withdrawn and skipped when they reach the head of the queue,
+	 * so removing by id does not need to search the deque. The deque is compacted if most of its entries are withdrawn.
+	 * Several pending requests with the same toast id are chained in the index.
+	 * </p>
+	 */
+	private static class PendingQueue {
+		private final Deque<ToastRequest> deque = new ArrayDeque<>();
+		private final Map<String, ToastRequest> index = new HashMap<>();
+		private int size;
+		
+		void add(ToastRequest toastRequest) {
+			deque.add(toastRequest);
+			addToIndex(toastRequest);
+		}
+		
+		void addFirst(ToastRequest toastRequest) {
+			deque.addFirst(toastRequest);
+			addToIndex(toastRequest);
+		}
+		
+		ToastRequest peek() {
+			ToastRequest head = deque.peek();
+			while (head != null && head.withdrawn) {
+				deque.poll();
+				head = deque.peek();
+			}
+			return head;
+		}
+		
+		ToastRequest poll() {
+			ToastRequest head = peek();
+			if (head != null) {
+				deque.poll();
+				removeFromIndex(head);
+			}
+			return head;
+		}
+		
+		boolean isEmpty() {
+			return size == 0;
+		}
+		
+		int size() {
+			return size;
+		}
+		
+		/**
+		 * Removes all pending requests of the given toast id.
+		 */
+		List<ToastRequest> remove(String id) {
+			ToastRequest toastRequest = index.remove(id);
+			if (toastRequest == null) {
+				return Collections.emptyList();
+			}
+			List<ToastRequest> removed = new ArrayList<>(1);
+			for (; toastRequest != null; toastRequest = toastRequest.sameId) {
+				toastRequest.withdrawn = true;
+				size--;
+				removed.add(toastRequest);
+			}
+			if (deque.size() > 2 * size + 16) {
+				deque.removeIf(pendingRequest -> pendingRequest.withdrawn);
+			}
+			return removed;
+		}
+		
+		/**
+		 * Removes all pending requests matching the given predicate.
+		 */
+		List<ToastRequest> removeIf(Predicate<ToastRequest> predicate) {
+			List<ToastRequest> removed = new ArrayList<>();
+			deque.removeIf(toastRequest -> {
+				if (toastRequest.withdrawn) {
+					return true;
+				}
+				if (!predicate.test(toastRequest)) {
+					return false;
+				}
+				removeFromIndex(toastRequest);
+				removed.add(toastRequest);
+				return true;
+			});
+			return removed;
+		}
+		
+		private void addToIndex(ToastRequest toastRequest) {
+			toastRequest.withdrawn = false;
+			toastRequest.sameId = index.put(toastRequest.getToast().getId(), toastRequest);
+			size++;
+		}
+		
+		private void removeFromIndex(ToastRequest toastRequest) {
+			String id = toastRequest.getToast().getId();
+			ToastRequest first = index.get(id);
+			if (first == toastRequest) {
+				if (toastRequest.sameId != null) {
+					index.put(id, toastRequest.sameId);
+				} else {
+					index.remove(id);
+				}
+			} else {
+				for (ToastRequest previous = first; previous != null; previous = previous.sameId) {
+					if (previous.sameId == toastRequest) {
+						previous.sameId = toastRequest.sameId;
+						break;
+					}
+				}
+			}
+			toastRequest.sameId = null;
+			toastRequest.withdrawn = true;
+			size--;
+		}
 	}
 	
 }
@@ -0,0 +1,235 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runtime metrics of the toaster (@see {@link Toaster#getMetrics()}).
+ * <p>
+ * The counters are cumulative since the start or the last {@link #reset()}, the queue values are updated 
+ * whenever the toasts are queued, shown or closed.
+ * The display thread time is the time spent by the toaster on the popup display thread to create, place and release popups
+ * (animations and painting of the popups are not included).
+ * The current {@link ToastAnimationMode animation mode} and the number of its switches show how the animation adapts to the load
+ * (@see {@link ToastAnimationPolicy}).
+ * </p>
+ *
+ * @author Dominik
+ */
+public class ToastMetrics {
+	
+	private final LongAdder queued = new LongAdder();
+	private final LongAdder shown = new LongAdder();
+	private final LongAdder closed = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder expired = new LongAdder();
+	private final LongAdder cancelled = new LongAdder();
+	private final LongAdder displayThreadNanos = new LongAdder();
+	private volatile int pending;
+	// also written by reset() without the lock of the toast manager
+	private final AtomicInteger maxPending = new AtomicInteger();
+	private volatile int visible;
+	private final LongAdder animationModeSwitches = new LongAdder();
+	private volatile ToastAnimationMode animationMode = ToastAnimationMode.FULL;
+	private volatile double displayThreadLoad;
+	private volatile double arrivalRate;
+	
+	/*package*/ ToastMetrics() {
+		// created by the toast manager
+	}
+	
+	/**
+	 * @return the number of toasts accepted by the toaster
+	 */
+	public long getQueued() {
+		return queued.sum();
+	}
+	
+	/**
+	 * @return the number of toasts shown
+	 */
+	public long getShown() {
+		return shown.sum();
+	}
+	
+	/**
+	 * @return the number of toasts closed
+	 */
+	public long getClosed() {
+		return closed.sum();
+	}
+	
+	/**
+	 * @return the number of toasts which could not be shown
+	 */
+	public long getFailed() {
+		return failed.sum();
+	}
+	
+	/**
+	 * @return the number of toasts dropped because they expired before they were shown
+	 */
+	public long getExpired() {
+		return expired.sum();
+	}
+	
+	/**
+	 * @return the number of pending or visible toasts cancelled (@see {@link Toaster#cancel(String)})
+	 */
+	public long getCancelled() {
+		return cancelled.sum();
+	}
+	
+	/**
+	 * @return the time in nanoseconds spent on the popup display thread to create, place and release the popups
+	 */
+	public long getDisplayThreadNanos() {
+		return displayThreadNanos.sum();
+	}
+	
+	/**
+	 * @return the current number of pending toasts waiting for a free area
+	 */
+	public int getPending() {
+		return pending;
+	}
+	
+	/**
+	 * @return the maximum number of pending toasts
+	 */
+	public int getMaxPending() {
+		return maxPending.get();
+	}
+	
+	/**
+	 * @return the current number of visible toasts
+	 */
+	public int getVisible() {
+		return visible;
+	}
+	
+	/**
+	 * @return the current animation mode of the popups
+	 */
+	public ToastAnimationMode getAnimationMode() {
+		return animationMode;
+	}
+	
+	/**
+	 * @return the number of switches of the animation mode
+	 */
+	public long getAnimationModeSwitches() {
+		return animationModeSwitches.sum();
+	}
+	
+	/**
+	 * @return the fraction of the last load window (0..1) the toaster spent on the popup display thread
+	 */
+	public double getDisplayThreadLoad() {
+		return displayThreadLoad;
+	}
+	
+	/**
+	 * @return the smoothed number of toasts queued per second
+	 */
+	public double getArrivalRate() {
+		return arrivalRate;
+	}
+	
+	/**
+	 * Resets the counters and the maximum number of pending toasts.
+	 */
+	public void reset() {
+		queued.reset();
+		shown.reset();
+		closed.reset();
+		failed.reset();
+		expired.reset();
+		cancelled.reset();
+		displayThreadNanos.reset();
+		animationModeSwitches.reset();
+		maxPending.set(pending);
+		// the pending toasts may have been updated concurrently
+		maxPending.accumulateAndGet(pending, Math::max);
+	}
+	
+	/*package*/ void onQueued() {
+		queued.increment();
+	}
+	
+	/*package*/ void onShown() {
+		shown.increment();
+	}
+	
+	/*package*/ void onClosed() {
+		closed.increment();
+	}
+	
+	/*package*/ void onFailed() {
+		failed.increment();
+	}
+	
+	/*package*/ void onExpired() {
+		expired.increment();
+	}
+	
+	/*package*/ void onCancelled() {
+		cancelled.increment();
+	}
+	
+	/*package*/ void addDisplayThreadTime(long startNanos) {
+		displayThreadNanos.add(System.nanoTime() - startNanos);
+	}
+	
+	/**
+	 * Updates the queue values. Must only be called while holding the lock of the toast manager.
+	 */
+	/*package*/ void updateQueue(int pending, int visible) {
+		this.pending = pending;
+		this.visible = visible;
+		maxPending.accumulateAndGet(pending, Math::max);
+	}
+	
+	/**
+	 * Updates the load values measured over the last load window. Must only be called while holding the lock of the toast manager.
+	 */
+	/*package*/ void updateLoad(double displayThreadLoad, double arrivalRate) {
+		this.displayThreadLoad = displayThreadLoad;
+		this.arrivalRate = arrivalRate;
+	}
+	
+	/**
+	 * Updates the animation mode. Must only be called while holding the lock of the toast manager.
+	 */
+	/*package*/ void updateAnimationMode(ToastAnimationMode animationMode) {
+		if (this.animationMode != animationMode) {
+			this.animationMode = animationMode;
+			animationModeSwitches.increment();
+		}
+	}
+	
+	@SuppressWarnings("nls")
+	@Override
+	public String toString() {
+		return "ToastMetrics [queued=" + getQueued() + ", shown=" + getShown() + ", closed=" + getClosed() + ", failed=" + getFailed() + ", expired=" + getExpired() + ", cancelled=" + getCancelled()
+				+ ", pending=" + pending + ", maxPending=" + getMaxPending() + ", visible=" + visible 
+				+ ", displayThreadMillis=" + getDisplayThreadNanos() / 1_000_000 
+				+ ", arrivalRate=" + Math.round(arrivalRate) + "/s, animationMode=" + animationMode + ", animationModeSwitches=" + getAnimationModeSwitches() + "]";
+	}
+	
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Predicts the popup size of a toast without creating the popup.
+ * <p>
+ * The sizes of already created popups are cached by the shape of their content (size constraints, 
+ * text lengths, icon, actions). Toasts with an unknown shape are estimated by a simple text measurement model.
+ * The prediction is only used to decide if it makes sense to create the real popup, 
+ * the final location is always computed with the real size. Only a measured size is trusted
+ * to keep a toast without popup (see {@link #isMeasured(Toast)}), an estimated one is a hint only.
+ * </p>
+ *
+ * @author Dominik
+ */
+/*package*/ class ToastSizePredictor {
+	
+	private static final int MAX_ENTRIES = 256;
+	
+	// text measurement model (in pixels)
+	private static final int AVERAGE_CHAR_WIDTH = 7;
+	private static final int TITLE_LINE_HEIGHT = 22;
+	private static final int TEXT_LINE_HEIGHT = 18;
+	private static final int ACTION_HEIGHT = 28;
+	private static final int MARGIN = 10;
+	
+	private final Map<Long, Long> sizes = new LinkedHashMap<Long, Long>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+	
+	/**
+	 * Predicts the popup size of the given toast.
+	 * 
+	 * @param toast the toast
+	 * 
+	 * @return the packed size (see {@link #width(long)} and {@link #height(long)})
+	 */
+	public synchronized long predict(Toast toast) {
+		Long size = sizes.get(shapeOf(toast));
+		if (size != null) {
+			return size.longValue();
+		}
+		return estimate(toast);
+	}
+	
+	/**
+	 * @param toast the toast
+	 * 
+	 * @return <code>true</code> if the predicted size of the given toast was measured for a popup of the same shape, 
+	 * 		<code>false</code> if it is only estimated
+	 */
+	public synchronized boolean isMeasured(Toast toast) {
+		return sizes.containsKey(shapeOf(toast));
+	}
+	
+	/**
+	 * Remembers the real popup size of the given toast.
+	 * 
+	 * @param toast the toast
+	 * @param width the width of the popup
+	 * @param height the height of the popup
+	 */
+	public synchronized void record(Toast toast, int width, int height) {
+		sizes.put(shapeOf(toast), pack(width, height));
+	}
+	
+	/**
+	 * @param size the packed size
+	 * @return the width
+	 */
+	public static int width(long size) {
+		return (int) (size >>> 32);
+	}
+	
+	/**
+	 * @param size the packed size
+	 * @return the height
+	 */
+	public static int height(long size) {
+		return (int) size;
+	}
+	
+	private static long pack(int width, int height) {
+		return ((long) width << 32) | (height & 0xFFFFFFFFL);
+	}
+	
+	private static long shapeOf(Toast toast) {
+		long shape = 17;
+		shape = 31 * shape + toast.getMinWidth();
+		shape = 31 * shape + toast.getMaxWidth();
+		shape = 31 * shape + toast.getMinHeight();
+		shape = 31 * shape + toast.getMaxHeight();
+		shape = 31 * shape + (toast.getIcon() != null ? toast.getMaxIconWidth() * 31 + toast.getMaxIconHeight() : -1);
+		shape = 31 * shape + (toast.isSticky() ? 1 : 0);
+		shape = 31 * shape + toast.getActions().size();
+		// texts are only distinguished by their approximate length
+		shape = 31 * shape + length(toast.getTitle()) / 8;
+		shape = 31 * shape + length(toast.getMessage()) / 8;
+		shape = 31 * shape + length(toast.getDetails()) / 8;
+		return shape;
+	}
+	
+	private static long estimate(Toast toast) {
+		int iconWidth = toast.getIcon() != null ? Math.max(toast.getMaxIconWidth(), 0) + 2 * MARGIN : 0;
+		int iconHeight = toast.getIcon() != null ? Math.max(toast.getMaxIconHeight(), 0) + 2 * MARGIN : 0;
+		
+		int width;
+		if (toast.getMaxWidth() >= 0) {
+			width = toast.getMaxWidth();
+		} else {
+			int textLength = Math.max(length(toast.getTitle()), Math.max(length(toast.getMessage()), length(toast.getDetails())));
+			width = iconWidth + textLength * AVERAGE_CHAR_WIDTH + 2 * MARGIN;
+		}
+		width = constrain(width, toast.getMinWidth(), toast.getMaxWidth());
+		
+		int textWidth = Math.max(width - iconWidth - 2 * MARGIN, AVERAGE_CHAR_WIDTH);
+		int height = 2 * MARGIN
+				+ lines(toast.getTitle(), textWidth) * TITLE_LINE_HEIGHT
+				+ lines(toast.getMessage(), textWidth) * TEXT_LINE_HEIGHT
+				+ lines(toast.getDetails(), textWidth) * TEXT_LINE_HEIGHT;
+		height = Math.max(height, iconHeight) + toast.getActions().size() * ACTION_HEIGHT;
+		height = constrain(height, toast.getMinHeight(), toast.getMaxHeight());
+		return pack(width, height);
+	}
+	
+	private static int lines(String text, int textWidth) {
+		int length = length(text);
+		if (length == 0) {
+			return 0;
+		}
+		int charsPerLine = Math.max(textWidth / AVERAGE_CHAR_WIDTH, 1);
+		return (length + charsPerLine - 1) / charsPerLine;
+	}
+	
+	private static int length(String text) {
+		return text != null ? text.length() : 0;
+	}
+	
+	private static int constrain(int value, int min, int max) {
+		int result = Math.max(value, min >= 0 ? min : value);
+		return Math.min(result, max >= 0 ? max : result);
+	}
+
+}
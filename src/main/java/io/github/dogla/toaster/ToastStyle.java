@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import lombok.Builder;
+import lombok.Builder.Default;
+import lombok.Getter;
+
+/**
+ * The immutable layout, icon, color and animation attributes of toasts.
+ * <p>
+ * A style is shared by reference between all toasts using it, e.g. one of the predefined themes {@link #DARK} and {@link #LIGHT}.
+ * Derived styles can be created with {@link #toBuilder()}.
+ * </p>
+ *
+ * @author Dominik
+ */
+@Builder(toBuilder = true) @Getter
+public final class ToastStyle {
+	
+	/** The dark theme (default) */
+	public static final ToastStyle DARK = ToastStyle.builder().build();
+	
+	/** The light theme */
+	public static final ToastStyle LIGHT = ToastStyle.builder()
+			.backgroundColor(ToastColor.of(249, 249, 249))
+			.iconBackgroundColor(ToastColor.of(249, 249, 249))
+			.borderColor(ToastColor.of(220, 220, 220))
+			.titleForegroundColor(ToastColor.of(0, 0, 0))
+			.messageForegroundColor(ToastColor.of(96, 96, 96))
+			.detailsForegroundColor(ToastColor.of(96, 96, 96))
+			.actionsBackgroundColor(ToastColor.of(225, 225, 225))
+			.actionsForegroundColor(ToastColor.of(0, 0, 0))
+			.build();
+	
+	// layout attributes
+	@Default
+	private final int minWidth = 350;
+	@Default
+	private final int minHeight = -1;
+	@Default
+	private final int maxWidth = 350;
+	@Default
+	private final int maxHeight = -1;
+	
+	// icon dimension attributes
+	@Default
+	private final int minIconWidth = 64;
+	@Default
+	private final int minIconHeight = 64;
+	@Default
+	private final int maxIconWidth = 64;
+	@Default
+	private final int maxIconHeight = 64;
+	@Default
+	private final boolean allowIconUpscaling = false;
+	
+	// color attributes
+	@Default
+	private final ToastColor backgroundColor = ToastColor.of(30, 30, 30);
+	@Default
+	private final ToastColor iconBackgroundColor = ToastColor.of(30, 30, 30);
+	@Default
+	private final ToastColor borderColor = ToastColor.of(20, 20, 20);
+	@Default
+	private final ToastColor titleForegroundColor = ToastColor.of(255, 255, 255);
+	@Default
+	private final ToastColor messageForegroundColor = ToastColor.of(148, 148, 148);
+	@Default
+	private final ToastColor detailsForegroundColor = ToastColor.of(148, 148, 148);
+	@Default
+	private final ToastColor actionsBackgroundColor = ToastColor.of(55, 55, 55);
+	@Default
+	private final ToastColor actionsForegroundColor = ToastColor.of(255, 255, 255);
+	@Default
+	private final ToastColor actionsBackgroundColorHovered = null;
+	@Default
+	private final ToastColor actionsForegroundColorHovered = null;
+	@Default
+	private final int transparency = 255;
+	
+	// animation attributes
+	@Default
+	private final int fadeInTime = 200;
+	@Default
+	private final int fadeOutTime = 600;
+	@Default
+	private final int fadeInSteps = 8;
+	@Default
+	private final int fadeOutSteps = 24;
+	
+}
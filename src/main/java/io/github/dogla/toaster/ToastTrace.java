@@ -0,0 +1,154 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The timestamps of the stages a sampled toast passed through the toaster (@see {@link ToastTracer}).
+ *
+ * @author Dominik
+ */
+public final class ToastTrace {
+	
+	/**
+	 * The stages of a toast in the order they are passed.
+	 */
+	public enum Stage {
+		/** {@link Toaster#toast(Toast)} or {@link Toaster#submit(Toast)} called */
+		SUBMITTED,
+		/** The lock of {@link Toaster#toast(Toast)} acquired or the prepared toast of {@link Toaster#submit(Toast)} passed to the toolkit */
+		LOCK_ACQUIRED,
+		/** The popup display thread entered (<code>syncExec</code>/<code>asyncExec</code>) */
+		DISPLAY_THREAD_ENTERED,
+		/** The popup created */
+		POPUP_CREATED,
+		/** The location of the popup computed */
+		LOCATION_COMPUTED,
+		/** The fade in animation started */
+		FADE_IN_STARTED,
+		/** The popup is fully opaque */
+		OPAQUE
+	}
+	
+	private static final Stage[] STAGES = Stage.values();
+	
+	private final ToastTracer tracer;
+	private final String toastId;
+	private final AtomicLongArray timestamps = new AtomicLongArray(STAGES.length);
+	private final AtomicBoolean completed = new AtomicBoolean();
+	
+	/*package*/ ToastTrace(ToastTracer tracer, String toastId) {
+		this.tracer = tracer;
+		this.toastId = toastId;
+	}
+	
+	/**
+	 * @return the id of the traced toast
+	 */
+	public String getToastId() {
+		return toastId;
+	}
+	
+	/**
+	 * Records the current time for the given stage. Only the first time of each stage is recorded.
+	 * The trace is completed if the last stage was reached.
+	 * 
+	 * @param stage the stage
+	 */
+	public void mark(Stage stage) {
+		timestamps.compareAndSet(stage.ordinal(), 0, System.nanoTime());
+		if (stage == Stage.OPAQUE) {
+			complete();
+		}
+	}
+	
+	/**
+	 * Completes the trace, e.g. if the toast was closed before it was fully opaque.
+	 */
+	/*package*/ void complete() {
+		if (completed.compareAndSet(false, true)) {
+			tracer.onCompleted(this);
+		}
+	}
+	
+	/**
+	 * @return <code>true</code> if the trace is completed
+	 */
+	public boolean isCompleted() {
+		return completed.get();
+	}
+	
+	/**
+	 * @param stage the stage
+	 * 
+	 * @return the time of the stage (@see {@link System#nanoTime()}) or 0 if the stage was not reached
+	 */
+	public long getTimestamp(Stage stage) {
+		return timestamps.get(stage.ordinal());
+	}
+	
+	/**
+	 * Returns the time spent before the given stage was reached, i.e. the time since the previous reached stage.
+	 * 
+	 * @param stage the stage
+	 * 
+	 * @return the time in nanoseconds or -1 if the stage or no previous stage was reached
+	 */
+	public long getStageNanos(Stage stage) {
+		long timestamp = getTimestamp(stage);
+		if (timestamp == 0) {
+			return -1;
+		}
+		for (int i = stage.ordinal() - 1; i >= 0; i--) {
+			long previous = timestamps.get(i);
+			if (previous != 0) {
+				return timestamp - previous;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * @return the time in nanoseconds from the submission to the last reached stage
+	 */
+	public long getTotalNanos() {
+		long first = getTimestamp(Stage.SUBMITTED);
+		for (int i = STAGES.length - 1; i > 0; i--) {
+			long timestamp = timestamps.get(i);
+			if (timestamp != 0) {
+				return first != 0 ? timestamp - first : 0;
+			}
+		}
+		return 0;
+	}
+	
+	@SuppressWarnings("nls")
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("ToastTrace [toast=").append(toastId);
+		for (Stage stage : STAGES) {
+			long nanos = getStageNanos(stage);
+			if (nanos >= 0) {
+				builder.append(", ").append(stage).append("=+").append(TimeUnit.NANOSECONDS.toMicros(nanos)).append("µs");
+			}
+		}
+		return builder.append(", total=").append(TimeUnit.NANOSECONDS.toMillis(getTotalNanos())).append("ms]").toString();
+	}
+	
+}
@@ -0,0 +1,220 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.github.dogla.toaster.ToastTrace.Stage;
+
+/**
+ * Traces the way of sampled toasts through the toaster (@see {@link Toaster#getTracer()}).
+ * <p>
+ * Every n-th toast gets a {@link ToastTrace} (@see {@link Toast#getTrace()}) which records the time each stage was reached.
+ * The completed traces are aggregated per stage and the most recent traces are kept for analysis.
+ * Tracing is disabled by default, toasts which are not sampled only cost a field access per stage.
+ * </p>
+ *
+ * @author Dominik
+ */
+public class ToastTracer {
+	
+	/** The number of recent traces kept */
+	public static final int RECENT_TRACES = 100;
+	
+	private volatile int sampleInterval;
+	private final AtomicLong counter = new AtomicLong();
+	private final Map<Stage, Recorder> recorders = new EnumMap<>(Stage.class);
+	private final Deque<ToastTrace> recentTraces = new ArrayDeque<>(RECENT_TRACES);
+	
+	/*package*/ ToastTracer() {
+		for (Stage stage : Stage.values()) {
+			recorders.put(stage, new Recorder());
+		}
+	}
+	
+	/**
+	 * Records the current time for the given stage if the toast is traced.
+	 * 
+	 * @param toast the toast
+	 * @param stage the stage
+	 */
+	public static void mark(Toast toast, Stage stage) {
+		ToastTrace trace = toast.getTrace();
+		if (trace != null) {
+			trace.mark(stage);
+		}
+	}
+	
+	/**
+	 * Sets the sample interval.
+	 * 
+	 * @param sampleInterval trace every n-th toast, <code>1</code> traces all toasts and <code>0</code> disables the tracing
+	 */
+	public void setSampleInterval(int sampleInterval) {
+		if (sampleInterval < 0) {
+			throw new IllegalArgumentException("Sample interval must not be negative."); //$NON-NLS-1$
+		}
+		this.sampleInterval = sampleInterval;
+	}
+	
+	/**
+	 * @return the sample interval, <code>0</code> if the tracing is disabled
+	 */
+	public int getSampleInterval() {
+		return sampleInterval;
+	}
+	
+	/**
+	 * Starts the trace of the given toast if it is sampled.
+	 */
+	/*package*/ void start(Toast toast) {
+		int interval = sampleInterval;
+		if (interval == 0 || toast.getTrace() != null || counter.getAndIncrement() % interval != 0) {
+			return;
+		}
+		ToastTrace trace = new ToastTrace(this, toast.getId());
+		trace.mark(Stage.SUBMITTED);
+		toast.setTrace(trace);
+	}
+	
+	/*package*/ void onCompleted(ToastTrace trace) {
+		for (Stage stage : Stage.values()) {
+			long nanos = trace.getStageNanos(stage);
+			if (nanos >= 0) {
+				recorders.get(stage).record(nanos);
+			}
+		}
+		synchronized (recentTraces) {
+			if (recentTraces.size() == RECENT_TRACES) {
+				recentTraces.removeFirst();
+			}
+			recentTraces.addLast(trace);
+		}
+	}
+	
+	/**
+	 * @return the most recent completed traces, the oldest first
+	 */
+	public List<ToastTrace> getRecentTraces() {
+		synchronized (recentTraces) {
+			return Collections.unmodifiableList(new ArrayList<>(recentTraces));
+		}
+	}
+	
+	/**
+	 * Returns the aggregated time spent before each stage was reached (@see {@link ToastTrace#getStageNanos(Stage)}).
+	 * 
+	 * @return the statistics by stage
+	 */
+	public Map<Stage, Statistics> getStatistics() {
+		Map<Stage, Statistics> result = new EnumMap<>(Stage.class);
+		recorders.forEach((stage, recorder) -> result.put(stage, recorder.toStatistics()));
+		return Collections.unmodifiableMap(result);
+	}
+	
+	/**
+	 * Resets the statistics and the recent traces.
+	 */
+	public void reset() {
+		recorders.values().forEach(Recorder::reset);
+		synchronized (recentTraces) {
+			recentTraces.clear();
+		}
+	}
+	
+	private static class Recorder {
+		private final LongAdder count = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final AtomicLong maxNanos = new AtomicLong();
+		
+		private void record(long nanos) {
+			count.increment();
+			totalNanos.add(nanos);
+			maxNanos.accumulateAndGet(nanos, Math::max);
+		}
+		
+		private void reset() {
+			count.reset();
+			totalNanos.reset();
+			maxNanos.set(0);
+		}
+		
+		private Statistics toStatistics() {
+			return new Statistics(count.sum(), totalNanos.sum(), maxNanos.get());
+		}
+	}
+	
+	/**
+	 * The aggregated time spent before a stage was reached.
+	 */
+	public static class Statistics {
+		
+		private final long count;
+		private final long totalNanos;
+		private final long maxNanos;
+		
+		private Statistics(long count, long totalNanos, long maxNanos) {
+			this.count = count;
+			this.totalNanos = totalNanos;
+			this.maxNanos = maxNanos;
+		}
+		
+		/**
+		 * @return the number of traces which reached the stage
+		 */
+		public long getCount() {
+			return count;
+		}
+		
+		/**
+		 * @return the total time in nanoseconds
+		 */
+		public long getTotalNanos() {
+			return totalNanos;
+		}
+		
+		/**
+		 * @return the maximum time in nanoseconds
+		 */
+		public long getMaxNanos() {
+			return maxNanos;
+		}
+		
+		/**
+		 * @return the average time in nanoseconds
+		 */
+		public long getAverageNanos() {
+			return count == 0 ? 0 : totalNanos / count;
+		}
+		
+		@SuppressWarnings("nls")
+		@Override
+		public String toString() {
+			return "Statistics [count=" + count + ", avg=" + TimeUnit.NANOSECONDS.toMicros(getAverageNanos()) 
+					+ "µs, max=" + TimeUnit.NANOSECONDS.toMicros(maxNanos) + "µs]";
+		}
+	}
+	
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+/**
+ * Event describing the updated fields of a toast (@see {@link ToastUpdateListener}).
+ *
+ * @author Dominik
+ */
+public final class ToastUpdateEvent {
+	
+	private final Toast toast;
+	private final int changedFields;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param toast the updated toast
+	 * @param changedFields the mask of the changed fields (@see {@link ToastField#mask()})
+	 */
+	public ToastUpdateEvent(Toast toast, int changedFields) {
+		this.toast = toast;
+		this.changedFields = changedFields;
+	}
+	
+	/**
+	 * @return the updated toast
+	 */
+	public Toast getToast() {
+		return toast;
+	}
+	
+	/**
+	 * @return the mask of the changed fields (@see {@link ToastField#mask()})
+	 */
+	public int getChangedFields() {
+		return changedFields;
+	}
+	
+	/**
+	 * @param field the field
+	 * 
+	 * @return <code>true</code> if the given field was changed
+	 */
+	public boolean isChanged(ToastField field) {
+		return field.isContainedIn(changedFields);
+	}
+	
+	@SuppressWarnings("nls")
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("ToastUpdateEvent [toast=").append(toast.getId()).append(", changedFields=");
+		String separator = "";
+		for (ToastField field : ToastField.values()) {
+			if (isChanged(field)) {
+				builder.append(separator).append(field);
+				separator = "|";
+			}
+		}
+		return builder.append("]").toString();
+	}
+	
+}
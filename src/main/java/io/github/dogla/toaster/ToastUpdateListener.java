@@ -0,0 +1,34 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+/**
+ * Listener which is notified if a toast is updated after it was initialized.
+ *
+ * @author Dominik
+ */
+@FunctionalInterface
+public interface ToastUpdateListener {
+	
+	/**
+	 * Called after one or more fields of the toast were updated.
+	 * The listener is called by the thread which updated the toast.
+	 * 
+	 * @param event the event
+	 */
+	void toastUpdated(ToastUpdateEvent event);
+	
+}
@@ -15,6 +15,17 @@
  */
 package io.github.dogla.toaster;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import io.github.dogla.toaster.ToastTrace.Stage;
 import io.github.dogla.toaster.ui.ToastPopup;
 import io.github.dogla.toaster.ui.ToastToolkit;
 import io.github.dogla.toaster.ui.impl.ToastToolkitImpl;
@@ -25,6 +36,9 @@ import io.github.dogla.toaster.ui.impl.ToastToolkitImpl;
 public class Toaster {
 	
 	private static ToastToolkit DEFAULT_TOOLKIT;
+	private static final ReentrantLock TOAST_LOCK = new ReentrantLock();
+	private static final ToastTracer TRACER = new ToastTracer();
+	private static volatile ToastIdGenerator ID_GENERATOR = ToastIdGenerator.sequential();
 	
 	private Toaster() {
 		// utility class
@@ -35,14 +49,14 @@ public class Toaster {
 	 * 
 	 * @param toolkit the default toolkit
 	 */
-	public static void setDefaultToolkit(ToastToolkit toolkit) {
+	public static synchronized void setDefaultToolkit(ToastToolkit toolkit) {
 		DEFAULT_TOOLKIT = toolkit;
 	}
 	
 	/**
 	 * @return the default toolkit
 	 */
-	public static ToastToolkit getDefaultToolkit() {
+	public static synchronized ToastToolkit getDefaultToolkit() {
 		if (DEFAULT_TOOLKIT == null) {
 			DEFAULT_TOOLKIT = new ToastToolkitImpl();
 		}
@@ -55,7 +69,7 @@ public class Toaster {
 	 * 
 	 * @param toast the toast
 	 */
-	public static synchronized void toast(Toast toast) {
+	public static void toast(Toast toast) {
 		toast(getDefaultToolkit(), toast);
 	}
 	
@@ -64,27 +78,371 @@ public class Toaster {
 	 * @param toolkit the toolkit
 	 * @param toast the toast
 	 */
-	public static synchronized void toast(ToastToolkit toolkit, Toast toast) {
+	public static void toast(ToastToolkit toolkit, Toast toast) {
+		validate(toolkit, toast);
+		TRACER.start(toast);
+		// prepare the toast (e.g. decode the icon) without blocking other toasts or the popup display thread
+		toolkit.prepare(toast).join();
+		// explicit lock instead of synchronized, so waiting virtual threads do not pin their carrier threads
+		TOAST_LOCK.lock();
+		try {
+			ToastTracer.mark(toast, Stage.LOCK_ACQUIRED);
+			ToastManager.getInstance().toast(toolkit, toast, new ToastHandle(toast));
+		} finally {
+			TOAST_LOCK.unlock();
+		}
+	}
+	
+	/**
+	 * Shows the toasts with the default toolkit (@see {@link #toastAll(ToastToolkit, Collection)}).
+	 * 
+	 * @param toasts the toasts
+	 */
+	public static void toastAll(Collection<Toast> toasts) {
+		toastAll(getDefaultToolkit(), toasts);
+	}
+	
+	/**
+	 * Shows the toasts with the given toolkit in the order of the collection. 
+	 * Compared to calling {@link #toast(ToastToolkit, Toast)} for each toast, the toasts are prepared concurrently,
+	 * the toaster is locked once and the popup display thread is entered once to create and place all popups which fit 
+	 * into the free areas. The remaining toasts are queued in order.
+	 * All toasts are validated before any of them is prepared. A toast whose preparation failed is skipped 
+	 * (the failure is logged), the other toasts are shown anyway.
+	 * 
+	 * @param toolkit the toolkit
+	 * @param toasts the toasts
+	 */
+	public static void toastAll(ToastToolkit toolkit, Collection<Toast> toasts) {
+		if (toasts == null) {
+			throw new IllegalStateException("Toasts were null."); //$NON-NLS-1$
+		}
+		List<Toast> toastList = new ArrayList<>(toasts);
+		// validate all toasts first, so an invalid toast does not leave the batch half prepared
+		for (Toast toast : toastList) {
+			validate(toolkit, toast);
+		}
+		if (toastList.isEmpty()) {
+			return;
+		}
+		ToastManager manager = ToastManager.getInstance();
+		CompletableFuture<?>[] preparations = new CompletableFuture<?>[toastList.size()];
+		for (int i = 0; i < preparations.length; i++) {
+			Toast toast = toastList.get(i);
+			TRACER.start(toast);
+			try {
+				preparations[i] = toolkit.prepare(toast);
+			} catch (RuntimeException e) {
+				CompletableFuture<Void> failed = new CompletableFuture<>();
+				failed.completeExceptionally(e);
+				preparations[i] = failed;
+			}
+		}
+		// a failed preparation only drops its own toast
+		List<Toast> preparedToasts = new ArrayList<>(toastList.size());
+		List<ToastHandle> handles = new ArrayList<>(toastList.size());
+		for (int i = 0; i < preparations.length; i++) {
+			Toast toast = toastList.get(i);
+			ToastHandle handle = new ToastHandle(toast);
+			try {
+				preparations[i].join();
+			} catch (CompletionException | CancellationException e) {
+				manager.fail(handle, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+				continue;
+			}
+			preparedToasts.add(toast);
+			handles.add(handle);
+		}
+		if (preparedToasts.isEmpty()) {
+			return;
+		}
+		TOAST_LOCK.lock();
+		try {
+			for (Toast toast : preparedToasts) {
+				ToastTracer.mark(toast, Stage.LOCK_ACQUIRED);
+			}
+			manager.toastAll(toolkit, preparedToasts, handles);
+		} finally {
+			TOAST_LOCK.unlock();
+		}
+	}
+	
+	/**
+	 * Shows the toast with the default toolkit without blocking the caller.
+	 * 
+	 * @param toast the toast
+	 * 
+	 * @return the handle to track the toast
+	 * 
+	 * @see #submit(ToastToolkit, Toast)
+	 */
+	public static ToastHandle submit(Toast toast) {
+		return submit(getDefaultToolkit(), toast);
+	}
+	
+	/**
+	 * Shows the toast with the given toolkit without blocking the caller.
+	 * The toast is prepared and passed to the popup display thread asynchronously.
+	 * The returned handle can be used to track when the toast is queued, shown and closed or which action was selected.
+	 * 
+	 * @param toolkit the toolkit
+	 * @param toast the toast
+	 * 
+	 * @return the handle to track the toast
+	 */
+	public static ToastHandle submit(ToastToolkit toolkit, Toast toast) {
+		validate(toolkit, toast);
+		TRACER.start(toast);
+		ToastHandle handle = new ToastHandle(toast);
+		ToastManager manager = ToastManager.getInstance();
+		CompletableFuture<Void> preparation;
+		try {
+			preparation = toolkit.prepare(toast);
+		} catch (RuntimeException e) {
+			manager.fail(handle, e);
+			return handle;
+		}
+		preparation.whenComplete((result, throwable) -> {
+			if (throwable != null) {
+				// the preparation must not fail, but if it does the handle has to be completed anyway
+				manager.fail(handle, throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+				return;
+			}
+			ToastTracer.mark(toast, Stage.LOCK_ACQUIRED);
+			manager.submit(toolkit, toast, handle);
+		});
+		return handle;
+	}
+	
+	private static void validate(ToastToolkit toolkit, Toast toast) {
 		if (toolkit == null) {
 			throw new IllegalStateException("Toast toolkit was null."); //$NON-NLS-1$
 		}
 		if (toast == null) {
 			throw new IllegalStateException("Toast was null."); //$NON-NLS-1$
 		}
-		ToastManager.getInstance().toast(toolkit, toast);
 	}
 
 	/**
+	 * The state is read while holding the lock of the toast manager, the toaster lock is not required
+	 * (so this method does not wait for toasts which are prepared or passed to the popup display thread).
+	 * 
 	 * @return <code>true</code> if no toasts are displayed or in the queue, <code>false</code> otherwise.
 	 */
-	public static synchronized boolean isEmpty() {
+	public static boolean isEmpty() {
 		return ToastManager.getInstance().isEmpty();
 	}
 	
 	/**
+	 * @return the generator of the toast ids
+	 */
+	public static ToastIdGenerator getIdGenerator() {
+		return ID_GENERATOR;
+	}
+	
+	/**
+	 * Sets the generator of the toast ids which is used by the toast builders and {@link Toast#copy()}.
+	 * By default the ids are generated by {@link ToastIdGenerator#sequential()}.
+	 * 
+	 * @param idGenerator the id generator
+	 */
+	public static void setIdGenerator(ToastIdGenerator idGenerator) {
+		if (idGenerator == null) {
+			throw new IllegalArgumentException("Id generator was null."); //$NON-NLS-1$
+		}
+		ID_GENERATOR = idGenerator;
+	}
+	
+	/**
+	 * Cancels the toast with the given id. If it is pending, it is removed from the queue without being shown.
+	 * If it is visible, its popup is closed asynchronously in the popup display thread.
+	 * Toasts which were submitted but not yet accepted by the toaster (@see {@link ToastHandle#queued()}) are not affected.
+	 * 
+	 * @param id the id of the toast
+	 * 
+	 * @return <code>true</code> if a pending or visible toast with the id was found
+	 */
+	public static boolean cancel(String id) {
+		if (id == null) {
+			return false;
+		}
+		return ToastManager.getInstance().cancel(id);
+	}
+	
+	/**
+	 * Cancels all pending and visible toasts matching the given predicate, e.g. 
+	 * <code>Toaster.cancelIf(toast -&gt; "Connection lost".equals(toast.getTitle()))</code>.
+	 * The pending toasts are removed from the queue without being shown, the visible popups are closed 
+	 * asynchronously in one batch in the popup display thread. 
+	 * The predicate is evaluated while the toaster is locked and must therefore not block.
+	 * 
+	 * @param predicate the predicate
+	 * 
+	 * @return the number of cancelled toasts
+	 */
+	public static int cancelIf(Predicate<Toast> predicate) {
+		if (predicate == null) {
+			throw new IllegalArgumentException("Predicate was null."); //$NON-NLS-1$
+		}
+		return ToastManager.getInstance().cancelIf(predicate);
+	}
+	
+	/**
+	 * Closes all visible toasts (@see {@link #dismissIf(Predicate)}).
+	 * 
+	 * @return the number of visible toasts
+	 */
+	public static int dismissAll() {
+		return dismissIf(toast -> true);
+	}
+	
+	/**
+	 * Closes the visible toasts matching the given predicate like the user would close them. Pending toasts are not affected.
+	 * The popups are closed asynchronously in one batch in the popup display thread, afterwards the pending toasts are placed 
+	 * into the free areas in one pass. The predicate is evaluated while the toaster is locked and must therefore not block.
+	 * 
+	 * @param predicate the predicate
+	 * 
+	 * @return the number of matching visible toasts
+	 */
+	public static int dismissIf(Predicate<Toast> predicate) {
+		if (predicate == null) {
+			throw new IllegalArgumentException("Predicate was null."); //$NON-NLS-1$
+		}
+		return ToastManager.getInstance().dismissIf(predicate);
+	}
+	
+	/**
+	 * @return the history of the closed toasts or <code>null</code> if the history is disabled
+	 */
+	public static ToastHistory getHistory() {
+		return ToastManager.getInstance().getHistory();
+	}
+	
+	/**
+	 * Sets the history which records the closed toasts. 
+	 * By default a history with a capacity of {@value ToastHistory#DEFAULT_CAPACITY} entries is used, which does not retain the icons.
+	 * 
+	 * @param history the history or <code>null</code> to disable the history
+	 */
+	public static void setHistory(ToastHistory history) {
+		ToastManager.getInstance().setHistory(history);
+	}
+	
+	/**
+	 * @return the policy of the adaptive animation
+	 */
+	public static ToastAnimationPolicy getAnimationPolicy() {
+		return ToastManager.getInstance().getAnimationPolicy();
+	}
+	
+	/**
+	 * Sets the policy which reduces or skips the animation of the popups if many toasts are pending 
+	 * or the popup display thread is busy. By default {@link ToastAnimationPolicy#DEFAULT} is used.
+	 * 
+	 * @param animationPolicy the animation policy, {@link ToastAnimationPolicy#ALWAYS_FULL} to disable the adaptive animation
+	 */
+	public static void setAnimationPolicy(ToastAnimationPolicy animationPolicy) {
+		if (animationPolicy == null) {
+			throw new IllegalArgumentException("Animation policy was null."); //$NON-NLS-1$
+		}
+		ToastManager.getInstance().setAnimationPolicy(animationPolicy);
+	}
+	
+	/**
+	 * Returns the current animation mode of the popups. 
+	 * Used by the popups for each animation step (@see {@link ToastAnimationPolicy}).
+	 * 
+	 * @return the current animation mode
+	 */
+	public static ToastAnimationMode getAnimationMode() {
+		return ToastManager.getInstance().getAnimationMode();
+	}
+	
+	/**
+	 * @return the policy which shortens the display time if toasts are pending or <code>null</code> if the display time is not shortened
+	 */
+	public static ToastDisplayTimePolicy getDisplayTimePolicy() {
+		return ToastManager.getInstance().getDisplayTimePolicy();
+	}
+	
+	/**
+	 * Sets the policy which shortens the display time of non-sticky toasts if toasts are pending, so a backlog is cleared in bounded time.
+	 * By default the display time is not shortened.
+	 * 
+	 * @param displayTimePolicy the display time policy, e.g. {@link ToastDisplayTimePolicy#DEFAULT}, or <code>null</code> to disable it
+	 */
+	public static void setDisplayTimePolicy(ToastDisplayTimePolicy displayTimePolicy) {
+		ToastManager.getInstance().setDisplayTimePolicy(displayTimePolicy);
+	}
+	
+	/**
+	 * Returns the time the given toast is shown before it fades out. 
+	 * Used by the popups whenever the fade out is scheduled (@see {@link ToastDisplayTimePolicy}).
+	 * 
+	 * @param toast the toast
+	 * 
+	 * @return the display time in milliseconds
+	 */
+	public static int getDisplayTime(Toast toast) {
+		return ToastManager.getInstance().getDisplayTime(toast);
+	}
+	
+	/**
+	 * @return the callback notified about expired toasts or <code>null</code>
+	 */
+	public static Consumer<Toast> getExpiryCallback() {
+		return ToastManager.getInstance().getExpiryCallback();
+	}
+	
+	/**
+	 * Sets the callback which is notified about toasts which were dropped because they were still pending after their deadline 
+	 * (@see {@link Toast#getDeadline()}). The callback is executed in the popup display thread or in the thread of the periodic expiry sweep.
+	 * 
+	 * @param expiryCallback the callback or <code>null</code>
+	 */
+	public static void setExpiryCallback(Consumer<Toast> expiryCallback) {
+		ToastManager.getInstance().setExpiryCallback(expiryCallback);
+	}
+	
+	/**
+	 * @return the tracer which records the stages of sampled toasts (disabled by default)
+	 */
+	public static ToastTracer getTracer() {
+		return TRACER;
+	}
+	
+	/**
+	 * @return the runtime metrics of the toaster
+	 */
+	public static ToastMetrics getMetrics() {
+		return ToastManager.getInstance().getMetrics();
+	}
+	
+	/**
+	 * @return the journal of the unfinished toasts or <code>null</code> if no journal is used
+	 */
+	public static ToastJournal getJournal() {
+		return ToastManager.getInstance().getJournal();
+	}
+	
+	/**
+	 * Sets the journal which records the toasts until they are closed. 
+	 * The unfinished toasts of a previous run can be shown again with {@link ToastJournal#replay(ToastToolkit)}.
+	 * By default no journal is used.
+	 * 
+	 * @param journal the journal or <code>null</code> to disable the journal
+	 */
+	public static void setJournal(ToastJournal journal) {
+		ToastManager.getInstance().setJournal(journal);
+	}
+	
+	/**
+	 * The popups are read while holding the lock of the toast manager (@see {@link #isEmpty()}).
+	 * 
 	 * @return current visible popups.
 	 */
-	public static synchronized ToastPopup[] getVisiblePopups() {
+	public static ToastPopup[] getVisiblePopups() {
 		return ToastManager.getInstance().getVisiblePopups();
 	}
 	
@@ -22,6 +22,7 @@ import java.util.Base64;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.swt.SWTException;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.widgets.Display;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -76,7 +77,7 @@ public class ToasterUtils {
 			String sValue = (String)value;
 			
 			// handle base64
-			if (sValue.matches("^([A-Za-z0-9+/]{4})*([A-Za-z0-9+/]{3}=|[A-Za-z0-9+/]{2}==)?$")) { //$NON-NLS-1$
+			if (isBase64(sValue)) {
 				try {
 					return ToasterUtils.fromBase64(sValue);
 				} catch (SWTException e) {
@@ -96,4 +97,61 @@ public class ToasterUtils {
 		}
 		return null;
 	}	
+	
+	/**
+	 * Decodes the given value without any display, so this method can be called in any thread.
+	 * Supported are byte arrays, input streams, base64 encoded strings and {@link ImageDescriptor}s.
+	 * 
+	 * @param value the value
+	 * 
+	 * @return the corresponding {@link ImageData} or <code>null</code> if the value can not be decoded without a display
+	 * @throws SWTException if the image could not be decoded
+	 */
+	public static ImageData toImageData(Object value) throws SWTException {
+		if (value instanceof ImageDescriptor) {
+			return ((ImageDescriptor)value).getImageData(100);
+		}
+		if (value instanceof byte[]) {
+			return new ImageData(new ByteArrayInputStream((byte[])value));
+		}
+		if (value instanceof InputStream) {
+			return new ImageData((InputStream)value);
+		}
+		if (value instanceof String && isBase64((String)value)) {
+			byte[] imageContent = Base64.getDecoder().decode(((String)value).getBytes());
+			return new ImageData(new ByteArrayInputStream(imageContent));
+		}
+		return null;
+	}
+	
+	/**
+	 * @param value the value
+	 * 
+	 * @return <code>true</code> if the given value can be decoded by {@link #toImageData(Object)}, 
+	 * 		i.e. strings only if they are base64 encoded
+	 */
+	public static boolean canDecodeWithoutDisplay(Object value) {
+		return value instanceof ImageDescriptor || value instanceof byte[] || value instanceof InputStream 
+				|| (value instanceof String && isBase64((String)value));
+	}
+	
+	/**
+	 * Checks the base64 alphabet and padding in one pass without a regular expression, 
+	 * because the check is also done in the thread submitting the toast (@see {@link #canDecodeWithoutDisplay(Object)}).
+	 */
+	private static boolean isBase64(String value) {
+		int length = value.length();
+		if (length == 0 || length % 4 != 0) {
+			return false;
+		}
+		int padding = value.charAt(length - 1) != '=' ? 0 : value.charAt(length - 2) != '=' ? 1 : 2;
+		for (int i = 0; i < length - padding; i++) {
+			char c = value.charAt(i);
+			if (!((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '+' || c == '/')) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
 }
@@ -0,0 +1,259 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.daemon;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.github.dogla.toaster.Toast;
+import io.github.dogla.toaster.ToastPosition;
+
+/**
+ * The framed binary protocol between the {@link ToastDaemon} and the {@link ToastDaemonToolkit}.
+ * <p>
+ * Frame: <code>int length, byte type, payload</code> where the length covers the type and the payload 
+ * and must not exceed {@link #MAX_FRAME_SIZE}.<br>
+ * Submit payload: <code>int count, toast...</code><br>
+ * Ack payload: <code>int count</code> of the accepted toasts<br>
+ * Toast: <code>string id, string title, string message, string details, icon, byte position, byte sticky, int displayTime, long deadline</code><br>
+ * String: <code>int length</code> (-1 for <code>null</code>) followed by the UTF-8 bytes<br>
+ * Icon: <code>byte kind</code> (0 = none, 1 = string, 2 = bytes) followed by a string or <code>int length, bytes</code>
+ * </p>
+ *
+ * @author Dominik
+ */
+/*package*/ final class ToastCodec {
+	
+	/*package*/ static final byte TYPE_SUBMIT = 1;
+	/*package*/ static final byte TYPE_ACK = 2;
+	/*package*/ static final int HEADER_SIZE = 4;
+	/*package*/ static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+	// type and toast count of a submit frame
+	/*package*/ static final int SUBMIT_OVERHEAD = 1 + 4;
+	/*package*/ static final int ACK_SIZE = HEADER_SIZE + 1 + 4;
+	
+	private static final byte ICON_NONE = 0;
+	private static final byte ICON_STRING = 1;
+	private static final byte ICON_BYTES = 2;
+	private static final ToastPosition[] POSITIONS = ToastPosition.values();
+	
+	private ToastCodec() {
+		// utility class
+	}
+	
+	/**
+	 * Computes the number of bytes of the given toast inside a submit frame without encoding it.
+	 * 
+	 * @param toast the toast
+	 * 
+	 * @return the encoded size
+	 */
+	/*package*/ static long sizeOf(Toast toast) {
+		Object icon = toast.getIcon();
+		long size = 4L * 4 + utf8Length(toast.getId()) + utf8Length(toast.getTitle()) + utf8Length(toast.getMessage()) + utf8Length(toast.getDetails());
+		if (icon instanceof String) {
+			size += 4 + utf8Length((String) icon);
+		} else if (icon instanceof byte[]) {
+			size += 4 + ((byte[]) icon).length;
+		}
+		// icon kind, position, sticky, display time, deadline
+		return size + 1 + 1 + 1 + 4 + 8;
+	}
+	
+	/**
+	 * Encodes a submit frame.
+	 * 
+	 * @param toasts the toasts
+	 * 
+	 * @return the frame ready to be written
+	 * 
+	 * @throws IllegalArgumentException if the frame would exceed {@link #MAX_FRAME_SIZE}
+	 */
+	/*package*/ static ByteBuffer encodeSubmit(List<Toast> toasts) {
+		List<byte[][]> encoded = new ArrayList<>(toasts.size());
+		long length = SUBMIT_OVERHEAD;
+		for (Toast toast : toasts) {
+			Object icon = toast.getIcon();
+			byte[] iconBytes = icon instanceof String ? bytes((String) icon) : icon instanceof byte[] ? (byte[]) icon : null;
+			byte[][] fields = { bytes(toast.getId()), bytes(toast.getTitle()), bytes(toast.getMessage()), bytes(toast.getDetails()), iconBytes };
+			encoded.add(fields);
+			for (int f = 0; f < 4; f++) {
+				length += 4 + (fields[f] != null ? fields[f].length : 0);
+			}
+			// icon kind (+ icon), position, sticky, display time, deadline
+			length += 1 + (iconBytes != null ? 4 + iconBytes.length : 0) + 1 + 1 + 4 + 8;
+			if (length > MAX_FRAME_SIZE) {
+				throw new IllegalArgumentException("Submit frame exceeds the maximum frame size: " + length); //$NON-NLS-1$
+			}
+		}
+		ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + (int) length);
+		frame.putInt((int) length);
+		frame.put(TYPE_SUBMIT);
+		frame.putInt(toasts.size());
+		for (int i = 0; i < toasts.size(); i++) {
+			Toast toast = toasts.get(i);
+			byte[][] fields = encoded.get(i);
+			for (int f = 0; f < 4; f++) {
+				putBytes(frame, fields[f]);
+			}
+			Object icon = toast.getIcon();
+			if (fields[4] == null) {
+				frame.put(ICON_NONE);
+			} else {
+				frame.put(icon instanceof String ? ICON_STRING : ICON_BYTES);
+				putBytes(frame, fields[4]);
+			}
+			frame.put((byte) toast.getPosition().ordinal());
+			frame.put((byte) (toast.isSticky() ? 1 : 0));
+			frame.putInt(toast.getDisplayTime());
+			// absolute time > the daemon runs on the same host
+			frame.putLong(toast.getDeadline());
+		}
+		frame.flip();
+		return frame;
+	}
+	
+	/**
+	 * Decodes the payload of a submit frame.
+	 * 
+	 * @param payload the payload positioned behind the frame type
+	 * 
+	 * @return the toasts
+	 * 
+	 * @throws IOException if the payload is malformed
+	 */
+	/*package*/ static List<Toast> decodeSubmit(ByteBuffer payload) throws IOException {
+		try {
+			int count = payload.getInt();
+			if (count < 0 || count > payload.remaining()) {
+				throw new IOException("Invalid toast count: " + count); //$NON-NLS-1$
+			}
+			List<Toast> toasts = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				String id = getString(payload);
+				String title = getString(payload);
+				String message = getString(payload);
+				String details = getString(payload);
+				Object icon = null;
+				byte iconKind = payload.get();
+				if (iconKind == ICON_STRING) {
+					icon = getString(payload);
+				} else if (iconKind == ICON_BYTES) {
+					icon = getBytes(payload);
+				}
+				ToastPosition position = POSITIONS[payload.get()];
+				boolean sticky = payload.get() != 0;
+				int displayTime = payload.getInt();
+				long deadline = payload.getLong();
+				toasts.add(Toast.builder().id(id).title(title).message(message).details(details).icon(icon)
+						.position(position).sticky(sticky).displayTime(displayTime).deadline(deadline).build());
+			}
+			return toasts;
+		} catch (RuntimeException e) {
+			throw new IOException("Malformed submit frame: " + e, e); //$NON-NLS-1$
+		}
+	}
+	
+	/**
+	 * @param count the number of accepted toasts
+	 * 
+	 * @return the ack frame ready to be written
+	 */
+	/*package*/ static ByteBuffer encodeAck(int count) {
+		ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + 1 + 4);
+		frame.putInt(1 + 4);
+		frame.put(TYPE_ACK);
+		frame.putInt(count);
+		frame.flip();
+		return frame;
+	}
+	
+	/**
+	 * Decodes an ack frame.
+	 * 
+	 * @param frame the complete frame including the header
+	 * 
+	 * @return the number of accepted toasts
+	 * 
+	 * @throws IOException if the frame is no ack frame
+	 */
+	/*package*/ static int decodeAck(ByteBuffer frame) throws IOException {
+		int length = frame.getInt();
+		byte type = frame.get();
+		if (length != ACK_SIZE - HEADER_SIZE || type != TYPE_ACK) {
+			throw new IOException("Unexpected ack frame: length " + length + ", type " + type); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return frame.getInt();
+	}
+	
+	private static byte[] bytes(String value) {
+		return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+	}
+	
+	private static void putBytes(ByteBuffer buffer, byte[] value) {
+		if (value == null) {
+			buffer.putInt(-1);
+		} else {
+			buffer.putInt(value.length);
+			buffer.put(value);
+		}
+	}
+	
+	private static byte[] getBytes(ByteBuffer buffer) throws IOException {
+		int length = buffer.getInt();
+		if (length < 0) {
+			return null;
+		}
+		// do not allocate a huge array for a corrupt length
+		if (length > buffer.remaining()) {
+			throw new IOException("Invalid length: " + length + " > " + buffer.remaining()); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		byte[] value = new byte[length];
+		buffer.get(value);
+		return value;
+	}
+	
+	private static long utf8Length(String value) {
+		if (value == null) {
+			return 0;
+		}
+		long length = 0;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				length++;
+			} else if (c < 0x800) {
+				length += 2;
+			} else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+				length += 4;
+				i++;
+			} else {
+				// unpaired surrogates are replaced by '?'
+				length += Character.isSurrogate(c) ? 1 : 3;
+			}
+		}
+		return length;
+	}
+	
+	private static String getString(ByteBuffer buffer) throws IOException {
+		byte[] value = getBytes(buffer);
+		return value != null ? new String(value, StandardCharsets.UTF_8) : null;
+	}
+	
+}
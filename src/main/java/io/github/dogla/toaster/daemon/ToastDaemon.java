@@ -0,0 +1,260 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.daemon;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.dogla.toaster.Toast;
+import io.github.dogla.toaster.Toaster;
+import io.github.dogla.toaster.ui.ToastToolkit;
+
+/**
+ * A daemon which owns the toolkit and shows the toasts submitted by other processes.
+ * <p>
+ * The daemon accepts connections on a loopback port. The clients ({@link ToastDaemonToolkit}) send batches of toasts
+ * in the framed binary protocol of the {@link ToastCodec}, each batch is acknowledged after it was submitted to the toolkit.
+ * All connections are handled by a single selector thread, the toasts are submitted asynchronously (@see {@link Toaster#submit(ToastToolkit, Toast)}).
+ * </p>
+ *
+ * @author Dominik
+ */
+public class ToastDaemon implements AutoCloseable {
+	
+	private static Logger logger = LoggerFactory.getLogger(ToastDaemon.class);
+	
+	/** The default port */
+	public static final int DEFAULT_PORT = 47123;
+	
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	private final ToastToolkit toolkit;
+	private final ServerSocketChannel serverChannel;
+	private final Selector selector;
+	private final Thread thread;
+	private final LongAdder receivedToasts = new LongAdder();
+	private volatile boolean running = true;
+	
+	/**
+	 * Starts the daemon on the default port.
+	 * 
+	 * @param toolkit the toolkit showing the toasts
+	 * 
+	 * @throws IOException if the daemon could not be started
+	 */
+	public ToastDaemon(ToastToolkit toolkit) throws IOException {
+		this(toolkit, DEFAULT_PORT);
+	}
+	
+	/**
+	 * Starts the daemon.
+	 * 
+	 * @param toolkit the toolkit showing the toasts
+	 * @param port the loopback port or 0 to use any free port (@see {@link #getPort()})
+	 * 
+	 * @throws IOException if the daemon could not be started
+	 */
+	public ToastDaemon(ToastToolkit toolkit, int port) throws IOException {
+		this.toolkit = toolkit;
+		this.selector = Selector.open();
+		this.serverChannel = ServerSocketChannel.open();
+		try {
+			serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+			serverChannel.configureBlocking(false);
+			serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+		} catch (IOException e) {
+			serverChannel.close();
+			selector.close();
+			throw e;
+		}
+		this.thread = new Thread(this::run, "Toaster Daemon Thread"); //$NON-NLS-1$
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+	
+	/**
+	 * @return the port of the daemon
+	 */
+	public int getPort() {
+		return serverChannel.socket().getLocalPort();
+	}
+	
+	/**
+	 * @return the number of toasts received from all clients
+	 */
+	public long getReceivedToasts() {
+		return receivedToasts.sum();
+	}
+	
+	private void run() {
+		try {
+			while (running) {
+				selector.select();
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					try {
+						if (!key.isValid()) {
+							continue;
+						}
+						if (key.isAcceptable()) {
+							accept();
+						} else {
+							if (key.isReadable()) {
+								read(key);
+							}
+							if (key.isValid() && key.isWritable()) {
+								write(key);
+							}
+						}
+					} catch (IOException e) {
+						logger.debug("Client connection closed: {}", e.getMessage()); //$NON-NLS-1$
+						close(key);
+					} catch (RuntimeException e) {
+						// e.g. a failed submit > only this connection is affected, the selector thread keeps running
+						logger.error("Client connection closed: {}", e.getMessage(), e); //$NON-NLS-1$
+						close(key);
+					}
+				}
+			}
+		} catch (IOException e) {
+			logger.error(e.getMessage(), e);
+		}
+	}
+	
+	private void accept() throws IOException {
+		SocketChannel channel = serverChannel.accept();
+		if (channel != null) {
+			channel.configureBlocking(false);
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, Boolean.TRUE);
+			channel.register(selector, SelectionKey.OP_READ, new Connection());
+			logger.debug("Client connected: {}", channel.getRemoteAddress()); //$NON-NLS-1$
+		}
+	}
+	
+	private void read(SelectionKey key) throws IOException {
+		SocketChannel channel = (SocketChannel) key.channel();
+		Connection connection = (Connection) key.attachment();
+		if (channel.read(connection.in) < 0) {
+			close(key);
+			return;
+		}
+		ByteBuffer in = connection.in;
+		in.flip();
+		while (in.remaining() >= ToastCodec.HEADER_SIZE) {
+			int length = in.getInt(in.position());
+			if (length <= 0 || length > ToastCodec.MAX_FRAME_SIZE) {
+				throw new IOException("Invalid frame length: " + length); //$NON-NLS-1$
+			}
+			if (in.remaining() < ToastCodec.HEADER_SIZE + length) {
+				break;
+			}
+			ByteBuffer frame = in.duplicate();
+			frame.position(in.position() + ToastCodec.HEADER_SIZE);
+			frame.limit(in.position() + ToastCodec.HEADER_SIZE + length);
+			in.position(frame.limit());
+			handle(frame, connection);
+		}
+		in.compact();
+		if (in.remaining() == 0) {
+			// frame larger than the buffer
+			ByteBuffer larger = ByteBuffer.allocate(in.capacity() * 2);
+			in.flip();
+			larger.put(in);
+			connection.in = larger;
+		}
+		write(key);
+	}
+	
+	private void handle(ByteBuffer frame, Connection connection) throws IOException {
+		byte type = frame.get();
+		if (type != ToastCodec.TYPE_SUBMIT) {
+			throw new IOException("Unexpected frame type: " + type); //$NON-NLS-1$
+		}
+		List<Toast> toasts = ToastCodec.decodeSubmit(frame);
+		for (Toast toast : toasts) {
+			Toaster.submit(toolkit, toast);
+		}
+		receivedToasts.add(toasts.size());
+		connection.out.add(ToastCodec.encodeAck(toasts.size()));
+	}
+	
+	private void write(SelectionKey key) throws IOException {
+		SocketChannel channel = (SocketChannel) key.channel();
+		Connection connection = (Connection) key.attachment();
+		while (!connection.out.isEmpty()) {
+			ByteBuffer frame = connection.out.peek();
+			channel.write(frame);
+			if (frame.hasRemaining()) {
+				// socket buffer full > continue if the channel is writable again
+				key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+				return;
+			}
+			connection.out.poll();
+		}
+		key.interestOps(SelectionKey.OP_READ);
+	}
+	
+	private static void close(SelectionKey key) {
+		key.cancel();
+		try {
+			key.channel().close();
+		} catch (IOException e) {
+			logger.debug(e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Stops the daemon and closes all client connections.
+	 */
+	@Override
+	public void close() throws IOException {
+		running = false;
+		selector.wakeup();
+		try {
+			thread.join(1000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		for (SelectionKey key : selector.keys()) {
+			close(key);
+		}
+		selector.close();
+		serverChannel.close();
+	}
+	
+	private static class Connection {
+		private ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+		private final Queue<ByteBuffer> out = new ArrayDeque<>();
+	}
+	
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.daemon;
+
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Display;
+
+import io.github.dogla.toaster.Toast;
+import io.github.dogla.toaster.ui.ToastPopup;
+import io.github.dogla.toaster.ui.ToastPopupClosedCallback;
+
+/**
+ * A local placeholder of a toast forwarded to the {@link ToastDaemon}.
+ *
+ * @author Dominik
+ */
+/*package*/ class ToastDaemonPopup implements ToastPopup {
+	
+	private final ToastDaemonToolkit toolkit;
+	private final Toast toast;
+	private final Rectangle popupArea;
+	private final int encodedSize;
+	private ToastPopupClosedCallback callback;
+	private boolean closed;
+	
+	/*package*/ ToastDaemonPopup(ToastDaemonToolkit toolkit, Toast toast, Rectangle popupArea, int encodedSize) {
+		this.toolkit = toolkit;
+		this.toast = toast;
+		this.popupArea = popupArea;
+		this.encodedSize = encodedSize;
+	}
+	
+	/**
+	 * @return the number of bytes of the toast inside a submit frame (see {@link ToastCodec#sizeOf(Toast)})
+	 */
+	/*package*/ int getEncodedSize() {
+		return encodedSize;
+	}
+
+	/**
+	 * @return always 0, the popup is shown by the daemon
+	 */
+	@Override
+	public int getWidth() {
+		return 0;
+	}
+
+	/**
+	 * @return always 0, the popup is shown by the daemon
+	 */
+	@Override
+	public int getHeight() {
+		return 0;
+	}
+
+	@Override
+	public void setLocation(int x, int y) {
+		// the location is computed by the daemon
+	}
+
+	@Override
+	public void show(ToastPopupClosedCallback closedCallback) {
+		this.callback = closedCallback;
+		toolkit.enqueue(this);
+	}
+
+	@Override
+	public Display getDisplay() {
+		return null;
+	}
+
+	@Override
+	public Toast getToast() {
+		return toast;
+	}
+
+	@Override
+	public Rectangle getPopupArea() {
+		return popupArea;
+	}
+
+	/**
+	 * Releases the local placeholder. The toast shown by the daemon is not affected.
+	 */
+	@Override
+	public void close() {
+		toolkit.syncExec(() -> {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			if (callback != null) {
+				callback.onClosed();
+			}
+		});
+	}
+	
+	/**
+	 * Releases the local placeholder because the toast could not be delivered to the daemon.
+	 * 
+	 * @param throwable the cause
+	 */
+	/*package*/ void fail(Throwable throwable) {
+		toolkit.syncExec(() -> {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			if (callback != null) {
+				callback.onFailed(throwable);
+			}
+		});
+	}
+
+}
@@ -0,0 +1,261 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.daemon;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Display;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.dogla.toaster.Toast;
+import io.github.dogla.toaster.ui.ToastPopup;
+import io.github.dogla.toaster.ui.ToastToolkit;
+
+/**
+ * A toolkit which forwards the toasts to a {@link ToastDaemon} of another process.
+ * <p>
+ * The popups of this toolkit have no size and a virtually unlimited popup area, so they never occupy an area of the local toast manager.
+ * If a popup is shown its toast is queued and sent to the daemon by a background thread in batches of up to
+ * {@link #getMaxBatchSize()} toasts, which are cut earlier if the batch would exceed the maximum frame size of the protocol.
+ * Toasts which do not fit into a frame at all are rejected when their popup is created.
+ * The popups are closed after the daemon acknowledged the batch, i.e. the closed state of a toast handle 
+ * only means that the toast was delivered to the daemon. 
+ * If the connection fails or the toolkit is closed, the handles of the toasts which were not delivered yet fail
+ * and no further popups are accepted (see {@link #isOpen()}).
+ * Actions and icons which are neither strings nor byte arrays are not forwarded.
+ * </p>
+ *
+ * @author Dominik
+ */
+public class ToastDaemonToolkit implements ToastToolkit, AutoCloseable {
+	
+	private static Logger logger = LoggerFactory.getLogger(ToastDaemonToolkit.class);
+	
+	/** The default maximum number of toasts per batch */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+	
+	// virtually unlimited, so the local toast manager never queues toasts (even with predicted sizes)
+	private static final Rectangle POPUP_AREA = new Rectangle(0, 0, Integer.MAX_VALUE / 2, Integer.MAX_VALUE / 2);
+	private static final String CLOSED_MESSAGE = "The connection to the toast daemon is closed."; //$NON-NLS-1$
+	
+	private final Object lock = new Object();
+	private final SocketChannel channel;
+	private final BlockingQueue<ToastDaemonPopup> queue = new LinkedBlockingQueue<>();
+	private final int maxBatchSize;
+	private final Thread sender;
+	// false after the toolkit was closed or the connection failed (guarded by lock)
+	private boolean open = true;
+	
+	/**
+	 * Connects to the daemon on the default port.
+	 * 
+	 * @throws IOException if the connection failed
+	 */
+	public ToastDaemonToolkit() throws IOException {
+		this(ToastDaemon.DEFAULT_PORT, DEFAULT_MAX_BATCH_SIZE);
+	}
+	
+	/**
+	 * Connects to the daemon.
+	 * 
+	 * @param port the loopback port of the daemon
+	 * @param maxBatchSize the maximum number of toasts per batch
+	 * 
+	 * @throws IOException if the connection failed
+	 */
+	public ToastDaemonToolkit(int port, int maxBatchSize) throws IOException {
+		this.maxBatchSize = maxBatchSize;
+		this.channel = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+		this.channel.setOption(StandardSocketOptions.TCP_NODELAY, Boolean.TRUE);
+		this.sender = new Thread(this::send, "Toaster Daemon Client Thread"); //$NON-NLS-1$
+		this.sender.setDaemon(true);
+		this.sender.start();
+	}
+	
+	/**
+	 * @return the maximum number of toasts per batch
+	 */
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	/**
+	 * @return <code>false</code> if the toolkit was closed or the connection to the daemon failed
+	 */
+	public boolean isOpen() {
+		synchronized (lock) {
+			return open;
+		}
+	}
+
+	/**
+	 * @throws IllegalStateException if the toolkit was closed or the connection to the daemon failed
+	 * @throws IllegalArgumentException if the toast does not fit into a frame of the protocol (e.g. a huge icon)
+	 */
+	@Override
+	public ToastPopup createPopup(Toast toast, Rectangle popupArea) {
+		long encodedSize = ToastCodec.sizeOf(toast);
+		if (encodedSize > ToastCodec.MAX_FRAME_SIZE - ToastCodec.SUBMIT_OVERHEAD) {
+			throw new IllegalArgumentException("The toast exceeds the maximum frame size: " + encodedSize); //$NON-NLS-1$
+		}
+		synchronized (lock) {
+			if (!open) {
+				throw new IllegalStateException(CLOSED_MESSAGE);
+			}
+			return new ToastDaemonPopup(this, toast, popupArea, (int) encodedSize);
+		}
+	}
+
+	@Override
+	public Rectangle getPopupArea() {
+		return POPUP_AREA;
+	}
+
+	/**
+	 * @return always <code>null</code> because this toolkit does not use any display
+	 */
+	@Override
+	public Display getPopupDisplay() {
+		return null;
+	}
+	
+	@Override
+	public void syncExec(Runnable runnable) {
+		synchronized (lock) {
+			runnable.run();
+		}
+	}
+	
+	@Override
+	public void asyncExec(Runnable runnable) {
+		synchronized (lock) {
+			runnable.run();
+		}
+	}
+	
+	/*package*/ void enqueue(ToastDaemonPopup popup) {
+		synchronized (lock) {
+			if (open) {
+				queue.add(popup);
+				return;
+			}
+		}
+		// the connection failed after the popup was created > the toast can not be delivered anymore
+		popup.fail(new IllegalStateException(CLOSED_MESSAGE));
+	}
+	
+	private void send() {
+		List<ToastDaemonPopup> batch = new ArrayList<>(maxBatchSize);
+		List<Toast> toasts = new ArrayList<>(maxBatchSize);
+		ByteBuffer ack = ByteBuffer.allocate(ToastCodec.ACK_SIZE);
+		// the first popup of the next batch if it did not fit into the frame of the current one
+		ToastDaemonPopup next = null;
+		Exception failure = null;
+		try {
+			while (true) {
+				ToastDaemonPopup popup = next != null ? next : queue.take();
+				next = null;
+				long frameSize = ToastCodec.SUBMIT_OVERHEAD;
+				while (popup != null) {
+					batch.add(popup);
+					toasts.add(popup.getToast());
+					frameSize += popup.getEncodedSize();
+					popup = batch.size() < maxBatchSize ? queue.poll() : null;
+					if (popup != null && frameSize + popup.getEncodedSize() > ToastCodec.MAX_FRAME_SIZE) {
+						next = popup;
+						popup = null;
+					}
+				}
+				ByteBuffer frame = ToastCodec.encodeSubmit(toasts);
+				while (frame.hasRemaining()) {
+					channel.write(frame);
+				}
+				ack.clear();
+				while (ack.hasRemaining()) {
+					if (channel.read(ack) < 0) {
+						throw new IOException("Connection closed by the daemon."); //$NON-NLS-1$
+					}
+				}
+				ack.flip();
+				int count = ToastCodec.decodeAck(ack);
+				if (count != batch.size()) {
+					throw new IOException("The daemon acknowledged " + count + " of " + batch.size() + " toasts."); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				}
+				// the toasts were delivered > release the local popups
+				for (ToastDaemonPopup delivered : batch) {
+					delivered.close();
+				}
+				batch.clear();
+				toasts.clear();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException | RuntimeException e) {
+			failure = e;
+			if (isOpen()) {
+				logger.error("Toasts could not be sent to the daemon: {}", e.getMessage(), e); //$NON-NLS-1$
+			}
+		} finally {
+			// no further popups are accepted > fail the in-flight and queued popups, so their handles are completed
+			List<ToastDaemonPopup> undelivered;
+			synchronized (lock) {
+				open = false;
+				undelivered = new ArrayList<>(batch);
+				if (next != null) {
+					undelivered.add(next);
+				}
+				queue.drainTo(undelivered);
+			}
+			try {
+				channel.close();
+			} catch (IOException e) {
+				logger.debug("Connection could not be closed: {}", e.getMessage(), e); //$NON-NLS-1$
+			}
+			if (!undelivered.isEmpty()) {
+				logger.warn("{} toasts were not delivered to the daemon.", undelivered.size()); //$NON-NLS-1$
+			}
+			for (ToastDaemonPopup popup : undelivered) {
+				// the toasts of the unacknowledged batch may have been shown by the daemon anyway
+				popup.fail(new IOException("The toast was not delivered to the daemon.", failure)); //$NON-NLS-1$
+			}
+		}
+	}
+	
+	/**
+	 * Closes the connection to the daemon. No further popups are accepted and the handles of the toasts 
+	 * which were not delivered yet are failed by the sender thread.
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized (lock) {
+			open = false;
+		}
+		sender.interrupt();
+		channel.close();
+	}
+
+}
@@ -0,0 +1,266 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.layout;
+
+import java.util.Arrays;
+
+/**
+ * The placement engine for toasts stacked along one screen edge.
+ * <p>
+ * This class works on primitive int coordinates only and has no dependencies to SWT.
+ * Every occupied area is registered as a slot and identified by a slot id, so equal areas
+ * never collapse and can always be released separately. Searching and allocating
+ * slots does not allocate any objects as long as the internal arrays are large enough.
+ * </p>
+ * <p>
+ * Instances of this class are not thread safe.
+ * </p>
+ *
+ * @author Dominik
+ */
+public class SlotLayout {
+	
+	/** The value returned by {@link #findY(int, int, int, int, int)} if no free area was found. */
+	public static final int NO_SPACE = Integer.MIN_VALUE;
+	
+	private static final int INITIAL_CAPACITY = 16;
+	
+	private final boolean bottomUp;
+	
+	// slot attributes indexed by slot id
+	private int[] slotX = new int[INITIAL_CAPACITY];
+	private int[] slotY = new int[INITIAL_CAPACITY];
+	private int[] slotWidth = new int[INITIAL_CAPACITY];
+	private int[] slotHeight = new int[INITIAL_CAPACITY];
+	// index of the slot inside the active slot list or -1 if the slot is free
+	private int[] activeIndex = new int[INITIAL_CAPACITY];
+	
+	// dense list of the active slot ids
+	private int[] activeSlots = new int[INITIAL_CAPACITY];
+	private int activeCount;
+	
+	// released slot ids which can be reused
+	private int[] freeSlots = new int[INITIAL_CAPACITY];
+	private int freeCount;
+	private int nextSlot;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param bottomUp <code>true</code> if new areas should be searched from the bottom to the top,
+	 * 		<code>false</code> if new areas should be searched from the top to the bottom
+	 */
+	public SlotLayout(boolean bottomUp) {
+		this.bottomUp = bottomUp;
+		Arrays.fill(activeIndex, -1);
+	}
+	
+	/**
+	 * @return <code>true</code> if new areas are searched from the bottom to the top
+	 */
+	public boolean isBottomUp() {
+		return bottomUp;
+	}
+	
+	/**
+	 * Searches the y coordinate of the first free area with the given dimension at the given x coordinate.
+	 * The search starts at <code>maxY</code> (bottom up) or <code>minY</code> (top down).
+	 * The start position is returned if it is free, even if <code>maxY</code> is less than <code>minY</code>
+	 * (i.e. the area is higher than the available space), so such an area is placed at the edge
+	 * as soon as the start position is free instead of never.
+	 * 
+	 * @param x the x coordinate of the area
+	 * @param width the width of the area
+	 * @param height the height of the area
+	 * @param minY the minimum y coordinate of the area
+	 * @param maxY the maximum y coordinate of the area
+	 * 
+	 * @return the y coordinate of the free area or {@link #NO_SPACE} if no free area was found
+	 */
+	public int findY(int x, int width, int height, int minY, int maxY) {
+		int y = bottomUp ? maxY : minY;
+		if (maxY < minY) {
+			// never fits completely > only the start position is possible
+			return isOccupied(x, y, width, height) ? NO_SPACE : y;
+		}
+		while (y >= minY && y <= maxY) {
+			boolean intersects = false;
+			int nextY = y;
+			for (int i = 0; i < activeCount; i++) {
+				int slot = activeSlots[i];
+				if (intersects(slot, x, y, width, height)) {
+					intersects = true;
+					// every position between the current one and the edge of the intersecting
+					// area intersects as well > continue the search behind that edge
+					if (bottomUp) {
+						nextY = Math.min(nextY, slotY[slot] - height);
+					} else {
+						nextY = Math.max(nextY, slotY[slot] + slotHeight[slot]);
+					}
+				}
+			}
+			if (!intersects) {
+				return y;
+			}
+			y = nextY;
+		}
+		return NO_SPACE;
+	}
+	
+	/**
+	 * Checks if the given area intersects any occupied slot.
+	 * 
+	 * @param x the x coordinate of the area
+	 * @param y the y coordinate of the area
+	 * @param width the width of the area
+	 * @param height the height of the area
+	 * 
+	 * @return <code>true</code> if the given area intersects any occupied slot
+	 */
+	public boolean isOccupied(int x, int y, int width, int height) {
+		for (int i = 0; i < activeCount; i++) {
+			if (intersects(activeSlots[i], x, y, width, height)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private boolean intersects(int slot, int x, int y, int width, int height) {
+		return x < slotX[slot] + slotWidth[slot]
+				&& y < slotY[slot] + slotHeight[slot]
+				&& x + width > slotX[slot]
+				&& y + height > slotY[slot];
+	}
+	
+	/**
+	 * Occupies the given area.
+	 * 
+	 * @param x the x coordinate of the area
+	 * @param y the y coordinate of the area
+	 * @param width the width of the area
+	 * @param height the height of the area
+	 * 
+	 * @return the id of the slot
+	 */
+	public int allocate(int x, int y, int width, int height) {
+		int slot;
+		if (freeCount > 0) {
+			slot = freeSlots[--freeCount];
+		} else {
+			slot = nextSlot++;
+			if (slot == slotX.length) {
+				grow();
+			}
+		}
+		slotX[slot] = x;
+		slotY[slot] = y;
+		slotWidth[slot] = width;
+		slotHeight[slot] = height;
+		activeIndex[slot] = activeCount;
+		activeSlots[activeCount++] = slot;
+		return slot;
+	}
+	
+	/**
+	 * Releases the given slot.
+	 * 
+	 * @param slot the id of the slot
+	 * 
+	 * @return <code>true</code> if the slot was released, <code>false</code> if the slot was not occupied
+	 */
+	public boolean release(int slot) {
+		if (slot < 0 || slot >= nextSlot || activeIndex[slot] < 0) {
+			return false;
+		}
+		// move the last active slot to the position of the released one
+		int index = activeIndex[slot];
+		int lastSlot = activeSlots[--activeCount];
+		activeSlots[index] = lastSlot;
+		activeIndex[lastSlot] = index;
+		activeIndex[slot] = -1;
+		freeSlots[freeCount++] = slot;
+		return true;
+	}
+	
+	private void grow() {
+		int capacity = slotX.length * 2;
+		slotX = Arrays.copyOf(slotX, capacity);
+		slotY = Arrays.copyOf(slotY, capacity);
+		slotWidth = Arrays.copyOf(slotWidth, capacity);
+		slotHeight = Arrays.copyOf(slotHeight, capacity);
+		int oldCapacity = activeIndex.length;
+		activeIndex = Arrays.copyOf(activeIndex, capacity);
+		Arrays.fill(activeIndex, oldCapacity, capacity, -1);
+		activeSlots = Arrays.copyOf(activeSlots, capacity);
+		freeSlots = Arrays.copyOf(freeSlots, capacity);
+	}
+	
+	/**
+	 * @param slot the id of the slot
+	 * @return <code>true</code> if the given slot is occupied
+	 */
+	public boolean isActive(int slot) {
+		return slot >= 0 && slot < nextSlot && activeIndex[slot] >= 0;
+	}
+	
+	/**
+	 * @param slot the id of the slot
+	 * @return the x coordinate of the slot
+	 */
+	public int getX(int slot) {
+		return slotX[slot];
+	}
+	
+	/**
+	 * @param slot the id of the slot
+	 * @return the y coordinate of the slot
+	 */
+	public int getY(int slot) {
+		return slotY[slot];
+	}
+	
+	/**
+	 * @param slot the id of the slot
+	 * @return the width of the slot
+	 */
+	public int getWidth(int slot) {
+		return slotWidth[slot];
+	}
+	
+	/**
+	 * @param slot the id of the slot
+	 * @return the height of the slot
+	 */
+	public int getHeight(int slot) {
+		return slotHeight[slot];
+	}
+	
+	/**
+	 * @return the number of occupied slots
+	 */
+	public int size() {
+		return activeCount;
+	}
+	
+	/**
+	 * @return <code>true</code> if no slot is occupied
+	 */
+	public boolean isEmpty() {
+		return activeCount == 0;
+	}
+	
+}
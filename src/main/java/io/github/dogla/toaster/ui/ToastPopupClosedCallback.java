@@ -15,6 +15,8 @@
  */
 package io.github.dogla.toaster.ui;
 
+import io.github.dogla.toaster.ToastAction;
+
 /**
  * The 'popup closed' callback.
  *
@@ -26,5 +28,25 @@ public interface ToastPopupClosedCallback {
 	 * Called after the popup has been closed.
 	 */
 	public void onClosed();
+	
+	/**
+	 * Called instead of {@link #onClosed()} if the popup was released without showing its toast,
+	 * e.g. because a toolkit forwarding the toasts lost its connection.
+	 * 
+	 * @param throwable the cause
+	 */
+	public default void onFailed(Throwable throwable) {
+		onClosed();
+	}
+	
+	/**
+	 * Called if an action of the popup was selected by the user.
+	 * Popups have to call this method before the popup is closed by the action.
+	 * 
+	 * @param action the selected action
+	 */
+	public default void onActionSelected(ToastAction action) {
+		// nothing by default
+	}
 
 }
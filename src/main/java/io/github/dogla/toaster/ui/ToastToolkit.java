@@ -15,10 +15,14 @@
  */
 package io.github.dogla.toaster.ui;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.widgets.Display;
 
 import io.github.dogla.toaster.Toast;
+import io.github.dogla.toaster.ToastActionExecutor;
 
 /**
  * The toast UI toolkit.
@@ -37,6 +41,27 @@ public interface ToastToolkit {
 	 */
 	public ToastPopup createPopup(Toast toast, Rectangle popupArea);
 
+	/**
+	 * Prepares the given toast before it is passed to the popup display thread, 
+	 * e.g. by decoding its icon in a worker thread.
+	 * The returned future should not complete exceptionally. If it does, the toast is not shown and 
+	 * its handle is completed exceptionally (@see {@link io.github.dogla.toaster.ToastHandle}).
+	 * 
+	 * @param toast the toast
+	 * 
+	 * @return the future completed after the toast was prepared
+	 */
+	public default CompletableFuture<Void> prepare(Toast toast) {
+		return CompletableFuture.completedFuture(null);
+	}
+
+	/**
+	 * @return the executor used by the popups to execute selected actions
+	 */
+	public default ToastActionExecutor getActionExecutor() {
+		return ToastActionExecutor.getDefault();
+	}
+
 	/**
 	 * Returns the area where the popup can be displayed.
 	 * For example this could be the client area of the primary monitor or the client area of the monitor where the current application is displayed.
@@ -50,5 +75,37 @@ public interface ToastToolkit {
 	 * @return the display for the popups
 	 */
 	public Display getPopupDisplay();
+	
+	/**
+	 * Executes the given runnable in the popup display thread and waits until it is finished.
+	 * Toolkits without an SWT display (e.g. headless toolkits) have to override this method.
+	 * 
+	 * @param runnable the runnable
+	 */
+	public default void syncExec(Runnable runnable) {
+		getPopupDisplay().syncExec(runnable);
+	}
+	
+	/**
+	 * Executes the given runnable in the popup display thread without waiting for it.
+	 * Toolkits without an SWT display (e.g. headless toolkits) have to override this method.
+	 * 
+	 * @param runnable the runnable
+	 */
+	public default void asyncExec(Runnable runnable) {
+		getPopupDisplay().asyncExec(runnable);
+	}
+	
+	/**
+	 * Executes the given runnable in the popup display thread without waiting for it.
+	 * If the runnable can not be executed, the failure is either thrown to the caller or, if it is only detected 
+	 * later (e.g. the display of the toolkit could not be created), passed to the given failure handler.
+	 * 
+	 * @param runnable the runnable
+	 * @param failureHandler called if the runnable can not be executed after this method has returned
+	 */
+	public default void asyncExec(Runnable runnable, Consumer<Throwable> failureHandler) {
+		asyncExec(runnable);
+	}
 
 }
@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.ui.headless;
+
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Display;
+
+import io.github.dogla.toaster.Toast;
+import io.github.dogla.toaster.ToastAction;
+import io.github.dogla.toaster.ToastTrace.Stage;
+import io.github.dogla.toaster.ToastTracer;
+import io.github.dogla.toaster.ui.ToastPopup;
+import io.github.dogla.toaster.ui.ToastPopupClosedCallback;
+
+/**
+ * An in-memory popup with a synthetic size created by the {@link HeadlessToastToolkit}.
+ *
+ * @author Dominik
+ */
+public class HeadlessToastPopup implements ToastPopup {
+	
+	private final HeadlessToastToolkit toolkit;
+	private final Toast toast;
+	private final Rectangle popupArea;
+	private final int width;
+	private final int height;
+	private int x;
+	private int y;
+	private ToastPopupClosedCallback callback;
+	private boolean closed;
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param toolkit the toolkit
+	 * @param toast the toast
+	 * @param popupArea the popup area
+	 * @param width the synthetic width
+	 * @param height the synthetic height
+	 */
+	protected HeadlessToastPopup(HeadlessToastToolkit toolkit, Toast toast, Rectangle popupArea, int width, int height) {
+		this.toolkit = toolkit;
+		this.toast = toast;
+		this.popupArea = popupArea;
+		this.width = width;
+		this.height = height;
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+	
+	/**
+	 * @return the x coordinate
+	 */
+	public int getX() {
+		return x;
+	}
+	
+	/**
+	 * @return the y coordinate
+	 */
+	public int getY() {
+		return y;
+	}
+
+	@Override
+	public void setLocation(int x, int y) {
+		this.x = x;
+		this.y = y;
+	}
+
+	@Override
+	public void show(ToastPopupClosedCallback closedCallback) {
+		toolkit.syncExec(() -> {
+			this.callback = closedCallback;
+			// no animation > shown fully opaque at once
+			ToastTracer.mark(toast, Stage.FADE_IN_STARTED);
+			ToastTracer.mark(toast, Stage.OPAQUE);
+			toolkit.popupShown(this);
+		});
+	}
+	
+	/**
+	 * @return <code>true</code> if the popup is currently shown
+	 */
+	public boolean isVisible() {
+		return callback != null && !closed;
+	}
+
+	/**
+	 * @return always <code>null</code> because headless popups do not use any display
+	 */
+	@Override
+	public Display getDisplay() {
+		return null;
+	}
+
+	@Override
+	public Toast getToast() {
+		return toast;
+	}
+
+	@Override
+	public Rectangle getPopupArea() {
+		return popupArea;
+	}
+
+	@Override
+	public void close() {
+		toolkit.syncExec(() -> {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			if (callback != null) {
+				toolkit.popupClosed(this);
+				callback.onClosed();
+			}
+		});
+	}
+	
+	/**
+	 * Simulates the selection of the given action by the user.
+	 * The executable of the action is executed by the action executor of the toolkit.
+	 * 
+	 * @param action the action
+	 */
+	public void selectAction(ToastAction action) {
+		toolkit.syncExec(() -> {
+			if (closed) {
+				return;
+			}
+			if (callback != null) {
+				callback.onActionSelected(action);
+			}
+			if (action.isCloseToastOnExecute()) {
+				close();
+			}
+			toolkit.getActionExecutor().execute(toast, action);
+		});
+	}
+	
+	@Override
+	public String toString() {
+		return "HeadlessToastPopup [toast=" + toast + ", x=" + x + ", y=" + y + ", width=" + width + ", height=" + height + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+	}
+
+}
@@ -0,0 +1,250 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.ui.headless;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Display;
+
+import io.github.dogla.toaster.Toast;
+import io.github.dogla.toaster.ToastActionExecutor;
+import io.github.dogla.toaster.Toaster;
+import io.github.dogla.toaster.ui.ToastPopup;
+import io.github.dogla.toaster.ui.ToastToolkit;
+
+/**
+ * An in-memory toolkit without any SWT display.
+ * <p>
+ * The popups of this toolkit have synthetic sizes and are only closed if {@link ToastPopup#close()}
+ * (or one of the close methods of this toolkit) is called, or after their display time if auto close is enabled
+ * (@see {@link #setAutoClose(boolean)}). All runnables are executed directly in
+ * the calling thread while holding the toolkit lock, which acts as the "display thread" of this toolkit.
+ * This allows to run the whole submission, queueing and placement pipeline in tests and benchmarks.
+ * </p>
+ *
+ * @author Dominik
+ */
+public class HeadlessToastToolkit implements ToastToolkit {
+	
+	/** The default popup height */
+	public static final int DEFAULT_POPUP_HEIGHT = 100;
+	
+	private final Object lock = new Object();
+	private final Rectangle popupArea;
+	private ToIntFunction<Toast> widthFunction = Toast::getMaxWidth;
+	private ToIntFunction<Toast> heightFunction = toast -> DEFAULT_POPUP_HEIGHT;
+	private final List<HeadlessToastPopup> visiblePopups = new ArrayList<>();
+	private long createdPopups;
+	private ToastActionExecutor actionExecutor = ToastActionExecutor.getDefault();
+	private ScheduledExecutorService closer;
+	
+	/**
+	 * Constructor using a popup area of 1920x1080 pixels.
+	 */
+	public HeadlessToastToolkit() {
+		this(new Rectangle(0, 0, 1920, 1080));
+	}
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param popupArea the area where the popups can appear
+	 */
+	public HeadlessToastToolkit(Rectangle popupArea) {
+		this.popupArea = popupArea;
+	}
+	
+	/**
+	 * Sets the functions used to compute the synthetic size of the popups.
+	 * 
+	 * @param widthFunction the function computing the popup width for a toast
+	 * @param heightFunction the function computing the popup height for a toast
+	 */
+	public void setPopupSize(ToIntFunction<Toast> widthFunction, ToIntFunction<Toast> heightFunction) {
+		synchronized (lock) {
+			this.widthFunction = widthFunction;
+			this.heightFunction = heightFunction;
+		}
+	}
+	
+	/**
+	 * Sets a fixed synthetic size for all popups.
+	 * 
+	 * @param width the popup width
+	 * @param height the popup height
+	 */
+	public void setPopupSize(int width, int height) {
+		setPopupSize(toast -> width, toast -> height);
+	}
+
+	/**
+	 * Enables or disables closing the popups after their display time like the real popups (@see {@link Toaster#getDisplayTime(Toast)}).
+	 * Sticky popups are never closed automatically. Popups shown before auto close was enabled are not affected.
+	 * 
+	 * @param autoClose <code>true</code> to close the popups after their display time
+	 */
+	public void setAutoClose(boolean autoClose) {
+		synchronized (lock) {
+			if (autoClose && closer == null) {
+				closer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+					Thread thread = new Thread(runnable, "Headless Toast Closer"); //$NON-NLS-1$
+					thread.setDaemon(true);
+					return thread;
+				});
+			} else if (!autoClose && closer != null) {
+				closer.shutdownNow();
+				closer = null;
+			}
+		}
+	}
+	
+	/**
+	 * @return <code>true</code> if the popups are closed after their display time
+	 */
+	public boolean isAutoClose() {
+		synchronized (lock) {
+			return closer != null;
+		}
+	}
+
+	/**
+	 * Sets the executor used to execute selected actions (@see {@link HeadlessToastPopup#selectAction(io.github.dogla.toaster.ToastAction)}).
+	 * 
+	 * @param actionExecutor the action executor
+	 */
+	public void setActionExecutor(ToastActionExecutor actionExecutor) {
+		this.actionExecutor = actionExecutor;
+	}
+	
+	@Override
+	public ToastActionExecutor getActionExecutor() {
+		return actionExecutor;
+	}
+
+	@Override
+	public ToastPopup createPopup(Toast toast, Rectangle area) {
+		synchronized (lock) {
+			createdPopups++;
+			return new HeadlessToastPopup(this, toast, area, widthFunction.applyAsInt(toast), heightFunction.applyAsInt(toast));
+		}
+	}
+
+	@Override
+	public Rectangle getPopupArea() {
+		return popupArea;
+	}
+
+	/**
+	 * @return always <code>null</code> because this toolkit does not use any display
+	 */
+	@Override
+	public Display getPopupDisplay() {
+		return null;
+	}
+	
+	@Override
+	public void syncExec(Runnable runnable) {
+		synchronized (lock) {
+			runnable.run();
+		}
+	}
+	
+	@Override
+	public void asyncExec(Runnable runnable) {
+		synchronized (lock) {
+			runnable.run();
+		}
+	}
+	
+	/**
+	 * @return the currently visible popups ordered by the time they were shown
+	 */
+	public HeadlessToastPopup[] getVisiblePopups() {
+		synchronized (lock) {
+			return visiblePopups.toArray(new HeadlessToastPopup[visiblePopups.size()]);
+		}
+	}
+	
+	/**
+	 * @return the number of currently visible popups
+	 */
+	public int getVisiblePopupCount() {
+		synchronized (lock) {
+			return visiblePopups.size();
+		}
+	}
+	
+	/**
+	 * @return the number of popups created by this toolkit
+	 */
+	public long getCreatedPopupCount() {
+		synchronized (lock) {
+			return createdPopups;
+		}
+	}
+	
+	/**
+	 * Closes the popup which is visible for the longest time.
+	 * 
+	 * @return <code>true</code> if a popup was closed, <code>false</code> if no popup was visible
+	 */
+	public boolean closeOldest() {
+		synchronized (lock) {
+			if (visiblePopups.isEmpty()) {
+				return false;
+			}
+			visiblePopups.get(0).close();
+			return true;
+		}
+	}
+	
+	/**
+	 * Closes all visible popups. Pending toasts which are shown while closing are closed as well.
+	 * 
+	 * @return the number of closed popups
+	 */
+	public int closeAll() {
+		synchronized (lock) {
+			int count = 0;
+			while (closeOldest()) {
+				count++;
+			}
+			return count;
+		}
+	}
+	
+	/*package*/ void popupShown(HeadlessToastPopup popup) {
+		synchronized (lock) {
+			visiblePopups.add(popup);
+			if (closer != null && !popup.getToast().isSticky()) {
+				closer.schedule(popup::close, Toaster.getDisplayTime(popup.getToast()), TimeUnit.MILLISECONDS);
+			}
+		}
+	}
+	
+	/*package*/ void popupClosed(HeadlessToastPopup popup) {
+		synchronized (lock) {
+			visiblePopups.remove(popup);
+		}
+	}
+	
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.ui.impl;
+
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.widgets.Display;
+
+import io.github.dogla.toaster.ToastColor;
+
+/**
+ * Caches the SWT colors of the toast colors by their packed value (@see {@link ToastColor#getRGB()}).
+ * <p>
+ * The cache is an open addressing table of primitive keys, so looking up a cached color (e.g. on every hover or paint) does not allocate.
+ * The cache must only be used by the display thread.
+ * </p>
+ *
+ * @author Dominik
+ */
+public class ToastColorCache {
+	
+	private static final int INITIAL_CAPACITY = 64;
+	
+	private final Display display;
+	private int[] keys = new int[INITIAL_CAPACITY];
+	private Color[] colors = new Color[INITIAL_CAPACITY];
+	private int size;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param display the display of the colors
+	 */
+	public ToastColorCache(Display display) {
+		this.display = display;
+	}
+	
+	/**
+	 * Returns the shared cache of the given display.
+	 * 
+	 * @param display the display
+	 * 
+	 * @return the cache
+	 */
+	public static ToastColorCache getInstance(Display display) {
+		ToastColorCache cache = (ToastColorCache) display.getData(ToastColorCache.class.getName());
+		if (cache == null) {
+			cache = new ToastColorCache(display);
+			display.setData(ToastColorCache.class.getName(), cache);
+		}
+		return cache;
+	}
+	
+	/**
+	 * @param color the toast color
+	 * 
+	 * @return the corresponding SWT color
+	 */
+	public Color getColor(ToastColor color) {
+		int rgb = color.getRGB();
+		int mask = keys.length - 1;
+		int index = indexOf(rgb, mask);
+		while (colors[index] != null) {
+			if (keys[index] == rgb) {
+				return colors[index];
+			}
+			index = (index + 1) & mask;
+		}
+		Color swtColor = new Color(display, color.getRed(), color.getGreen(), color.getBlue());
+		keys[index] = rgb;
+		colors[index] = swtColor;
+		if (++size > keys.length / 2) {
+			grow();
+		}
+		return swtColor;
+	}
+	
+	/**
+	 * @return the number of cached colors
+	 */
+	public int size() {
+		return size;
+	}
+	
+	private static int indexOf(int rgb, int mask) {
+		// use the well mixed upper bits of the product
+		return (rgb * 0x9E3779B1) >>> Integer.numberOfLeadingZeros(mask);
+	}
+	
+	private void grow() {
+		int[] oldKeys = keys;
+		Color[] oldColors = colors;
+		keys = new int[oldKeys.length * 2];
+		colors = new Color[oldColors.length * 2];
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldColors[i] != null) {
+				int index = indexOf(oldKeys[i], mask);
+				while (colors[index] != null) {
+					index = (index + 1) & mask;
+				}
+				keys[index] = oldKeys[i];
+				colors[index] = oldColors[i];
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,303 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.ui.impl;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.ImageData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.dogla.toaster.Toast;
+import io.github.dogla.toaster.ToasterUtils;
+
+/**
+ * Prepares toast icons outside of the display thread and caches the prescaled icons.
+ * <p>
+ * The icons are decoded to {@link ImageData} and prescaled to the icon size of the toast by a small pool of worker threads.
+ * The display thread only has to convert the prepared {@link ImageData} to an image.
+ * Icons which can only be converted inside the display thread (e.g. {@link org.eclipse.swt.graphics.Image}s) are scaled once
+ * and cached as well, so the popups can always paint their icons without scaling.
+ * Only icons given as string (paths or base64 encoded images) are cached, by value. All other icons (e.g. images, 
+ * byte arrays or input streams) are only known by identity and are not cached, so the cache never keeps them 
+ * (and their decoded image data) alive after their toasts are gone.
+ * The icon prepared for a toast is kept until the popup of the toast was created, even if it was evicted from the cache
+ * in the meantime (e.g. because more toasts with different icons are pending), so it never has to be decoded again
+ * in the display thread. This is required for input streams which can only be decoded once.
+ * </p>
+ *
+ * @author Dominik
+ */
+public class ToastIconCache {
+	
+	private static Logger logger = LoggerFactory.getLogger(ToastIconCache.class);
+	
+	private static final int MAX_ENTRIES = 64;
+	private static final int THREADS = 2;
+	
+	private static final ToastIconCache INSTANCE = new ToastIconCache();
+	
+	private final ExecutorService executor;
+	private volatile int interpolation = SWT.HIGH;
+	private final Map<String, IconEntry> entries = new LinkedHashMap<String, IconEntry>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, IconEntry> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+	// the entries of the prepared toasts whose popups were not created yet (guarded by entries), 
+	// weak keys so the entries of dropped toasts (e.g. cancelled ones) are released as well
+	private final Map<Toast, IconEntry> pinned = new WeakHashMap<>();
+	
+	/**
+	 * @return the shared instance
+	 */
+	public static ToastIconCache getInstance() {
+		return INSTANCE;
+	}
+	
+	private ToastIconCache() {
+		AtomicInteger threadCount = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+			Thread thread = new Thread(runnable, "Toaster Icon Thread " + threadCount.incrementAndGet()); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	/**
+	 * Sets the interpolation quality used to scale the icons (see {@link ToastIconScaler#scale(ImageData, int, int, int)}).
+	 * Already scaled icons are not affected.
+	 * 
+	 * @param interpolation the interpolation quality: {@link SWT#NONE}, {@link SWT#LOW} or {@link SWT#HIGH}
+	 */
+	public void setInterpolation(int interpolation) {
+		this.interpolation = interpolation;
+	}
+	
+	/**
+	 * @return the interpolation quality used to scale the icons
+	 */
+	public int getInterpolation() {
+		return interpolation;
+	}
+	
+	/**
+	 * Decodes and prescales the icon of the given toast in a worker thread.
+	 * The returned future never completes exceptionally. If the icon can not be prepared,
+	 * the popup falls back to the conversion inside the display thread.
+	 * 
+	 * @param toast the toast
+	 * @param sticky <code>true</code> if the popup shows a close button
+	 * @param closeButtonIconSize the size of the close button icon
+	 * 
+	 * @return the future completed after the icon was prepared
+	 */
+	public CompletableFuture<Void> prepare(Toast toast, boolean sticky, int closeButtonIconSize) {
+		Object icon = toast.getIcon();
+		if (!ToasterUtils.canDecodeWithoutDisplay(icon)) {
+			return CompletableFuture.completedFuture(null);
+		}
+		try {
+			return CompletableFuture.runAsync(() -> {
+				try {
+					IconEntry entry = getOrDecode(icon);
+					if (entry != null) {
+						entry.getOrScale(ToastIconLayout.compute(toast, sticky, closeButtonIconSize, entry.width, entry.height), interpolation);
+						synchronized (entries) {
+							pinned.put(toast, entry);
+						}
+					}
+				} catch (Throwable e) {
+					// e.g. an SWTError or OutOfMemoryError while decoding a huge image
+					logger.error("Icon could not be prepared: {}", e.getMessage(), e); //$NON-NLS-1$
+				}
+			}, executor);
+		} catch (RejectedExecutionException e) {
+			logger.error("Icon could not be prepared: {}", e.getMessage(), e); //$NON-NLS-1$
+			return CompletableFuture.completedFuture(null);
+		}
+	}
+	
+	/**
+	 * Returns the prepared icon of the given toast. The icon is no longer kept for the toast afterwards
+	 * (except as a regular cache entry), i.e. this method should be called once when the popup is created.
+	 * 
+	 * @param toast the toast
+	 * @param sticky <code>true</code> if the popup shows a close button
+	 * @param closeButtonIconSize the size of the close button icon
+	 * 
+	 * @return the prepared icon or <code>null</code> if the icon was not prepared
+	 */
+	public PreparedIcon getPreparedIcon(Toast toast, boolean sticky, int closeButtonIconSize) {
+		Object icon = toast.getIcon();
+		if (icon == null) {
+			return null;
+		}
+		IconEntry entry;
+		synchronized (entries) {
+			entry = pinned.get(toast);
+			// toasts are equal by id > another toast with the same id may have pinned a different icon
+			if (entry != null && entry.isFor(icon)) {
+				pinned.remove(toast);
+			} else {
+				entry = icon instanceof String ? entries.get(icon) : null;
+			}
+		}
+		if (entry == null) {
+			return null;
+		}
+		// the size may differ from the prepared one (e.g. another close button size) > scaled from the original
+		ToastIconLayout layout = ToastIconLayout.compute(toast, sticky, closeButtonIconSize, entry.width, entry.height);
+		return new PreparedIcon(entry.getOrScale(layout, interpolation), entry.width, entry.height);
+	}
+	
+	/**
+	 * Scales the given image data of the toast icon and caches the result if the icon is given as string.
+	 * This method is used for icons which have been converted inside the display thread.
+	 * 
+	 * @param toast the toast
+	 * @param imageData the image data of the toast icon
+	 * @param sticky <code>true</code> if the popup shows a close button
+	 * @param closeButtonIconSize the size of the close button icon
+	 * 
+	 * @return the prescaled icon
+	 */
+	public PreparedIcon prescale(Toast toast, ImageData imageData, boolean sticky, int closeButtonIconSize) {
+		Object icon = toast.getIcon();
+		IconEntry entry;
+		if (icon instanceof String) {
+			synchronized (entries) {
+				entry = entries.computeIfAbsent((String) icon, key -> new IconEntry(key, imageData));
+			}
+		} else {
+			entry = new IconEntry(icon, imageData);
+		}
+		ToastIconLayout layout = ToastIconLayout.compute(toast, sticky, closeButtonIconSize, entry.width, entry.height);
+		return new PreparedIcon(entry.getOrScale(layout, interpolation), entry.width, entry.height);
+	}
+	
+	private IconEntry getOrDecode(Object icon) {
+		if (icon instanceof String) {
+			synchronized (entries) {
+				IconEntry entry = entries.get(icon);
+				if (entry != null) {
+					return entry;
+				}
+			}
+		}
+		ImageData imageData = ToasterUtils.toImageData(icon);
+		if (imageData == null) {
+			return null;
+		}
+		if (!(icon instanceof String)) {
+			// only kept by the toast (see pinned)
+			return new IconEntry(icon, imageData);
+		}
+		synchronized (entries) {
+			// another thread may have decoded the icon in the meantime
+			return entries.computeIfAbsent((String) icon, key -> new IconEntry(key, imageData));
+		}
+	}
+	
+	/**
+	 * An icon decoded and scaled outside of the display thread.
+	 */
+	public static class PreparedIcon {
+		
+		private final ImageData imageData;
+		private final int originalWidth;
+		private final int originalHeight;
+		
+		private PreparedIcon(ImageData imageData, int originalWidth, int originalHeight) {
+			this.imageData = imageData;
+			this.originalWidth = originalWidth;
+			this.originalHeight = originalHeight;
+		}
+		
+		/**
+		 * @return the prescaled image data
+		 */
+		public ImageData getImageData() {
+			return imageData;
+		}
+		
+		/**
+		 * @return the width of the original image
+		 */
+		public int getOriginalWidth() {
+			return originalWidth;
+		}
+		
+		/**
+		 * @return the height of the original image
+		 */
+		public int getOriginalHeight() {
+			return originalHeight;
+		}
+		
+	}
+	
+	private static class IconEntry {
+		
+		// the icon string (cached entries) or the icon object itself (entries only kept for a toast)
+		private final Object icon;
+		private final int width;
+		private final int height;
+		// kept, so every size is scaled from the full resolution and not from a smaller variant
+		private final ImageData original;
+		private final Map<Long, ImageData> scaled = new HashMap<>();
+		
+		private IconEntry(Object icon, ImageData original) {
+			this.icon = icon;
+			this.original = original;
+			this.width = original.width;
+			this.height = original.height;
+		}
+		
+		private boolean isFor(Object icon) {
+			return icon instanceof String ? icon.equals(this.icon) : icon == this.icon;
+		}
+		
+		private synchronized ImageData getOrScale(ToastIconLayout layout, int interpolation) {
+			Long key = sizeKey(layout);
+			ImageData imageData = scaled.get(key);
+			if (imageData == null) {
+				int drawWidth = Math.max(layout.getDrawWidth(width), 1);
+				int drawHeight = Math.max(layout.getDrawHeight(height), 1);
+				imageData = ToastIconScaler.scale(original, drawWidth, drawHeight, interpolation);
+				scaled.put(key, imageData);
+			}
+			return imageData;
+		}
+		
+		private Long sizeKey(ToastIconLayout layout) {
+			return Long.valueOf(((long) layout.getDrawWidth(width) << 32) | (layout.getDrawHeight(height) & 0xFFFFFFFFL));
+		}
+		
+	}
+	
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.ui.impl;
+
+import io.github.dogla.toaster.Toast;
+
+/**
+ * The computed dimensions of a toast icon.
+ * <p>
+ * The computation considers the icon size settings of the toast and does not need any display,
+ * so it can be used on the display thread as well as on the icon preparation threads.
+ * </p>
+ *
+ * @author Dominik
+ */
+/*package*/ final class ToastIconLayout {
+	
+	/** the width of the scaled image */
+	final int imageWidth;
+	/** the height of the scaled image */
+	final int imageHeight;
+	/** the width of the icon canvas */
+	final int canvasWidth;
+	/** the height of the icon canvas */
+	final int canvasHeight;
+	/** the scale factor between the original and the scaled image */
+	final double scale;
+	
+	private ToastIconLayout(int imageWidth, int imageHeight, int canvasWidth, int canvasHeight, double scale) {
+		this.imageWidth = imageWidth;
+		this.imageHeight = imageHeight;
+		this.canvasWidth = canvasWidth;
+		this.canvasHeight = canvasHeight;
+		this.scale = scale;
+	}
+	
+	/**
+	 * Computes the icon dimensions for the given toast.
+	 * 
+	 * @param toast the toast
+	 * @param sticky <code>true</code> if the popup is sticky and shows a close button
+	 * @param closeButtonIconSize the size of the close button icon
+	 * @param width the width of the original image
+	 * @param height the height of the original image
+	 * 
+	 * @return the icon dimensions
+	 */
+	static ToastIconLayout compute(Toast toast, boolean sticky, int closeButtonIconSize, int width, int height) {
+		double scale = 1;
+		int imageWidth = width;
+		int imageHeight = height;
+		int canvasWidth = imageWidth;
+		int canvasHeight = imageHeight;
+		
+		int maxIconWidth = toast.getMaxIconWidth();
+		// adjust max icon width to fit into container/margins
+		if (maxIconWidth > toast.getMaxWidth() - 20) {
+			maxIconWidth = toast.getMaxWidth() - 20;
+		}
+		// adjust max icon width if we have to show the close button
+		int margins = closeButtonIconSize + 8*5;
+		if (sticky && maxIconWidth > toast.getMaxWidth() - margins) {
+			maxIconWidth = toast.getMaxWidth() - margins;
+		}
+		int minIconWidth = toast.getMinIconWidth();
+		// check min icon width
+		if (minIconWidth > maxIconWidth) {
+			minIconWidth = maxIconWidth;
+		}
+		
+		// check min width
+		if (toast.isAllowIconUpscaling() && imageWidth < minIconWidth) {
+			// scale up
+			double aScale = minIconWidth * 1.0 / imageWidth;
+			imageWidth = minIconWidth;
+			imageHeight *= aScale;
+			canvasWidth = imageWidth;
+			canvasHeight = imageHeight;
+			scale = minIconWidth * 1.0 / width;
+		}
+		
+		// check min height
+		if (toast.isAllowIconUpscaling() && imageHeight < toast.getMinIconHeight()) {
+			// scale up
+			double aScale = toast.getMinIconHeight() * 1.0 / imageHeight;
+			imageWidth *= aScale;
+			imageHeight = toast.getMinIconHeight();
+			canvasWidth = imageWidth;
+			canvasHeight = imageHeight;
+			scale = toast.getMinIconHeight() * 1.0 / height;
+		}
+		
+		// check max width
+		if (maxIconWidth >= 0 && imageWidth > maxIconWidth) {
+			// scale down
+			double aScale = maxIconWidth * 1.0 / imageWidth;
+			imageWidth = maxIconWidth;
+			imageHeight *= aScale;
+			canvasWidth = imageWidth;
+			canvasHeight = imageHeight;
+			scale = maxIconWidth * 1.0 / width;
+		}
+		
+		// check max height
+		if (toast.getMaxIconHeight() >= 0 && imageHeight > toast.getMaxIconHeight()) {
+			// scale down
+			double aScale = toast.getMaxIconHeight() * 1.0 / imageHeight;
+			imageWidth *= aScale;
+			imageHeight = toast.getMaxIconHeight();
+			canvasWidth = imageWidth;
+			canvasHeight = imageHeight;
+			scale = toast.getMaxIconHeight() * 1.0 / height;
+		}
+		
+		if (canvasWidth < minIconWidth) {
+			canvasWidth = minIconWidth;
+		}
+		if (canvasHeight < toast.getMinIconHeight()) {
+			canvasHeight = toast.getMinIconHeight();
+		}
+		return new ToastIconLayout(imageWidth, imageHeight, canvasWidth, canvasHeight, scale);
+	}
+	
+	/**
+	 * @param width the width of the original image
+	 * @return the width of the image drawn into the canvas
+	 */
+	int getDrawWidth(int width) {
+		return (int)Math.min(width*scale, canvasWidth);
+	}
+	
+	/**
+	 * @param height the height of the original image
+	 * @return the height of the image drawn into the canvas
+	 */
+	int getDrawHeight(int height) {
+		return (int)Math.min(height*scale, canvasHeight);
+	}
+	
+}
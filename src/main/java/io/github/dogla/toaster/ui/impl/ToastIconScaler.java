@@ -0,0 +1,209 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.ui.impl;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+
+/**
+ * Scales {@link ImageData} without any display, so icons can be scaled once in any thread
+ * and painted without scaling afterwards.
+ *
+ * @author Dominik
+ */
+public class ToastIconScaler {
+	
+	private static final PaletteData ARGB_PALETTE = new PaletteData(0xFF0000, 0xFF00, 0xFF);
+	
+	private ToastIconScaler() {
+		// utility class
+	}
+	
+	/**
+	 * Scales the given image data.
+	 * <ul>
+	 * <li>{@link SWT#NONE}: nearest neighbor (see {@link ImageData#scaledTo(int, int)})</li>
+	 * <li>{@link SWT#LOW}: bilinear interpolation</li>
+	 * <li>{@link SWT#HIGH} (or {@link SWT#DEFAULT}): area averaging for downscaling, bilinear interpolation for upscaling</li>
+	 * </ul>
+	 * 
+	 * @param source the source image data
+	 * @param width the target width
+	 * @param height the target height
+	 * @param interpolation the interpolation quality: {@link SWT#NONE}, {@link SWT#LOW}, {@link SWT#HIGH} or {@link SWT#DEFAULT}
+	 * 
+	 * @return the scaled image data
+	 */
+	public static ImageData scale(ImageData source, int width, int height, int interpolation) {
+		if (source.width == width && source.height == height) {
+			return source;
+		}
+		if (interpolation == SWT.NONE) {
+			return source.scaledTo(width, height);
+		}
+		int[] pixels = toARGB(source);
+		int[] scaled;
+		if (interpolation != SWT.LOW && width <= source.width && height <= source.height) {
+			scaled = scaleAreaAveraging(pixels, source.width, source.height, width, height);
+		} else {
+			scaled = scaleBilinear(pixels, source.width, source.height, width, height);
+		}
+		return fromARGB(scaled, width, height);
+	}
+	
+	private static int[] toARGB(ImageData data) {
+		int width = data.width;
+		int height = data.height;
+		PaletteData palette = data.palette;
+		int[] result = new int[width * height];
+		int[] row = new int[width];
+		for (int y = 0; y < height; y++) {
+			data.getPixels(0, y, width, row, 0);
+			for (int x = 0; x < width; x++) {
+				int pixel = row[x];
+				int r;
+				int g;
+				int b;
+				if (palette.isDirect) {
+					r = shift(pixel & palette.redMask, palette.redShift);
+					g = shift(pixel & palette.greenMask, palette.greenShift);
+					b = shift(pixel & palette.blueMask, palette.blueShift);
+				} else {
+					RGB rgb = palette.colors[pixel];
+					r = rgb.red;
+					g = rgb.green;
+					b = rgb.blue;
+				}
+				int a;
+				if (data.alphaData != null) {
+					a = data.alphaData[y * width + x] & 0xFF;
+				} else if (data.alpha != -1) {
+					a = data.alpha;
+				} else if (data.transparentPixel != -1 && pixel == data.transparentPixel) {
+					a = 0;
+				} else {
+					a = 255;
+				}
+				result[y * width + x] = (a << 24) | ((r & 0xFF) << 16) | ((g & 0xFF) << 8) | (b & 0xFF);
+			}
+		}
+		return result;
+	}
+	
+	private static int shift(int value, int shift) {
+		return shift < 0 ? value >>> -shift : value << shift;
+	}
+	
+	private static ImageData fromARGB(int[] pixels, int width, int height) {
+		ImageData result = new ImageData(width, height, 24, ARGB_PALETTE);
+		byte[] alphaData = new byte[width * height];
+		int[] row = new int[width];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int argb = pixels[y * width + x];
+				row[x] = argb & 0xFFFFFF;
+				alphaData[y * width + x] = (byte) (argb >>> 24);
+			}
+			result.setPixels(0, y, width, row, 0);
+		}
+		result.alphaData = alphaData;
+		return result;
+	}
+	
+	private static int[] scaleBilinear(int[] pixels, int srcWidth, int srcHeight, int width, int height) {
+		int[] result = new int[width * height];
+		double xRatio = srcWidth * 1.0 / width;
+		double yRatio = srcHeight * 1.0 / height;
+		for (int y = 0; y < height; y++) {
+			double srcY = Math.max((y + 0.5) * yRatio - 0.5, 0);
+			int y0 = Math.min((int) srcY, srcHeight - 1);
+			int y1 = Math.min(y0 + 1, srcHeight - 1);
+			double fy = srcY - y0;
+			for (int x = 0; x < width; x++) {
+				double srcX = Math.max((x + 0.5) * xRatio - 0.5, 0);
+				int x0 = Math.min((int) srcX, srcWidth - 1);
+				int x1 = Math.min(x0 + 1, srcWidth - 1);
+				double fx = srcX - x0;
+				int p00 = pixels[y0 * srcWidth + x0];
+				int p10 = pixels[y0 * srcWidth + x1];
+				int p01 = pixels[y1 * srcWidth + x0];
+				int p11 = pixels[y1 * srcWidth + x1];
+				double w00 = (1 - fx) * (1 - fy);
+				double w10 = fx * (1 - fy);
+				double w01 = (1 - fx) * fy;
+				double w11 = fx * fy;
+				result[y * width + x] = blend(p00, w00, p10, w10, p01, w01, p11, w11);
+			}
+		}
+		return result;
+	}
+	
+	private static int blend(int p00, double w00, int p10, double w10, int p01, double w01, int p11, double w11) {
+		// premultiply the colors with their alpha values to avoid dark borders around transparent areas
+		double a00 = (p00 >>> 24) * w00;
+		double a10 = (p10 >>> 24) * w10;
+		double a01 = (p01 >>> 24) * w01;
+		double a11 = (p11 >>> 24) * w11;
+		double a = a00 + a10 + a01 + a11;
+		if (a <= 0) {
+			return 0;
+		}
+		double r = ((p00 >> 16) & 0xFF) * a00 + ((p10 >> 16) & 0xFF) * a10 + ((p01 >> 16) & 0xFF) * a01 + ((p11 >> 16) & 0xFF) * a11;
+		double g = ((p00 >> 8) & 0xFF) * a00 + ((p10 >> 8) & 0xFF) * a10 + ((p01 >> 8) & 0xFF) * a01 + ((p11 >> 8) & 0xFF) * a11;
+		double b = (p00 & 0xFF) * a00 + (p10 & 0xFF) * a10 + (p01 & 0xFF) * a01 + (p11 & 0xFF) * a11;
+		return toARGB(a, r / a, g / a, b / a);
+	}
+	
+	private static int[] scaleAreaAveraging(int[] pixels, int srcWidth, int srcHeight, int width, int height) {
+		int[] result = new int[width * height];
+		for (int y = 0; y < height; y++) {
+			int sy0 = y * srcHeight / height;
+			int sy1 = Math.max((y + 1) * srcHeight / height, sy0 + 1);
+			for (int x = 0; x < width; x++) {
+				int sx0 = x * srcWidth / width;
+				int sx1 = Math.max((x + 1) * srcWidth / width, sx0 + 1);
+				long a = 0;
+				long r = 0;
+				long g = 0;
+				long b = 0;
+				for (int sy = sy0; sy < sy1; sy++) {
+					for (int sx = sx0; sx < sx1; sx++) {
+						int p = pixels[sy * srcWidth + sx];
+						int pa = p >>> 24;
+						a += pa;
+						r += ((p >> 16) & 0xFF) * pa;
+						g += ((p >> 8) & 0xFF) * pa;
+						b += (p & 0xFF) * pa;
+					}
+				}
+				int count = (sy1 - sy0) * (sx1 - sx0);
+				result[y * width + x] = a == 0 ? 0 : toARGB(a * 1.0 / count, r * 1.0 / a, g * 1.0 / a, b * 1.0 / a);
+			}
+		}
+		return result;
+	}
+	
+	private static int toARGB(double a, double r, double g, double b) {
+		return (clamp(a) << 24) | (clamp(r) << 16) | (clamp(g) << 8) | clamp(b);
+	}
+	
+	private static int clamp(double value) {
+		return Math.max(0, Math.min(255, (int) Math.round(value)));
+	}
+
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.ui.impl;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.FontData;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Display;
+
+import io.github.dogla.toaster.Toast;
+import io.github.dogla.toaster.ToastAction;
+import io.github.dogla.toaster.ToastContent;
+
+/**
+ * Caches the measured popup sizes, so that popups with the same content and style do not have to
+ * compute the layout of their whole widget tree again.
+ * <p>
+ * There is one cache per display. The cache is cleared if the system settings (e.g. fonts) of the display change.
+ * Because the font and the DPI are part of the key, a changed font or DPI never reuses an old measurement.
+ * The cache must only be used in the corresponding display thread.
+ * </p>
+ *
+ * @author Dominik
+ */
+public class ToastMeasurementCache {
+	
+	private static final String DATA_KEY = ToastMeasurementCache.class.getName();
+	private static final int MAX_ENTRIES = 128;
+	
+	private final Map<Key, Point> sizes = new LinkedHashMap<Key, Point>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Point> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+	
+	private ToastMeasurementCache() {
+		// use forDisplay(Display)
+	}
+	
+	/**
+	 * Returns the cache of the given display and creates it if necessary.
+	 * This method has to be called in the display thread.
+	 * 
+	 * @param display the display
+	 * 
+	 * @return the cache of the display
+	 */
+	public static ToastMeasurementCache forDisplay(Display display) {
+		Object data = display.getData(DATA_KEY);
+		if (data instanceof ToastMeasurementCache) {
+			return (ToastMeasurementCache) data;
+		}
+		ToastMeasurementCache cache = new ToastMeasurementCache();
+		display.setData(DATA_KEY, cache);
+		// fonts or DPI may have changed
+		display.addListener(SWT.Settings, e -> cache.clear());
+		return cache;
+	}
+	
+	/**
+	 * @param key the key
+	 * @return a copy of the cached size or <code>null</code> if nothing was cached for the given key
+	 */
+	public Point lookup(Key key) {
+		Point size = sizes.get(key);
+		return size != null ? new Point(size.x, size.y) : null;
+	}
+	
+	/**
+	 * @param key the key
+	 * @param size the size
+	 */
+	public void store(Key key, Point size) {
+		sizes.put(key, new Point(size.x, size.y));
+	}
+	
+	/**
+	 * Removes all cached sizes.
+	 */
+	public void clear() {
+		sizes.clear();
+	}
+	
+	/**
+	 * The content and style of a popup which determine its measured size.
+	 */
+	public static final class Key {
+		
+		private final FontData[] fontData;
+		private final Point dpi;
+		private final String title;
+		private final String message;
+		private final String details;
+		private final boolean sticky;
+		private final int iconWidth;
+		private final int iconHeight;
+		private final String[] actions;
+		// the sizes of the action images (-1 without image)
+		private final long[] actionImages;
+		private final int minWidth;
+		private final int minHeight;
+		private final int maxWidth;
+		private final int maxHeight;
+		private final int hashCode;
+		
+		/**
+		 * Creates the key for the given toast. This constructor has to be called in the display thread.
+		 * 
+		 * @param display the display
+		 * @param font the base font of the popup
+		 * @param toast the toast
+		 * @param iconSize the size of the icon canvas or <code>null</code> if no icon is shown
+		 */
+		public Key(Display display, Font font, Toast toast, Point iconSize) {
+			this.fontData = font.getFontData();
+			this.dpi = display.getDPI();
+			// read a consistent snapshot of the texts
+			ToastContent content = toast.getContent();
+			this.title = content.getTitle();
+			this.message = content.getMessage();
+			this.details = content.getDetails();
+			this.sticky = toast.isSticky();
+			this.iconWidth = iconSize != null ? iconSize.x : -1;
+			this.iconHeight = iconSize != null ? iconSize.y : -1;
+			List<ToastAction> toastActions = toast.getActions();
+			this.actions = new String[toastActions.size()];
+			this.actionImages = new long[toastActions.size()];
+			for (int i = 0; i < actions.length; i++) {
+				ToastAction action = toastActions.get(i);
+				this.actions[i] = action.getText();
+				Image image = action.getImage();
+				if (image != null) {
+					Rectangle bounds = image.getBounds();
+					this.actionImages[i] = ((long) bounds.width << 32) | (bounds.height & 0xFFFFFFFFL);
+				} else {
+					this.actionImages[i] = -1;
+				}
+			}
+			this.minWidth = toast.getMinWidth();
+			this.minHeight = toast.getMinHeight();
+			this.maxWidth = toast.getMaxWidth();
+			this.maxHeight = toast.getMaxHeight();
+			this.hashCode = Objects.hash(Integer.valueOf(Arrays.hashCode(fontData)), dpi, title, message, details, Boolean.valueOf(sticky), 
+					Integer.valueOf(iconWidth), Integer.valueOf(iconHeight), Integer.valueOf(Arrays.hashCode(actions)), 
+					Integer.valueOf(Arrays.hashCode(actionImages)), Integer.valueOf(minWidth), Integer.valueOf(minHeight), Integer.valueOf(maxWidth), Integer.valueOf(maxHeight));
+		}
+		
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return hashCode == other.hashCode
+					&& sticky == other.sticky
+					&& iconWidth == other.iconWidth
+					&& iconHeight == other.iconHeight
+					&& minWidth == other.minWidth
+					&& minHeight == other.minHeight
+					&& maxWidth == other.maxWidth
+					&& maxHeight == other.maxHeight
+					&& Objects.equals(title, other.title)
+					&& Objects.equals(message, other.message)
+					&& Objects.equals(details, other.details)
+					&& Objects.equals(dpi, other.dpi)
+					&& Arrays.equals(fontData, other.fontData)
+					&& Arrays.equals(actions, other.actions)
+					&& Arrays.equals(actionImages, other.actionImages);
+		}
+		
+	}
+	
+}
@@ -15,11 +15,9 @@
  */
 package io.github.dogla.toaster.ui.impl;
 
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Consumer;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.jface.resource.FontDescriptor;
 import org.eclipse.jface.resource.ImageDescriptor;
@@ -46,10 +44,21 @@ import org.slf4j.LoggerFactory;
 
 import io.github.dogla.toaster.Toast;
 import io.github.dogla.toaster.ToastAction;
+import io.github.dogla.toaster.ToastActionExecutor;
+import io.github.dogla.toaster.ToastAnimationMode;
+import io.github.dogla.toaster.ToastAnimationPolicy;
 import io.github.dogla.toaster.ToastColor;
+import io.github.dogla.toaster.ToastContent;
+import io.github.dogla.toaster.ToastField;
+import io.github.dogla.toaster.ToastTrace.Stage;
+import io.github.dogla.toaster.ToastTracer;
+import io.github.dogla.toaster.ToastUpdateEvent;
+import io.github.dogla.toaster.ToastUpdateListener;
+import io.github.dogla.toaster.Toaster;
 import io.github.dogla.toaster.ToasterUtils;
 import io.github.dogla.toaster.ui.ToastPopup;
 import io.github.dogla.toaster.ui.ToastPopupClosedCallback;
+import io.github.dogla.toaster.ui.impl.ToastIconCache.PreparedIcon;
 
 /**
  * The default implementation of the {@link ToastPopup}.
@@ -60,8 +69,16 @@ public class ToastPopupImpl extends Shell implements ToastPopup {
 	
 	private static Logger logger = LoggerFactory.getLogger(ToastPopupImpl.class);
 	
+	/*package*/ static final int DEFAULT_CLOSE_BUTTON_ICON_SIZE = 10;
+	
 	private Toast toast;
 	private Rectangle popupArea;
+	private ToastActionExecutor actionExecutor;
+	private ToastColorCache colorCache;
+	private final ToastUpdateListener updateListener = this::onToastUpdated;
+	private final AtomicBoolean updateScheduled = new AtomicBoolean();
+	// the content currently shown by the popup
+	private ToastContent content;
 	private Image oldImage;
 	private List<Image> imagesToDispose = new ArrayList<>();
 
@@ -71,14 +88,16 @@ public class ToastPopupImpl extends Shell implements ToastPopup {
 	private Label lblDetails;
 	private Composite iconContainer;
 	private Canvas canvasIcon;
+	private Point iconSize;
 	private FadeInHandler fadeInHandler;
+	private ToastPopupClosedCallback callback;
 
 	// internal flag used in development
 	private boolean highlightContainers = false;
 	
 	// close button settings
 	private int closeButtonMargin = 5;
-	private int closeButtonIconSize = 10;
+	private int closeButtonIconSize = DEFAULT_CLOSE_BUTTON_ICON_SIZE;
 	private int closeButtonContainerSize = closeButtonIconSize+2*closeButtonMargin;
 
 	/**
@@ -89,9 +108,23 @@ public class ToastPopupImpl extends Shell implements ToastPopup {
 	 * @param popupArea the popup area
 	 */
 	public ToastPopupImpl(Shell shell, Toast toast, Rectangle popupArea) {
+		this(shell, toast, popupArea, ToastActionExecutor.getDefault());
+	}
+	
+	/**
+	 * Constructor.
+	 *
+	 * @param shell the shell
+	 * @param toast the toast
+	 * @param popupArea the popup area
+	 * @param actionExecutor the executor for the selected actions
+	 */
+	public ToastPopupImpl(Shell shell, Toast toast, Rectangle popupArea, ToastActionExecutor actionExecutor) {
 		super(shell, (SWT.NO_FOCUS | SWT.NO_TRIM | SWT.ON_TOP) & ~SWT.APPLICATION_MODAL);
 		this.toast = toast;
 		this.popupArea = popupArea;
+		this.actionExecutor = actionExecutor;
+		this.colorCache = ToastColorCache.getInstance(getDisplay());
 		setBackgroundMode(SWT.INHERIT_FORCE);
 		createContent(toast);
 	}
@@ -102,6 +135,7 @@ public class ToastPopupImpl extends Shell implements ToastPopup {
 	 * @param toast the toast
 	 */
 	protected void createContent(Toast toast) {
+		content = toast.getContent();
 		setLayout(new GridLayout(1, false));
 		if (highlightContainers) {
 			setBackground(this.getDisplay().getSystemColor(SWT.COLOR_CYAN));
@@ -111,8 +145,8 @@ public class ToastPopupImpl extends Shell implements ToastPopup {
 		Color background = toSWTColor(toast.getBackgroundColor());
 		Color backgroundTop = toSWTColor(toast.getBackgroundColor());//ToasterUtils.brighter(ToasterUtils.brighter(toast.getBackgroundColor()));
 
-		Image image = toImage(toast);
-		if (image != null) {
+		IconImage icon = toIconImage(toast);
+		if (icon != null) {
 			setLayout(new GridLayout(2, false));
 			iconContainer = new Composite(this, SWT.NONE);
 			iconContainer.setLayoutData(new GridData(SWT.BEGINNING, SWT.FILL, false, true));
@@ -120,7 +154,7 @@ public class ToastPopupImpl extends Shell implements ToastPopup {
 			if (highlightContainers) {
 				iconContainer.setBackground(this.getDisplay().getSystemColor(SWT.COLOR_GREEN));
 			}
-			updateIcon(image);			
+			updateIcon(icon);			
 		}
 		
 		textContainer = new Composite(this, SWT.NONE);
@@ -181,7 +215,7 @@ public class ToastPopupImpl extends Shell implements ToastPopup {
 		lblMessage = new Label(textContainer, SWT.WRAP);
 		updateMessage();
 
-		String details = toast.getDetails();
+		String details = content.getDetails();
 		if (details != null && !details.trim().isEmpty()) {
 			updateDetails();
 		}
@@ -234,15 +268,14 @@ public class ToastPopupImpl extends Shell implements ToastPopup {
 				}
 			});
 			lblAction.addMouseListener(MouseListener.mouseUpAdapter(e -> {
+				// notify before the popup is closed
+				if (callback != null) {
+					callback.onActionSelected(action);
+				}
 				if (action.isCloseToastOnExecute()) {
 					close();
 				}
-				Consumer<Toast> executable = action.getExecutable();
-				if (executable != null) {
-					Thread thread = new Thread(() -> executable.accept(toast));
-					thread.setUncaughtExceptionHandler((t, ex) -> logger.error(ex.getMessage(), ex));
-					thread.start();
-				}
+				actionExecutor.execute(toast, action);
 			}));
 		}
 		
@@ -276,37 +309,54 @@ public class ToastPopupImpl extends Shell implements ToastPopup {
 		setSize(getInitialSize());
 		
 		// register update listener
-		toast.addPropertyChangeListener(new PropertyChangeListener() {
-			@Override
-			public void propertyChange(PropertyChangeEvent evt) {
-				getDisplay().asyncExec(() -> {
-					String propertyName = evt.getPropertyName();
-					if ("title".equals(propertyName)) { //$NON-NLS-1$
-						updateTitle();
-					} else if ("message".equals(propertyName)) { //$NON-NLS-1$
-						updateMessage();
-					} else if ("details".equals(propertyName)) { //$NON-NLS-1$
-						updateDetails();
-					} else if ("icon".equals(propertyName) //$NON-NLS-1$
-							|| "displayTime".equals(propertyName)) { //$NON-NLS-1$
-						Image image = toImage(toast);
-						if (image != null) {
-							updateIcon(image);
-						}
-					} 
-					if (fadeInHandler != null) {
-						fadeInHandler.restartFadeOutProcess();
-					}
-				});
+		toast.addUpdateListener(updateListener);
+		addDisposeListener(e -> toast.removeUpdateListener(updateListener));
+	}
+	
+	private void onToastUpdated(ToastUpdateEvent event) {
+		// coalesce the updates until the display thread applies them
+		if (updateScheduled.compareAndSet(false, true)) {
+			getDisplay().asyncExec(this::applyUpdates);
+		}
+	}
+	
+	private void applyUpdates() {
+		updateScheduled.set(false);
+		if (isDisposed()) {
+			return;
+		}
+		ToastContent current = toast.getContent();
+		if (current.getVersion() == content.getVersion()) {
+			// already applied by a previous run
+			return;
+		}
+		int changedFields = content.diff(current);
+		content = current;
+		if (ToastField.TITLE.isContainedIn(changedFields)) {
+			updateTitle();
+		}
+		if (ToastField.MESSAGE.isContainedIn(changedFields)) {
+			updateMessage();
+		}
+		if (ToastField.DETAILS.isContainedIn(changedFields)) {
+			updateDetails();
+		}
+		if (ToastField.ICON.isContainedIn(changedFields) || ToastField.DISPLAY_TIME.isContainedIn(changedFields)) {
+			IconImage icon = toIconImage(toast);
+			if (icon != null) {
+				updateIcon(icon);
 			}
-		});
+		}
+		if (fadeInHandler != null) {
+			fadeInHandler.restartFadeOutProcess();
+		}
 	}
 
 	private void updateTitle() {
 		if (lblTitle != null && !lblTitle.isDisposed()) {
 			lblTitle.setLayoutData(new GridData(SWT.BEGINNING, SWT.FILL, true, false, isSticky() ? 1 : 2, 1));
-			if (toast.getTitle() != null) {
-				lblTitle.setText(toast.getTitle());
+			if (content.getTitle() != null) {
+				lblTitle.setText(content.getTitle());
 			}
 			Color titleForeground = toSWTColor(toast.getTitleForegroundColor());		
 			lblTitle.setForeground(titleForeground);
@@ -322,8 +372,8 @@ public class ToastPopupImpl extends Shell implements ToastPopup {
 	private void updateMessage() {
 		if (lblMessage != null && !lblMessage.isDisposed()) {
 			lblMessage.setLayoutData(new GridData(SWT.BEGINNING, SWT.FILL, true, false, 2, 1));
-			if (toast.getMessage() != null) {
-				lblMessage.setText(toast.getMessage());
+			if (content.getMessage() != null) {
+				lblMessage.setText(content.getMessage());
 			}
 			lblMessage.setForeground(toSWTColor(toast.getMessageForegroundColor()));
 			FontDescriptor messageFontDescriptor = FontDescriptor.createFrom(getFont()).increaseHeight(1);
@@ -339,7 +389,7 @@ public class ToastPopupImpl extends Shell implements ToastPopup {
 		if (lblDetails != null && !lblDetails.isDisposed()) {
 			lblDetails = new Label(textContainer, SWT.WRAP);
 			lblDetails.setLayoutData(new GridData(SWT.BEGINNING, SWT.FILL, true, false, 2, 1));
-			lblDetails.setText(toast.getDetails());
+			lblDetails.setText(content.getDetails());
 			lblDetails.setForeground(toSWTColor(toast.getDetailsForegroundColor()));
 			FontDescriptor detailsFontDescriptor = FontDescriptor.createFrom(getFont()).increaseHeight(-1);
 			lblDetails.setFont(detailsFontDescriptor.createFont(getDisplay()));
@@ -350,86 +400,19 @@ public class ToastPopupImpl extends Shell implements ToastPopup {
 		}
 	}
 	
-	private void updateIcon(Image image) {
+	private void updateIcon(IconImage icon) {
 		if (iconContainer != null && !iconContainer.isDisposed()) {
 			if (canvasIcon != null) {
 				canvasIcon.dispose();
 			}
 			
-			// image
-			Point canvasSize = new Point(0, 0);
-			double scale = 1;
-			Rectangle origBounds = image.getBounds();
-			Point imageSize = new Point(origBounds.width, origBounds.height);
-			canvasSize.x = imageSize.x;
-			canvasSize.y = imageSize.y;
-			
-			int maxIconWidth = toast.getMaxIconWidth();
-			// adjust max icon width to fit into container/margins
-			if (maxIconWidth > toast.getMaxWidth() - 20) {
-				maxIconWidth = toast.getMaxWidth() - 20;
-			}
-			// adjust max icon width if we have to show the close button
-			int margins = closeButtonIconSize + 8*5;
-			if (isSticky() && maxIconWidth > toast.getMaxWidth() - margins) {
-				maxIconWidth = toast.getMaxWidth() - margins;
-			}
-			int minIconWidth = toast.getMinIconWidth();
-			// check min icon width
-			if (minIconWidth > maxIconWidth) {
-				minIconWidth = maxIconWidth;
-			}
-			
-			// check min width
-			if (toast.isAllowIconUpscaling() && imageSize.x < minIconWidth) {
-				// scale up
-				double aScale = minIconWidth * 1.0 / imageSize.x;
-				imageSize.x = minIconWidth;
-				imageSize.y *= aScale;
-				canvasSize.x = imageSize.x;
-				canvasSize.y = imageSize.y;
-				scale = minIconWidth * 1.0 / origBounds.width;
-			}
-			
-			// check min height
-			if (toast.isAllowIconUpscaling() && imageSize.y < toast.getMinIconHeight()) {
-				// scale up
-				double aScale = toast.getMinIconHeight() * 1.0 / imageSize.y;
-				imageSize.x *= aScale;
-				imageSize.y = toast.getMinIconHeight();
-				canvasSize.x = imageSize.x;
-				canvasSize.y = imageSize.y;
-				scale = toast.getMinIconHeight() * 1.0 / origBounds.height;
-			}
-			
-			// check max width
-			if (maxIconWidth >= 0 && imageSize.x > maxIconWidth) {
-				// scale down
-				double aScale = maxIconWidth * 1.0 / imageSize.x;
-				imageSize.x = maxIconWidth;
-				imageSize.y *= aScale;
-				canvasSize.x = imageSize.x;
-				canvasSize.y = imageSize.y;
-				scale = maxIconWidth * 1.0 / origBounds.width;
-			}
-			
-			// check max height
-			if (toast.getMaxIconHeight() >= 0 && imageSize.y > toast.getMaxIconHeight()) {
-				// scale down
-				double aScale = toast.getMaxIconHeight() * 1.0 / imageSize.y;
-				imageSize.x *= aScale;
-				imageSize.y = toast.getMaxIconHeight();
-				canvasSize.x = imageSize.x;
-				canvasSize.y = imageSize.y;
-				scale = toast.getMaxIconHeight() * 1.0 / origBounds.height;
-			}
-			
-			if (canvasSize.x < minIconWidth) {
-				canvasSize.x = minIconWidth;
-			}
-			if (canvasSize.y < toast.getMinIconHeight()) {
-				canvasSize.y = toast.getMinIconHeight();
-			}
+			// image (may already be prescaled)
+			Image image = icon.image;
+			int width = icon.width;
+			int height = icon.height;
+			ToastIconLayout layout = ToastIconLayout.compute(toast, isSticky(), closeButtonIconSize, width, height);
+			Point canvasSize = new Point(layout.canvasWidth, layout.canvasHeight);
+			iconSize = canvasSize;
 			canvasIcon = new Canvas(iconContainer, SWT.NONE) {
 				@Override
 				public Point computeSize(int wHint, int hHint, boolean changed) {
@@ -440,20 +423,38 @@ public class ToastPopupImpl extends Shell implements ToastPopup {
 			if (highlightContainers) {
 				canvasIcon.setBackground(this.getDisplay().getSystemColor(SWT.COLOR_RED));
 			}
-			double imageScale = scale;
+			int drawWidth = layout.getDrawWidth(width);
+			int drawHeight = layout.getDrawHeight(height);
 			canvasIcon.addPaintListener(e -> {
 				e.gc.setAntialias(SWT.ON);
 				Color backgroundColor = toSWTColor(toast.getIconBackgroundColor());
 				e.gc.setBackground(backgroundColor);
 				e.gc.fillRectangle(0, 0, canvasSize.x, canvasSize.y);
 				if (!image.isDisposed()) {
-					drawCentered(e.gc, image, imageScale, canvasSize.x, canvasSize.y);
+					drawCentered(e.gc, image, drawWidth, drawHeight, canvasSize.x, canvasSize.y);
 				}
 			});
 			canvasIcon.getParent().layout();
 		}
 	}
 
+	private IconImage toIconImage(Toast toast) {
+		// use the icon prepared outside of the display thread if available
+		ToastIconCache iconCache = ToastIconCache.getInstance();
+		PreparedIcon preparedIcon = iconCache.getPreparedIcon(toast, isSticky(), closeButtonIconSize);
+		if (preparedIcon == null) {
+			Image image = toImage(toast);
+			if (image == null) {
+				return null;
+			}
+			// scale once instead of scaling on every paint
+			preparedIcon = iconCache.prescale(toast, image.getImageData(), isSticky(), closeButtonIconSize);
+		}
+		Image image = new Image(getDisplay(), preparedIcon.getImageData());
+		imagesToDispose.add(image);
+		return new IconImage(image, preparedIcon.getOriginalWidth(), preparedIcon.getOriginalHeight());
+	}
+
 	private Image toImage(Toast toast) {
 		Object value = toast.getIcon();
 		if (value instanceof Image) {
@@ -473,18 +474,20 @@ public class ToastPopupImpl extends Shell implements ToastPopup {
 		return null;
 	}
 
-	private static void drawCentered(GC gc, Image img, double scale, int maxWidth, int maxHeight) {
-		int srcWidth = img.getBounds().width;
-		int srcHeight = img.getBounds().height;
-		int destWidth = (int)Math.min(srcWidth*scale, maxWidth);
-		int destHeight = (int)Math.min(srcHeight*scale, maxHeight);
+	private static void drawCentered(GC gc, Image img, int destWidth, int destHeight, int maxWidth, int maxHeight) {
+		Rectangle bounds = img.getBounds();
 		int destX = (maxWidth - destWidth) / 2;
 		int destY = (maxHeight - destHeight) / 2;
-		gc.drawImage(img, 0, 0, srcWidth, srcHeight, destX, destY, destWidth, destHeight);
+		if (bounds.width == destWidth && bounds.height == destHeight) {
+			// image was already prescaled
+			gc.drawImage(img, destX, destY);
+		} else {
+			gc.drawImage(img, 0, 0, bounds.width, bounds.height, destX, destY, destWidth, destHeight);
+		}
 	}
 	
 	private Color toSWTColor(ToastColor rgb) {
-		return new Color(getShell().getDisplay(), rgb.getRed(), rgb.getGreen(), rgb.getBlue());
+		return colorCache.getColor(rgb);
 	}
 
 	@Override
@@ -493,9 +496,26 @@ public class ToastPopupImpl extends Shell implements ToastPopup {
 	}
 	
 	/**
+	 * Returns the initial size.
+	 * Sizes of popups with the same content and style are taken from the {@link ToastMeasurementCache}.
+	 * 
 	 * @return the initial size
 	 */
 	protected Point getInitialSize() {
+		ToastMeasurementCache cache = ToastMeasurementCache.forDisplay(getDisplay());
+		ToastMeasurementCache.Key key = new ToastMeasurementCache.Key(getDisplay(), getFont(), toast, iconSize);
+		Point size = cache.lookup(key);
+		if (size == null) {
+			size = computeInitialSize();
+			cache.store(key, size);
+		}
+		return size;
+	}
+	
+	/**
+	 * @return the initial size computed by the layout of the popup
+	 */
+	protected Point computeInitialSize() {
 		Point preferredSize = this.computeSize(SWT.DEFAULT, SWT.DEFAULT, true);
 		
 		Point constrainedSize = computeConstrainedSize(preferredSize, toast.getMinWidth(), toast.getMinHeight(), toast.getMaxWidth(), toast.getMaxHeight());
@@ -555,6 +575,7 @@ public class ToastPopupImpl extends Shell implements ToastPopup {
 
 	@Override
 	public void show(ToastPopupClosedCallback callback) {
+		this.callback = callback;
 		fadeInHandler = new FadeInHandler();
 		fadeInHandler.run();
 		addDisposeListener(e -> callback.onClosed());
@@ -594,13 +615,27 @@ public class ToastPopupImpl extends Shell implements ToastPopup {
         return result;
     }	
 
+    private static class IconImage {
+    	
+    	private final Image image;
+    	// size of the original image
+    	private final int width;
+    	private final int height;
+    	
+    	private IconImage(Image image, int width, int height) {
+    		this.image = image;
+    		this.width = width;
+    		this.height = height;
+    	}
+    }
+
     private class FadeInHandler implements Runnable {
     	
     	private boolean starting = true;
 		private FadeOutHandler fadeOutHandler;
     	
     	private FadeInHandler() {
-			if (!isSticky() && toast.getDisplayTime() > 0) {
+			if (!isSticky() && content.getDisplayTime() > 0) {
 				this.fadeOutHandler = new FadeOutHandler();
 			}
     	}
@@ -611,43 +646,46 @@ public class ToastPopupImpl extends Shell implements ToastPopup {
             	Shell shell = ToastPopupImpl.this;
                 if (shell.isDisposed()) { return; }
 
+                int transparency = toast.getTransparency();
                 if (starting) {
                 	starting = false; 
+                	ToastTracer.mark(toast, Stage.FADE_IN_STARTED);
                 	
                 	shell.setAlpha(0);
                 	shell.setVisible(true);
+                	
+                	for (Control control : getControls(shell)) {
+                		control.addListener(SWT.MouseEnter, event -> {
+                			// stop fadeout
+                			if (fadeOutHandler != null) {
+                				if (shell.getAlpha() != transparency) {
+                					shell.setAlpha(transparency);
+                				}
+                				shell.getDisplay().timerExec(-1, fadeOutHandler);
+                			}
+                		});
+                		
+                		control.addListener(SWT.MouseExit, event -> {
+                			// start fade out process again
+                			restartFadeOutProcess();
+                		});
+                	}
                 }
 
-                int transparency = toast.getTransparency();
-                int displayTime = toast.getDisplayTime();
-                int fadeInSteps = Math.max(toast.getFadeInSteps(), 1);
-                int fadeInTime = toast.getFadeInTime();
-                
-                List<Control> controls = getControls(shell);
-				for (Control control : controls) {
-                    control.addListener(SWT.MouseEnter, event -> {
-						// stop fadeout
-						if (fadeOutHandler != null) {
-							if (shell.getAlpha() != transparency) {
-								shell.setAlpha(transparency);
-							}
-							shell.getDisplay().timerExec(-1, fadeOutHandler);
-						}
-					});
-                    
-                    control.addListener(SWT.MouseExit, event -> {
-						// start fade out process again
-						restartFadeOutProcess();
-					});
-        		}
+                // reduce or skip the animation under load
+                ToastAnimationPolicy policy = Toaster.getAnimationPolicy();
+                ToastAnimationMode mode = Toaster.getAnimationMode();
+                int fadeInSteps = policy.getSteps(mode, toast.getFadeInSteps());
+                int fadeInTime = policy.getTime(mode, toast.getFadeInTime());
                 
                 int cur = shell.getAlpha();
 				cur += Math.ceil(transparency * 1.0 / fadeInSteps);
 
-                if (cur > transparency) {
+                if (cur > transparency || mode == ToastAnimationMode.NONE) {
                     shell.setAlpha(transparency);
+                    ToastTracer.mark(toast, Stage.OPAQUE);
                     if (fadeOutHandler != null) {
-                    	shell.getDisplay().timerExec(displayTime, fadeOutHandler);
+                    	shell.getDisplay().timerExec(Toaster.getDisplayTime(toast), fadeOutHandler);
                     }
                     return;
                 }
@@ -663,7 +701,7 @@ public class ToastPopupImpl extends Shell implements ToastPopup {
         	Shell shell = ToastPopupImpl.this;
             if (shell.isDisposed()) { return; }
     		if (fadeOutHandler != null) {
-    			shell.getDisplay().timerExec(toast.getDisplayTime(), fadeOutHandler);
+    			shell.getDisplay().timerExec(Toaster.getDisplayTime(toast), fadeOutHandler);
 			}
     	}
     }
@@ -676,19 +714,23 @@ public class ToastPopupImpl extends Shell implements ToastPopup {
             	Shell shell = ToastPopupImpl.this;
                 if (shell.isDisposed()) { return; }
 
-                int fadeOutSteps = Math.max(toast.getFadeOutSteps(), 1);
+                // reduce or skip the animation under load
+                ToastAnimationPolicy policy = Toaster.getAnimationPolicy();
+                ToastAnimationMode mode = Toaster.getAnimationMode();
+                int fadeOutSteps = policy.getSteps(mode, toast.getFadeOutSteps());
+                int fadeOutTime = policy.getTime(mode, toast.getFadeOutTime());
                 
                 int cur = shell.getAlpha();
 				cur -= Math.ceil(toast.getTransparency() * 1.0 / fadeOutSteps);
 
-                if (cur <= 0) {
+                if (cur <= 0 || mode == ToastAnimationMode.NONE) {
                     shell.setAlpha(0);
                     shell.dispose();
                     return;
                 }
 
                 shell.setAlpha(cur);
-                shell.getDisplay().timerExec(toast.getFadeOutTime() / fadeOutSteps, this);
+                shell.getDisplay().timerExec(fadeOutTime / fadeOutSteps, this);
             } catch (Exception e) {
             	logger.error(e.getMessage(), e);
             }
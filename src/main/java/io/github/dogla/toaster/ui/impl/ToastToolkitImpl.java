@@ -15,16 +15,19 @@
  */
 package io.github.dogla.toaster.ui.impl;
 
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import org.eclipse.swt.events.ControlEvent;
 import org.eclipse.swt.events.ControlListener;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import io.github.dogla.toaster.Toast;
+import io.github.dogla.toaster.ToastActionExecutor;
 import io.github.dogla.toaster.ui.ToastPopup;
 import io.github.dogla.toaster.ui.ToastToolkit;
 
@@ -34,10 +37,13 @@ import io.github.dogla.toaster.ui.ToastToolkit;
  * @author Dominik
  */
 public class ToastToolkitImpl implements ToastToolkit {
+	
+	private static Logger logger = LoggerFactory.getLogger(ToastToolkitImpl.class);
 
 	private Shell mainShell;
 	private ToastUIThread toastThread;
 	private Rectangle mainShellClientArea;
+	private ToastActionExecutor actionExecutor = ToastActionExecutor.getDefault();
 	
 	/**
 	 * Constructor.
@@ -71,14 +77,65 @@ public class ToastToolkitImpl implements ToastToolkit {
 		this.toastThread.start();
 	}
 	
+	/**
+	 * Sets the executor used by the popups to execute selected actions.
+	 * 
+	 * @param actionExecutor the action executor
+	 */
+	public void setActionExecutor(ToastActionExecutor actionExecutor) {
+		this.actionExecutor = actionExecutor;
+	}
+	
+	@Override
+	public ToastActionExecutor getActionExecutor() {
+		return actionExecutor;
+	}
+	
 	@Override
 	public Display getPopupDisplay() {
 		return toastThread.display;
 	}
 
+	@Override
+	public void syncExec(Runnable runnable) {
+		toastThread.started.join().syncExec(runnable);
+	}
+	
+	@Override
+	public void asyncExec(Runnable runnable) {
+		asyncExec(runnable, e -> logger.error("Runnable could not be executed in the popup display thread: {}", e.getMessage(), e)); //$NON-NLS-1$
+	}
+	
+	@Override
+	public void asyncExec(Runnable runnable, Consumer<Throwable> failureHandler) {
+		CompletableFuture<Display> started = toastThread.started;
+		if (started.isDone()) {
+			// failures (e.g. a disposed display or a display which could not be created) are thrown to the caller
+			started.join().asyncExec(runnable);
+			return;
+		}
+		// do not block the caller if the display is not created yet
+		started.whenComplete((display, throwable) -> {
+			if (throwable != null) {
+				failureHandler.accept(throwable);
+				return;
+			}
+			try {
+				display.asyncExec(runnable);
+			} catch (RuntimeException e) {
+				failureHandler.accept(e);
+			}
+		});
+	}
+
 	@Override
 	public ToastPopup createPopup(Toast toast, Rectangle popupArea) {
-		return new ToastPopupImpl(toastThread.parentShell, toast, popupArea);
+		return new ToastPopupImpl(toastThread.parentShell, toast, popupArea, actionExecutor);
+	}
+
+	@Override
+	public CompletableFuture<Void> prepare(Toast toast) {
+		return ToastIconCache.getInstance().prepare(toast, toast.isSticky(), ToastPopupImpl.DEFAULT_CLOSE_BUTTON_ICON_SIZE);
 	}
 
 	@Override
@@ -87,10 +144,7 @@ public class ToastToolkitImpl implements ToastToolkit {
 		if (mainShell != null) {
 			result[0] = mainShellClientArea;
 		} else {
-			while (getPopupDisplay() == null) {
-				LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
-			}
-			getPopupDisplay().syncExec(() -> {
+			toastThread.started.join().syncExec(() -> {
 				result[0] = getPopupDisplay().getPrimaryMonitor().getClientArea();
 			});
 		}
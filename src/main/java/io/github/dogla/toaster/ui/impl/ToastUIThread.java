@@ -15,6 +15,8 @@
  */
 package io.github.dogla.toaster.ui.impl;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
 import org.slf4j.Logger;
@@ -31,6 +33,8 @@ public class ToastUIThread extends Thread {
 	
 	Display display;
 	Shell parentShell;
+	// completed after the display and the parent shell were created
+	final CompletableFuture<Display> started = new CompletableFuture<>();
 	
 	/**
 	 * Constructor.
@@ -41,19 +45,24 @@ public class ToastUIThread extends Thread {
 
 	@Override
 	public void run() {
-		display = new Display();
 		try {
+			display = new Display();
 			parentShell = new Shell(display);
+			started.complete(display);
 			
 			while (!parentShell.isDisposed()) {
 				if (!display.readAndDispatch()) {
 					display.sleep();
 				}
 			}
-		} catch (Exception e) {
+		} catch (Throwable e) {
+			// also errors (e.g. no SWT library for this platform), otherwise the callers would wait forever
 			logger.error(e.getMessage(), e);
+			started.completeExceptionally(e);
 		} finally {
-			display.dispose();
+			if (display != null) {
+				display.dispose();
+			}
 		}
 	}
 	
@@ -15,7 +15,6 @@
  */
 package io.github.dogla.toaster.ui.impl;
 
-import java.util.UUID;
 import java.util.function.Consumer;
 import java.util.function.IntConsumer;
 
@@ -74,9 +73,6 @@ public class ToasterDemo extends Shell {
 	 * @param args the arguments
 	 */
 	public static void main(String[] args) {
-		// warm up
-		UUID.randomUUID();
-
 		Display display = new Display();
 		ToasterDemo shell = new ToasterDemo(display);
 
@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executors of the toaster depending on the Java runtime.
+ * <p>
+ * This is the implementation for Java 21 and newer (<code>META-INF/versions/21</code> of the multi-release jar)
+ * which executes blocking tasks on virtual threads. It has to provide the same public API as the implementation for older runtimes.
+ * </p>
+ *
+ * @author Dominik
+ */
+public final class ToastExecutors {
+	
+	private ToastExecutors() {
+		// utility class
+	}
+	
+	/**
+	 * @return <code>true</code> if {@link #newBlockingExecutor(String, int, int)} uses virtual threads
+	 */
+	public static boolean isVirtualThreads() {
+		return true;
+	}
+	
+	/**
+	 * Creates an executor for tasks which may block (e.g. executables of actions or callers waiting for a toast).
+	 * On this runtime each task is executed by a new virtual thread and the limits are ignored.
+	 * 
+	 * @param threadName the name prefix of the threads
+	 * @param threads ignored
+	 * @param queueCapacity ignored
+	 * 
+	 * @return the executor
+	 */
+	public static ExecutorService newBlockingExecutor(String threadName, int threads, int queueCapacity) {
+		return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(threadName + " ", 1).factory()); //$NON-NLS-1$
+	}
+	
+	/**
+	 * Creates a bounded pool of daemon platform threads which are stopped if they are idle for 60 seconds.
+	 * If all threads are busy and the queue is full further tasks are rejected.
+	 * 
+	 * @param threadName the name prefix of the threads
+	 * @param threads the maximum number of threads
+	 * @param queueCapacity the maximum number of waiting tasks
+	 * 
+	 * @return the executor
+	 */
+	public static ExecutorService newBoundedExecutor(String threadName, int threads, int queueCapacity) {
+		AtomicInteger threadCount = new AtomicInteger();
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+			Thread thread = new Thread(runnable, threadName + " " + threadCount.incrementAndGet()); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		pool.allowCoreThreadTimeOut(true);
+		return pool;
+	}
+	
+}
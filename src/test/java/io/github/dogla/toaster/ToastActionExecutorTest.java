@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * Tests of the {@link ToastActionExecutor}.
+ *
+ * @author Dominik
+ */
+@SuppressWarnings("nls")
+public class ToastActionExecutorTest {
+	
+	private static final Toast TOAST = Toast.builder().title("Toast").build();
+	
+	/**
+	 * Executions and failures must be recorded per action.
+	 */
+	@Test
+	public void testStatistics() throws Exception {
+		ExecutorService service = Executors.newSingleThreadExecutor();
+		ToastActionExecutor executor = new ToastActionExecutor(service);
+		ToastAction open = ToastAction.builder().text("Open").executable(toast -> { /* nothing to do */ }).build();
+		ToastAction fail = ToastAction.builder().text("Fail").executable(toast -> { throw new IllegalStateException("expected"); }).build();
+		executor.execute(TOAST, open);
+		executor.execute(TOAST, open);
+		executor.execute(TOAST, fail);
+		// ignored
+		executor.execute(TOAST, ToastAction.builder().text("None").build());
+		service.shutdown();
+		assertTrue(service.awaitTermination(5, TimeUnit.SECONDS));
+		
+		assertEquals(2, executor.getStatistics().size());
+		assertEquals(2, executor.getStatistics().get("Open").getExecutions());
+		assertEquals(0, executor.getStatistics().get("Open").getFailed());
+		assertEquals(1, executor.getStatistics().get("Fail").getExecutions());
+		assertEquals(1, executor.getStatistics().get("Fail").getFailed());
+		executor.resetStatistics();
+		assertTrue(executor.getStatistics().isEmpty());
+	}
+	
+	/**
+	 * Only the statistics of the most recently executed action texts must be kept.
+	 */
+	@Test
+	public void testBoundedStatistics() {
+		ToastActionExecutor executor = new ToastActionExecutor(1, 1);
+		for (int i = 0; i < ToastActionExecutor.MAX_STATISTICS + 10; i++) {
+			executor.execute(TOAST, ToastAction.builder().text("Action " + i).executeInUIThread(true).executable(toast -> { /* nothing to do */ }).build());
+		}
+		assertEquals(ToastActionExecutor.MAX_STATISTICS, executor.getStatistics().size());
+		assertNull(executor.getStatistics().get("Action 0"));
+		assertEquals(1, executor.getStatistics().get("Action " + (ToastActionExecutor.MAX_STATISTICS + 9)).getExecutions());
+		executor.shutdown();
+	}
+	
+	/**
+	 * Executions must be rejected if the threads and the queue are exhausted.
+	 */
+	@Test
+	public void testRejected() throws Exception {
+		ToastActionExecutor executor = new ToastActionExecutor(1, 1);
+		CountDownLatch blocked = new CountDownLatch(1);
+		ToastAction block = ToastAction.builder().text("Block").executable(toast -> {
+			try {
+				blocked.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}).build();
+		try {
+			executor.execute(TOAST, block);
+			executor.execute(TOAST, block);
+			executor.execute(TOAST, block);
+			assertEquals(1, executor.getStatistics().get("Block").getRejected());
+		} finally {
+			blocked.countDown();
+			executor.shutdown();
+		}
+	}
+	
+	/**
+	 * Actions executed in the UI thread must run in the calling thread.
+	 */
+	@Test
+	public void testExecuteInUIThread() {
+		ToastActionExecutor executor = new ToastActionExecutor(1, 1);
+		AtomicReference<Thread> thread = new AtomicReference<>();
+		executor.execute(TOAST, ToastAction.builder().text("UI").executeInUIThread(true).executable(toast -> thread.set(Thread.currentThread())).build());
+		assertSame(Thread.currentThread(), thread.get());
+		executor.shutdown();
+	}
+	
+}
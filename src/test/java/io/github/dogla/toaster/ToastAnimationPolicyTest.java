@@ -0,0 +1,58 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests of the {@link ToastAnimationPolicy}.
+ *
+ * @author Dominik
+ */
+public class ToastAnimationPolicyTest {
+	
+	/**
+	 * The mode must depend on the pending toasts and the load of the display thread.
+	 */
+	@Test
+	public void testMode() {
+		ToastAnimationPolicy policy = ToastAnimationPolicy.DEFAULT;
+		assertEquals(ToastAnimationMode.FULL, policy.getMode(0, 0));
+		assertEquals(ToastAnimationMode.FULL, policy.getMode(3, 0.29));
+		assertEquals(ToastAnimationMode.REDUCED, policy.getMode(4, 0));
+		assertEquals(ToastAnimationMode.REDUCED, policy.getMode(0, 0.3));
+		assertEquals(ToastAnimationMode.NONE, policy.getMode(16, 0));
+		assertEquals(ToastAnimationMode.NONE, policy.getMode(0, 0.6));
+		assertEquals(ToastAnimationMode.FULL, ToastAnimationPolicy.ALWAYS_FULL.getMode(1000, 1.0));
+	}
+	
+	/**
+	 * The fade steps and times must be reduced by the reduction factor and skipped without animation.
+	 */
+	@Test
+	public void testStepsAndTime() {
+		ToastAnimationPolicy policy = ToastAnimationPolicy.DEFAULT.toBuilder().reductionFactor(0.5).build();
+		assertEquals(20, policy.getSteps(ToastAnimationMode.FULL, 20));
+		assertEquals(10, policy.getSteps(ToastAnimationMode.REDUCED, 20));
+		assertEquals(1, policy.getSteps(ToastAnimationMode.REDUCED, 1));
+		assertEquals(500, policy.getTime(ToastAnimationMode.FULL, 500));
+		assertEquals(250, policy.getTime(ToastAnimationMode.REDUCED, 500));
+		assertEquals(0, policy.getTime(ToastAnimationMode.NONE, 500));
+	}
+
+}
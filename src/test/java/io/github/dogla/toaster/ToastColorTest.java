@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Color;
+
+import org.junit.Test;
+
+/**
+ * Tests of the packed and interned {@link ToastColor}.
+ *
+ * @author Dominik
+ */
+@SuppressWarnings("nls")
+public class ToastColorTest {
+	
+	/**
+	 * The components must be packed into one int.
+	 */
+	@Test
+	public void testPacking() {
+		ToastColor color = new ToastColor(0x12, 0xAB, 0xFE);
+		assertEquals(0x12ABFE, color.getRGB());
+		assertEquals(0x12, color.getRed());
+		assertEquals(0xAB, color.getGreen());
+		assertEquals(0xFE, color.getBlue());
+		assertEquals("#12ABFE", color.toHEX());
+		assertEquals("#000000", ToastColor.of(0).toHEX());
+		assertEquals(color, ToastColor.of(0xFF12ABFE));
+	}
+	
+	/**
+	 * {@link ToastColor#of(int, int, int)} must return shared instances.
+	 */
+	@Test
+	public void testInterning() {
+		ToastColor color = ToastColor.of(30, 30, 30);
+		assertSame(color, ToastColor.of(30, 30, 30));
+		assertSame(color, ToastColor.of(0x1E1E1E));
+		assertSame(color.brighter(), color.brighter());
+		assertSame(color.darker(), color.darker());
+	}
+	
+	/**
+	 * The shades must match the ones of {@link Color}.
+	 */
+	@Test
+	public void testShades() {
+		for (int rgb : new int[] { 0x000000, 0x010203, 0x1E1E1E, 0x0000FF, 0x808080, 0xFFFFFF, 0x12ABFE }) {
+			ToastColor color = ToastColor.of(rgb);
+			Color awt = new Color(rgb);
+			assertEquals(awt.brighter().getRGB() & 0xFFFFFF, color.brighter().getRGB());
+			assertEquals(awt.darker().getRGB() & 0xFFFFFF, color.darker().getRGB());
+		}
+	}
+	
+	/**
+	 * Invalid components must be rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidComponent() {
+		ToastColor.of(0, 256, 0);
+	}
+
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Tests of the versioned {@link ToastContent} of a {@link Toast}.
+ *
+ * @author Dominik
+ */
+@SuppressWarnings("nls")
+public class ToastContentTest {
+	
+	/**
+	 * Changes must create a new version, unchanged values must keep the snapshot.
+	 */
+	@Test
+	public void testVersions() {
+		Toast toast = Toast.builder().title("Title").message("Message").build();
+		ToastContent content = toast.getContent();
+		assertSame(content, content.withTitle("Title"));
+		assertSame(content, content.withText("Title", "Message", null));
+		
+		ToastContent next = content.withTitle("Other");
+		assertNotSame(content, next);
+		assertEquals(content.getVersion() + 1, next.getVersion());
+		assertEquals("Message", next.getMessage());
+		assertEquals(ToastField.TITLE.mask(), content.diff(next));
+		assertEquals("Title", content.getTitle());
+	}
+	
+	/**
+	 * An update must replace the snapshot and notify the listeners with the diff.
+	 */
+	@Test
+	public void testUpdateContent() {
+		Toast toast = Toast.builder().title("Title").build();
+		List<ToastUpdateEvent> events = new ArrayList<>();
+		toast.addUpdateListener(events::add);
+		ToastContent before = toast.getContent();
+		ToastContent after = toast.updateContent(c -> c.withText("Title", "Message", "Details").withDisplayTime(1000));
+		assertSame(after, toast.getContent());
+		assertEquals(before.getVersion() + 2, after.getVersion());
+		assertEquals(1, events.size());
+		assertEquals(ToastField.MESSAGE.mask() | ToastField.DETAILS.mask() | ToastField.DISPLAY_TIME.mask(), events.get(0).getChangedFields());
+		
+		assertSame(after, toast.updateContent(c -> c.withDisplayTime(1000)));
+		assertEquals(1, events.size());
+	}
+	
+	/**
+	 * Concurrent updates must not get lost.
+	 * 
+	 * @throws Exception if the test failed
+	 */
+	@Test
+	public void testConcurrentUpdates() throws Exception {
+		Toast toast = Toast.builder().title("Title").displayTime(0).build();
+		long initialVersion = toast.getContent().getVersion();
+		int threadCount = 4;
+		int updates = 10_000;
+		AtomicInteger counter = new AtomicInteger();
+		Thread[] threads = new Thread[threadCount];
+		for (int i = 0; i < threadCount; i++) {
+			threads[i] = new Thread(() -> {
+				for (int j = 0; j < updates; j++) {
+					toast.updateContent(c -> c.withDisplayTime(c.getDisplayTime() + 1));
+					counter.incrementAndGet();
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(threadCount * updates, counter.get());
+		assertEquals(threadCount * updates, toast.getDisplayTime());
+		assertEquals(initialVersion + threadCount * updates, toast.getContent().getVersion());
+	}
+
+}
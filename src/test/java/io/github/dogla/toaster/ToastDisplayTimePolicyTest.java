@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests of the {@link ToastDisplayTimePolicy}.
+ *
+ * @author Dominik
+ */
+public class ToastDisplayTimePolicyTest {
+	
+	private static final ToastDisplayTimePolicy POLICY = ToastDisplayTimePolicy.builder().clearanceTime(10000).minDisplayTime(1000).build();
+	
+	/**
+	 * The display time must be shortened so that the pending toasts are shown within the clearance time.
+	 */
+	@Test
+	public void testShortenedDisplayTime() {
+		// 4 visible toasts drain 20 pending toasts in 10 s with 2 s display time
+		assertEquals(2000, POLICY.getDisplayTime(5000, 1000, 20, 0, 4, 0));
+		// half of the clearance time elapsed
+		assertEquals(1000, POLICY.getDisplayTime(5000, 1000, 20, 5000, 4, 0));
+		// 1 new toast per second raises the required rate from 2 to 3 toasts per second
+		assertEquals(1333, POLICY.getDisplayTime(5000, 1000, 20, 0, 4, 1));
+	}
+	
+	/**
+	 * The display time must be bounded by the display time of the toast and the minimum display time.
+	 */
+	@Test
+	public void testBounds() {
+		assertEquals(5000, POLICY.getDisplayTime(5000, 1000, 0, 0, 4, 10));
+		assertEquals(5000, POLICY.getDisplayTime(5000, 1000, 1, 0, 4, 0));
+		assertEquals(1000, POLICY.getDisplayTime(5000, 1000, 1000, 0, 4, 0));
+		assertEquals(1000, POLICY.getDisplayTime(5000, 1000, 20, 20000, 4, 0));
+		assertEquals(800, POLICY.getDisplayTime(800, 1000, 20, 0, 4, 0));
+		
+		Toast toast = Toast.builder().title("Title").displayTime(5000).minDisplayTime(3000).build(); //$NON-NLS-1$
+		assertEquals(3000, POLICY.getDisplayTime(toast, 1000, 0, 4, 0));
+		Toast withoutMinimum = Toast.builder().title("Title").displayTime(5000).build(); //$NON-NLS-1$
+		assertEquals(1000, POLICY.getDisplayTime(withoutMinimum, 1000, 0, 4, 0));
+	}
+
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests of the {@link ToastExecutors}.
+ *
+ * @author Dominik
+ */
+@SuppressWarnings("nls")
+public class ToastExecutorsTest {
+	
+	private static final long TIMEOUT = 5000;
+	
+	/**
+	 * The bounded executor must use named daemon threads and reject tasks if it is saturated.
+	 * 
+	 * @throws Exception if the test failed
+	 */
+	@Test
+	public void testBoundedExecutor() throws Exception {
+		ExecutorService executor = ToastExecutors.newBoundedExecutor("Test", 1, 1);
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			Thread[] thread = new Thread[1];
+			CountDownLatch started = new CountDownLatch(1);
+			executor.execute(() -> {
+				thread[0] = Thread.currentThread();
+				started.countDown();
+				await(release);
+			});
+			assertTrue(started.await(TIMEOUT, TimeUnit.MILLISECONDS));
+			assertEquals("Test 1", thread[0].getName());
+			assertTrue(thread[0].isDaemon());
+			
+			// one task is queued, the next one is rejected
+			executor.execute(() -> { /* nothing to do */ });
+			try {
+				executor.execute(() -> { /* nothing to do */ });
+				throw new AssertionError("The task was not rejected.");
+			} catch (RejectedExecutionException e) {
+				// expected
+			}
+		} finally {
+			release.countDown();
+			executor.shutdown();
+		}
+		assertTrue(executor.awaitTermination(TIMEOUT, TimeUnit.MILLISECONDS));
+	}
+	
+	/**
+	 * The blocking executor must not be limited by the number of platform threads on runtimes with virtual threads.
+	 * 
+	 * @throws Exception if the test failed
+	 */
+	@Test
+	public void testBlockingExecutor() throws Exception {
+		int tasks = ToastExecutors.isVirtualThreads() ? 1000 : 4;
+		ExecutorService executor = ToastExecutors.newBlockingExecutor("Test", 4, 1);
+		CountDownLatch running = new CountDownLatch(tasks);
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			for (int i = 0; i < tasks; i++) {
+				executor.execute(() -> {
+					running.countDown();
+					await(release);
+				});
+			}
+			// all tasks block at the same time
+			assertTrue(running.await(TIMEOUT, TimeUnit.MILLISECONDS));
+		} finally {
+			release.countDown();
+			executor.shutdown();
+		}
+		assertTrue(executor.awaitTermination(TIMEOUT, TimeUnit.MILLISECONDS));
+	}
+	
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(TIMEOUT, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
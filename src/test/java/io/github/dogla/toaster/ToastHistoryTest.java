@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Test;
+
+/**
+ * Tests of the {@link ToastHistory}.
+ *
+ * @author Dominik
+ */
+@SuppressWarnings("nls")
+public class ToastHistoryTest {
+	
+	/**
+	 * The search must find the entries containing all words, the latest entry first.
+	 */
+	@Test
+	public void testSearch() {
+		ToastHistory history = new ToastHistory(10);
+		history.record(Toast.builder().title("Disk full").message("Drive C").build(), 0, 10);
+		history.record(Toast.builder().title("Connection lost").build(), 0, 20);
+		history.record(Toast.builder().title("Disk almost full").message("Drive D").build(), 0, 30);
+		
+		List<ToastHistory.Entry> result = history.search("FULL disk", 10);
+		assertEquals(2, result.size());
+		assertEquals("Disk almost full", result.get(0).getTitle());
+		assertEquals("Disk full", result.get(1).getTitle());
+		assertEquals(1, history.search("disk full", 1).size());
+		assertEquals("Drive C", history.search("full c", 10).get(0).getMessage());
+		assertTrue(history.search("disk lost", 10).isEmpty());
+		assertEquals(3, history.search("", 10).size());
+	}
+	
+	/**
+	 * The search must not depend on the default locale.
+	 */
+	@Test
+	public void testLocale() {
+		Locale locale = Locale.getDefault();
+		Locale.setDefault(new Locale("tr", "TR"));
+		try {
+			ToastHistory history = new ToastHistory(10);
+			history.record(Toast.builder().title("DISK FULL").build(), 0, 10);
+			assertEquals(1, history.search("disk", 10).size());
+		} finally {
+			Locale.setDefault(locale);
+		}
+	}
+	
+	/**
+	 * The oldest entries must be evicted and must not be found anymore.
+	 */
+	@Test
+	public void testEviction() {
+		ToastHistory history = new ToastHistory(3);
+		for (int i = 0; i < 5; i++) {
+			history.record(Toast.builder().title("Toast " + i).message(i == 0 ? "first" : null).build(), i, i);
+		}
+		assertEquals(3, history.size());
+		assertEquals(3, history.getCapacity());
+		assertEquals("Toast 4", history.getLatest(1).get(0).getTitle());
+		assertEquals("Toast 2", history.getLatest(3).get(2).getTitle());
+		assertTrue(history.search("first", 10).isEmpty());
+		assertTrue(history.search("1", 10).isEmpty());
+		assertEquals(1, history.search("toast 3", 10).size());
+		
+		history.clear();
+		assertEquals(0, history.size());
+		assertTrue(history.search("toast", 10).isEmpty());
+	}
+	
+	/**
+	 * The range query must return the entries closed in the given range, the oldest entry first.
+	 */
+	@Test
+	public void testRange() {
+		ToastHistory history = new ToastHistory(10);
+		history.record(Toast.builder().title("A").build(), 0, 10);
+		history.record(Toast.builder().title("B").build(), 0, 20);
+		history.record(Toast.builder().title("C").build(), 0, 30);
+		// the system clock was changed
+		history.record(Toast.builder().title("D").build(), 0, 25);
+		
+		List<ToastHistory.Entry> range = history.getRange(15, 30);
+		assertEquals(1, range.size());
+		assertEquals("B", range.get(0).getTitle());
+		assertEquals(4, history.getRange(0, Long.MAX_VALUE).size());
+		assertEquals("D", history.getRange(30, 31).get(1).getTitle());
+	}
+	
+	/**
+	 * The icons must only be kept if this is enabled.
+	 */
+	@Test
+	public void testRetainIcons() {
+		byte[] icon = new byte[] { 1, 2, 3 };
+		ToastHistory history = new ToastHistory(10);
+		assertFalse(history.isRetainIcons());
+		history.record(Toast.builder().title("Icon").icon(icon).build(), 0, 10);
+		assertNull(history.getLatest(1).get(0).getIcon());
+		
+		ToastHistory retaining = new ToastHistory(10, true);
+		assertTrue(retaining.isRetainIcons());
+		Toast toast = Toast.builder().title("Icon").icon(icon).build();
+		retaining.record(toast, 0, 10);
+		ToastHistory.Entry entry = retaining.getLatest(1).get(0);
+		assertSame(icon, entry.getIcon());
+		assertEquals(toast.getId(), entry.getId());
+	}
+	
+}
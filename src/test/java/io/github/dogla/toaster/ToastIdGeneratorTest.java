@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests of the {@link ToastIdGenerator}.
+ *
+ * @author Dominik
+ */
+@SuppressWarnings("nls")
+public class ToastIdGeneratorTest {
+	
+	/**
+	 * Restores the default generator.
+	 */
+	@After
+	public void tearDown() {
+		Toaster.setIdGenerator(ToastIdGenerator.sequential());
+	}
+	
+	/**
+	 * The sequential ids must be unique per generator and across generators.
+	 */
+	@Test
+	public void testSequential() {
+		ToastIdGenerator generator = ToastIdGenerator.sequential();
+		Set<String> ids = new HashSet<>();
+		for (int i = 0; i < 10_000; i++) {
+			assertTrue(ids.add(generator.nextId()));
+		}
+		String id = generator.nextId();
+		String prefix = id.substring(0, id.lastIndexOf('-') + 1);
+		assertTrue(generator.nextId().startsWith(prefix));
+		assertEquals(Long.toString(10_003, Character.MAX_RADIX), generator.nextId().substring(prefix.length()));
+	}
+	
+	/**
+	 * The builders and copies must use the configured generator.
+	 */
+	@Test
+	public void testConfiguredGenerator() {
+		Toaster.setIdGenerator(() -> "fixed");
+		Toast toast = Toast.builder().title("Title").build();
+		assertEquals("fixed", toast.getId());
+		Toaster.setIdGenerator(ToastIdGenerator.uuid());
+		Toast copy = toast.copy().build();
+		assertNotEquals(toast.getId(), copy.getId());
+		assertEquals(36, copy.getId().length());
+	}
+	
+}
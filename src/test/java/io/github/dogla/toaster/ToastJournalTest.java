@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the {@link ToastJournal}.
+ *
+ * @author Dominik
+ */
+@SuppressWarnings("nls")
+public class ToastJournalTest {
+	
+	/** The folder of the journal files */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	/**
+	 * The unfinished toasts must be read again after reopening the journal.
+	 */
+	@Test
+	public void testUnfinishedToasts() throws Exception {
+		Path file = folder.getRoot().toPath().resolve("toasts.journal");
+		Toast first = Toast.builder().title("First").message("Message").icon("icon.png").position(ToastPosition.TOP_LEFT).sticky(true).ttl(60_000).build();
+		Toast second = Toast.builder().title("Second").details("Details").build();
+		Toast third = Toast.builder().title("Third").build();
+		try (ToastJournal journal = new ToastJournal(file)) {
+			assertTrue(journal.getUnfinishedToasts().isEmpty());
+			journal.append(first);
+			journal.append(second);
+			journal.append(third);
+			journal.markDone(second.getId());
+			journal.flush().join();
+		}
+		try (ToastJournal journal = new ToastJournal(file)) {
+			List<Toast> toasts = journal.getUnfinishedToasts();
+			assertEquals(2, toasts.size());
+			Toast toast = toasts.get(0);
+			assertEquals(first.getId(), toast.getId());
+			assertEquals("First", toast.getTitle());
+			assertEquals("Message", toast.getMessage());
+			assertEquals("icon.png", toast.getIcon());
+			assertEquals(ToastPosition.TOP_LEFT, toast.getPosition());
+			assertTrue(toast.isSticky());
+			assertEquals(first.getDeadline(), toast.getDeadline());
+			assertEquals(third.getId(), toasts.get(1).getId());
+			assertEquals(0, toasts.get(1).getDeadline());
+		}
+	}
+	
+	/**
+	 * The space of the finished toasts must be reused if the journal is full.
+	 */
+	@Test
+	public void testCompaction() throws Exception {
+		Path file = folder.getRoot().toPath().resolve("small.journal");
+		List<Toast> unfinished = new ArrayList<>();
+		try (ToastJournal journal = new ToastJournal(file, 4096, ToastJournal.DEFAULT_COMPACTION_INTERVAL)) {
+			// many times the capacity of the journal
+			for (int i = 0; i < 1000; i++) {
+				Toast toast = Toast.builder().title("Toast " + i).message("A message which takes some space in the journal").build();
+				journal.append(toast);
+				if (i % 100 == 0) {
+					unfinished.add(toast);
+				} else {
+					journal.markDone(toast.getId());
+				}
+			}
+			journal.compact().join();
+		}
+		try (ToastJournal journal = new ToastJournal(file, 4096, ToastJournal.DEFAULT_COMPACTION_INTERVAL)) {
+			List<Toast> toasts = journal.getUnfinishedToasts();
+			assertEquals(unfinished.size(), toasts.size());
+			for (int i = 0; i < toasts.size(); i++) {
+				assertEquals(unfinished.get(i).getId(), toasts.get(i).getId());
+			}
+		}
+	}
+	
+	/**
+	 * A compaction interrupted while copying the records into the inactive segment must not affect the active segment.
+	 */
+	@Test
+	public void testInterruptedCompaction() throws Exception {
+		Path file = folder.getRoot().toPath().resolve("interrupted.journal");
+		Toast unfinished = Toast.builder().title("Unfinished").build();
+		try (ToastJournal journal = new ToastJournal(file, 4096, ToastJournal.DEFAULT_COMPACTION_INTERVAL, 0)) {
+			journal.append(unfinished);
+			Toast done = Toast.builder().title("Done").build();
+			journal.append(done);
+			journal.markDone(done.getId());
+			journal.compact().join();
+		}
+		// garbage in the inactive segment, like a copy which was not completed
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer header = ByteBuffer.allocate(16);
+			channel.read(header, 0);
+			int activeSegment = header.getInt(8);
+			int segmentSize = header.getInt(12);
+			ByteBuffer garbage = ByteBuffer.allocate(segmentSize);
+			new Random(42).nextBytes(garbage.array());
+			channel.write(garbage, 16 + (1 - activeSegment) * (long) segmentSize);
+		}
+		try (ToastJournal journal = new ToastJournal(file)) {
+			List<Toast> toasts = journal.getUnfinishedToasts();
+			assertEquals(1, toasts.size());
+			assertEquals(unfinished.getId(), toasts.get(0).getId());
+		}
+	}
+	
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests of the {@link ToastMetrics}.
+ *
+ * @author Dominik
+ */
+public class ToastMetricsTest {
+	
+	/**
+	 * The maximum number of pending toasts must be kept until the reset, which starts with the current number.
+	 */
+	@Test
+	public void testMaxPending() {
+		ToastMetrics metrics = new ToastMetrics();
+		metrics.updateQueue(5, 1);
+		metrics.updateQueue(2, 1);
+		assertEquals(5, metrics.getMaxPending());
+		metrics.reset();
+		assertEquals(2, metrics.getMaxPending());
+	}
+	
+	/**
+	 * A reset concurrent to the queue updates must never leave a maximum below the current number of pending toasts.
+	 */
+	@Test
+	public void testConcurrentReset() throws Exception {
+		ToastMetrics metrics = new ToastMetrics();
+		Thread updater = new Thread(() -> {
+			for (int i = 0; i < 100_000; i++) {
+				metrics.updateQueue(i, 0);
+			}
+		});
+		updater.start();
+		while (updater.isAlive()) {
+			metrics.reset();
+		}
+		updater.join();
+		assertTrue(metrics.getMaxPending() >= metrics.getPending());
+	}
+	
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests of the {@link ToastSizePredictor}.
+ *
+ * @author Dominik
+ */
+@SuppressWarnings("nls")
+public class ToastSizePredictorTest {
+	
+	/**
+	 * The recorded size must be predicted for toasts of the same shape.
+	 */
+	@Test
+	public void testRecordedSize() {
+		ToastSizePredictor predictor = new ToastSizePredictor();
+		predictor.record(Toast.builder().title("Title").message("Message 1").build(), 350, 123);
+		long size = predictor.predict(Toast.builder().title("Other").message("Message 2").build());
+		assertEquals(350, ToastSizePredictor.width(size));
+		assertEquals(123, ToastSizePredictor.height(size));
+	}
+	
+	/**
+	 * Only sizes recorded for toasts of the same shape are measured, all others are estimated.
+	 */
+	@Test
+	public void testMeasured() {
+		ToastSizePredictor predictor = new ToastSizePredictor();
+		Toast toast = Toast.builder().title("Title").message("Message 1").build();
+		assertFalse(predictor.isMeasured(toast));
+		predictor.record(toast, 350, 123);
+		assertTrue(predictor.isMeasured(Toast.builder().title("Other").message("Message 2").build()));
+		assertFalse(predictor.isMeasured(Toast.builder().title("Title").message(repeat("Message ", 50)).build()));
+	}
+	
+	/**
+	 * The estimated size must respect the size constraints of the toast and grow with the text.
+	 */
+	@Test
+	public void testEstimate() {
+		ToastSizePredictor predictor = new ToastSizePredictor();
+		long small = predictor.predict(Toast.builder().title("Title").message("Message").build());
+		long large = predictor.predict(Toast.builder().title("Title").message(repeat("Message ", 50)).build());
+		assertEquals(350, ToastSizePredictor.width(small));
+		assertEquals(350, ToastSizePredictor.width(large));
+		assertTrue(ToastSizePredictor.height(large) > ToastSizePredictor.height(small));
+		
+		long limited = predictor.predict(Toast.builder().title("Title").message(repeat("Message ", 50)).maxHeight(80).build());
+		assertEquals(80, ToastSizePredictor.height(limited));
+	}
+	
+	private static String repeat(String text, int count) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			sb.append(text);
+		}
+		return sb.toString();
+	}
+	
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * Tests of the {@link ToastStyle} handling of the toast builder.
+ *
+ * @author Dominik
+ */
+@SuppressWarnings("nls")
+public class ToastStyleTest {
+	
+	/**
+	 * Toasts without style attributes must share the default style.
+	 */
+	@Test
+	public void testDefaultStyle() {
+		Toast toast = Toast.builder().title("Title").build();
+		assertSame(ToastStyle.DARK, toast.getStyle());
+		assertSame(ToastStyle.DARK, Toast.builder().title("Other").build().getStyle());
+		assertEquals(350, toast.getMaxWidth());
+		assertEquals(new ToastColor(30, 30, 30), toast.getBackgroundColor());
+	}
+	
+	/**
+	 * Style attributes must derive a new style from the current one without changing the current one.
+	 */
+	@Test
+	public void testDerivedStyle() {
+		Toast.ToastBuilder builder = Toast.builder().title("Title").style(ToastStyle.LIGHT).maxWidth(400);
+		Toast toast = builder.build();
+		assertEquals(400, toast.getMaxWidth());
+		assertEquals(ToastStyle.LIGHT.getBackgroundColor(), toast.getBackgroundColor());
+		assertEquals(350, ToastStyle.LIGHT.getMaxWidth());
+		// built only once per builder
+		assertSame(toast.getStyle(), builder.build().getStyle());
+		
+		Toast copy = toast.copy().maxHeight(200).build();
+		assertNotSame(toast.getStyle(), copy.getStyle());
+		assertEquals(400, copy.getMaxWidth());
+		assertEquals(200, copy.getMaxHeight());
+		assertEquals(-1, toast.getMaxHeight());
+	}
+	
+	/**
+	 * Setting a style must discard the previously set style attributes.
+	 */
+	@Test
+	public void testStyleDiscardsAttributes() {
+		Toast toast = Toast.builder().title("Title").maxWidth(400).style(ToastStyle.LIGHT).build();
+		assertSame(ToastStyle.LIGHT, toast.getStyle());
+		assertEquals(350, toast.getMaxWidth());
+	}
+	
+}
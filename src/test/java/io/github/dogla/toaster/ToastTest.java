@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests of the {@link Toast} builder.
+ *
+ * @author Dominik
+ */
+@SuppressWarnings("nls")
+public class ToastTest {
+	
+	/**
+	 * The time to live must be resolved to the deadline when the toast is built.
+	 * 
+	 * @throws Exception if the test failed
+	 */
+	@Test
+	public void testTtl() throws Exception {
+		Toast.ToastBuilder builder = Toast.builder().title("Title").ttl(1000);
+		Thread.sleep(50);
+		long before = System.currentTimeMillis();
+		Toast toast = builder.build();
+		long after = System.currentTimeMillis();
+		assertTrue(toast.getDeadline() >= before + 1000 && toast.getDeadline() <= after + 1000);
+		assertFalse(toast.isExpired());
+		assertTrue(toast.isExpired(toast.getDeadline()));
+	}
+	
+	/**
+	 * An explicit deadline must discard the time to live and vice versa.
+	 */
+	@Test
+	public void testDeadline() {
+		assertEquals(1234, Toast.builder().title("Title").ttl(1000).deadline(1234).build().getDeadline());
+		assertTrue(Toast.builder().title("Title").deadline(1234).ttl(1000).build().getDeadline() > 1234);
+		Toast toast = Toast.builder().title("Title").build();
+		assertEquals(0, toast.getDeadline());
+		assertFalse(toast.isExpired(Long.MAX_VALUE));
+	}
+	
+}
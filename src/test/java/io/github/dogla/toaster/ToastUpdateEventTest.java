@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests of the update events of a {@link Toast}.
+ *
+ * @author Dominik
+ */
+@SuppressWarnings({ "nls", "deprecation" })
+public class ToastUpdateEventTest {
+	
+	/**
+	 * Each update must notify the listeners once with the changed fields.
+	 */
+	@Test
+	public void testUpdateEvents() {
+		Toast toast = Toast.builder().title("Title").message("Message").build();
+		List<ToastUpdateEvent> events = new ArrayList<>();
+		toast.addUpdateListener(events::add);
+		
+		toast.updateTitle("Title");
+		assertTrue(events.isEmpty());
+		
+		toast.updateTitle("New title");
+		toast.updateDisplayTime(1000);
+		assertEquals(2, events.size());
+		assertEquals(ToastField.TITLE.mask(), events.get(0).getChangedFields());
+		assertTrue(events.get(1).isChanged(ToastField.DISPLAY_TIME));
+		
+		events.clear();
+		toast.updateText("New title", "New message", "Details");
+		assertEquals(1, events.size());
+		ToastUpdateEvent event = events.get(0);
+		assertFalse(event.isChanged(ToastField.TITLE));
+		assertTrue(event.isChanged(ToastField.MESSAGE));
+		assertTrue(event.isChanged(ToastField.DETAILS));
+		assertEquals("New message", toast.getMessage());
+	}
+	
+	/**
+	 * Removed listeners must not be notified anymore.
+	 */
+	@Test
+	public void testRemoveListener() {
+		Toast toast = Toast.builder().title("Title").build();
+		List<ToastUpdateEvent> first = new ArrayList<>();
+		List<ToastUpdateEvent> second = new ArrayList<>();
+		ToastUpdateListener firstListener = first::add;
+		toast.addUpdateListener(firstListener);
+		toast.addUpdateListener(second::add);
+		toast.updateMessage("Message");
+		toast.removeUpdateListener(firstListener);
+		toast.updateMessage("Other message");
+		assertEquals(1, first.size());
+		assertEquals(2, second.size());
+	}
+	
+	/**
+	 * The deprecated property change listeners must still be notified.
+	 */
+	@Test
+	public void testPropertyChangeListener() {
+		Toast toast = Toast.builder().title("Title").build();
+		List<PropertyChangeEvent> events = new ArrayList<>();
+		toast.addPropertyChangeListener(events::add);
+		toast.updateText("Title", "Message", null);
+		assertEquals(1, events.size());
+		assertEquals("message", events.get(0).getPropertyName());
+		assertEquals("Message", events.get(0).getNewValue());
+	}
+
+}
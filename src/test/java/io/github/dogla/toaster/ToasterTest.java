@@ -0,0 +1,684 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import org.eclipse.swt.graphics.Rectangle;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.github.dogla.toaster.ui.ToastPopup;
+import io.github.dogla.toaster.ui.headless.HeadlessToastPopup;
+import io.github.dogla.toaster.ui.headless.HeadlessToastToolkit;
+
+/**
+ * Tests of the queueing and placement of the {@link Toaster} using the {@link HeadlessToastToolkit}.
+ *
+ * @author Dominik
+ */
+@SuppressWarnings("nls")
+public class ToasterTest {
+	
+	private static final Rectangle AREA = new Rectangle(0, 0, 800, 450);
+	private static final int POPUP_WIDTH = 300;
+	private static final int POPUP_HEIGHT = 100;
+	private static final long TIMEOUT = 5000;
+	
+	private HeadlessToastToolkit toolkit;
+	
+	/**
+	 * Creates the toolkit.
+	 */
+	@Before
+	public void setUp() {
+		toolkit = new HeadlessToastToolkit(AREA);
+		toolkit.setPopupSize(POPUP_WIDTH, POPUP_HEIGHT);
+	}
+	
+	/**
+	 * Removes the remaining toasts, because the toast manager is shared by all tests.
+	 */
+	@After
+	public void tearDown() throws Exception {
+		toolkit.setAutoClose(false);
+		Toaster.cancelIf(toast -> true);
+		toolkit.closeAll();
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while (!Toaster.isEmpty() && System.currentTimeMillis() < end) {
+			Thread.sleep(10);
+		}
+		assertTrue(Toaster.isEmpty());
+	}
+	
+	/**
+	 * The popups must be stacked at the edge of the area without overlapping each other.
+	 */
+	@Test
+	public void testPlacement() {
+		List<Toast> toasts = toast(20);
+		HeadlessToastPopup[] popups = toolkit.getVisiblePopups();
+		assertTrue(popups.length > 1 && popups.length < toasts.size());
+		assertNoOverlap();
+		for (HeadlessToastPopup popup : popups) {
+			assertEquals(AREA.x + AREA.width - POPUP_WIDTH, popup.getX());
+		}
+		// bottom up
+		assertEquals(AREA.y + AREA.height - POPUP_HEIGHT, popups[0].getY());
+		assertTrue(popups[1].getY() < popups[0].getY());
+	}
+	
+	/**
+	 * The pending toasts must be shown in the order of their submission when the visible popups are closed.
+	 */
+	@Test
+	public void testQueueDraining() {
+		List<Toast> toasts = toast(20);
+		List<Toast> shown = new ArrayList<>();
+		collectShown(shown);
+		while (toolkit.closeOldest()) {
+			assertNoOverlap();
+			collectShown(shown);
+		}
+		assertEquals(toasts, shown);
+		assertTrue(Toaster.isEmpty());
+	}
+	
+	/**
+	 * A toast higher than the area must be shown alone instead of stalling the queue.
+	 */
+	@Test
+	public void testOversizedToast() throws Exception {
+		toolkit.setPopupSize(toast -> POPUP_WIDTH, toast -> "oversized".equals(toast.getTitle()) ? AREA.height * 2 : POPUP_HEIGHT);
+		ToastHandle before = submit(Toast.builder().title("before").build());
+		ToastHandle oversized = submit(Toast.builder().title("oversized").build());
+		ToastHandle after = submit(Toast.builder().title("after").build());
+		assertTrue(before.shown().isDone());
+		assertFalse(oversized.shown().isDone());
+		
+		toolkit.closeOldest();
+		oversized.shown().get(TIMEOUT, TimeUnit.MILLISECONDS);
+		HeadlessToastPopup popup = toolkit.getVisiblePopups()[0];
+		assertEquals(oversized.getToast(), popup.getToast());
+		assertFalse(after.shown().isDone());
+		
+		toolkit.closeOldest();
+		after.shown().get(TIMEOUT, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * A toast with an overestimated size must be shown with its real size instead of waiting for a larger free area.
+	 */
+	@Test
+	public void testOverestimatedSize() throws Exception {
+		ToastHandle visible = submit(Toast.builder().title("Visible").build());
+		assertTrue(visible.shown().isDone());
+		StringBuilder message = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			message.append("Overestimated ");
+		}
+		// estimated far higher than the area, but the popup of the toolkit has the usual size
+		ToastHandle handle = submit(Toast.builder().title("Overestimated").message(message.toString()).maxWidth(POPUP_WIDTH).build());
+		assertTrue(handle.shown().isDone());
+		assertEquals(2, toolkit.getVisiblePopupCount());
+		assertNoOverlap();
+	}
+	
+	/**
+	 * Only the popups of shown toasts must be created, the pending toasts are queued without popups.
+	 */
+	@Test
+	public void testLazyPopupCreation() {
+		List<Toast> toasts = toast(20);
+		int visible = toolkit.getVisiblePopupCount();
+		assertTrue(visible < toasts.size());
+		assertEquals(visible, toolkit.getCreatedPopupCount());
+		toolkit.closeOldest();
+		assertEquals(visible + 1, toolkit.getCreatedPopupCount());
+		toolkit.closeAll();
+		assertEquals(toasts.size(), toolkit.getCreatedPopupCount());
+	}
+	
+	/**
+	 * The futures of the handles must follow the lifecycle of the toasts.
+	 */
+	@Test
+	public void testSubmit() throws Exception {
+		List<ToastHandle> handles = submit(20);
+		int visible = toolkit.getVisiblePopupCount();
+		for (int i = 0; i < handles.size(); i++) {
+			assertEquals(i < visible, handles.get(i).shown().isDone());
+		}
+		toolkit.closeOldest();
+		assertNotNull(handles.get(0).closed().get(TIMEOUT, TimeUnit.MILLISECONDS));
+		assertNull(handles.get(0).actionSelected().get(TIMEOUT, TimeUnit.MILLISECONDS));
+		assertSame(handles.get(visible).getToast(), handles.get(visible).shown().get(TIMEOUT, TimeUnit.MILLISECONDS));
+		
+		toolkit.closeAll();
+		for (ToastHandle handle : handles) {
+			handle.closed().get(TIMEOUT, TimeUnit.MILLISECONDS);
+		}
+	}
+	
+	/**
+	 * The handle must fail if the toast could not be prepared or passed to the popup display thread.
+	 */
+	@Test
+	public void testFailedSubmit() throws Exception {
+		IllegalStateException failure = new IllegalStateException("Failure");
+		assertFailed(failure, Toaster.submit(new HeadlessToastToolkit(AREA) {
+			@Override
+			public CompletableFuture<Void> prepare(Toast toast) {
+				CompletableFuture<Void> future = new CompletableFuture<>();
+				future.completeExceptionally(failure);
+				return future;
+			}
+		}, Toast.builder().title("Failed preparation").build()));
+		assertFailed(failure, Toaster.submit(new HeadlessToastToolkit(AREA) {
+			@Override
+			public CompletableFuture<Void> prepare(Toast toast) {
+				throw failure;
+			}
+		}, Toast.builder().title("Throwing preparation").build()));
+		assertFailed(failure, Toaster.submit(new HeadlessToastToolkit(AREA) {
+			@Override
+			public void asyncExec(Runnable runnable) {
+				// e.g. a disposed display
+				throw failure;
+			}
+		}, Toast.builder().title("Disposed display").build()));
+		assertFailed(failure, Toaster.submit(new HeadlessToastToolkit(AREA) {
+			@Override
+			public void asyncExec(Runnable runnable, Consumer<Throwable> failureHandler) {
+				// e.g. a display which could not be created
+				new Thread(() -> failureHandler.accept(failure)).start();
+			}
+		}, Toast.builder().title("Display not created").build()));
+		assertFailed(failure, Toaster.submit(new HeadlessToastToolkit(AREA) {
+			@Override
+			public ToastPopup createPopup(Toast toast, Rectangle area) {
+				throw failure;
+			}
+		}, Toast.builder().title("Failed popup").build()));
+	}
+	
+	/**
+	 * An invalid toast must reject the batch before any toast was prepared, 
+	 * a failed preparation must only drop its own toast.
+	 */
+	@Test
+	public void testToastAllFailures() throws Exception {
+		List<Toast> prepared = new CopyOnWriteArrayList<>();
+		IllegalStateException failure = new IllegalStateException("Failure");
+		toolkit = new HeadlessToastToolkit(AREA) {
+			@Override
+			public CompletableFuture<Void> prepare(Toast toast) {
+				prepared.add(toast);
+				if ("failing".equals(toast.getTitle())) {
+					CompletableFuture<Void> future = new CompletableFuture<>();
+					future.completeExceptionally(failure);
+					return future;
+				}
+				if ("throwing".equals(toast.getTitle())) {
+					throw failure;
+				}
+				return super.prepare(toast);
+			}
+		};
+		toolkit.setPopupSize(POPUP_WIDTH, POPUP_HEIGHT);
+		try {
+			Toaster.toastAll(toolkit, Arrays.asList(Toast.builder().title("valid").build(), null));
+			fail("Invalid batch was accepted.");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		assertTrue(prepared.isEmpty());
+		
+		long failedBefore = Toaster.getMetrics().getFailed();
+		List<Toast> toasts = Arrays.asList(Toast.builder().title("first").build(), Toast.builder().title("failing").build(), 
+				Toast.builder().title("throwing").build(), Toast.builder().title("last").build());
+		Toaster.toastAll(toolkit, toasts);
+		assertEquals(4, prepared.size());
+		assertEquals(2, Toaster.getMetrics().getFailed() - failedBefore);
+		List<Toast> shown = new ArrayList<>();
+		collectShown(shown);
+		assertEquals(Arrays.asList(toasts.get(0), toasts.get(3)), shown);
+	}
+	
+	/**
+	 * The handles must be completed after the lock of the toaster was released, 
+	 * so dependent actions may wait for other threads using the toaster.
+	 */
+	@Test
+	public void testCompletionOutsideOfLock() throws Exception {
+		CompletableFuture<Boolean> otherThreadDone = new CompletableFuture<>();
+		List<ToastHandle> handles = submit(20);
+		ToastHandle pending = handles.get(toolkit.getVisiblePopupCount());
+		pending.shown().thenRun(() -> {
+			Thread thread = new Thread(() -> Toaster.cancelIf(toast -> false));
+			thread.start();
+			try {
+				thread.join(TIMEOUT);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			otherThreadDone.complete(!thread.isAlive());
+		});
+		// shows the pending toast
+		toolkit.closeOldest();
+		assertTrue(otherThreadDone.get(2 * TIMEOUT, TimeUnit.MILLISECONDS));
+	}
+	
+	/**
+	 * The state of the toaster must be readable while another thread holds the monitor of the toaster class 
+	 * (e.g. while the default toolkit is created).
+	 */
+	@Test
+	public void testStateWithoutClassMonitor() throws Exception {
+		toast(2);
+		CountDownLatch locked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Thread thread = new Thread(() -> {
+			synchronized (Toaster.class) {
+				locked.countDown();
+				try {
+					release.await(TIMEOUT, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		thread.start();
+		try {
+			assertTrue(locked.await(TIMEOUT, TimeUnit.MILLISECONDS));
+			CompletableFuture<Integer> visible = CompletableFuture.supplyAsync(() -> Toaster.isEmpty() ? 0 : Toaster.getVisiblePopups().length);
+			assertEquals(2, visible.get(TIMEOUT / 5, TimeUnit.MILLISECONDS).intValue());
+		} finally {
+			release.countDown();
+			thread.join();
+		}
+	}
+	
+	/**
+	 * A selected action must complete the handle with the action.
+	 */
+	@Test
+	public void testSelectAction() throws Exception {
+		ToastAction action = ToastAction.builder().text("Open").build();
+		ToastHandle handle = submit(Toast.builder().title("Action").action(action).build());
+		handle.shown().get(TIMEOUT, TimeUnit.MILLISECONDS);
+		toolkit.getVisiblePopups()[0].selectAction(action);
+		assertSame(action, handle.actionSelected().get(TIMEOUT, TimeUnit.MILLISECONDS));
+		handle.closed().get(TIMEOUT, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Closed toasts must be recorded in the history.
+	 */
+	@Test
+	public void testHistory() throws Exception {
+		ToastHandle handle = submit(Toast.builder().title("History").message("Recorded after closing").build());
+		assertTrue(Toaster.getHistory().search("recorded closing", 10).isEmpty());
+		toolkit.closeAll();
+		handle.closed().get(TIMEOUT, TimeUnit.MILLISECONDS);
+		List<ToastHistory.Entry> entries = Toaster.getHistory().search("recorded closing", 10);
+		assertEquals(1, entries.size());
+		assertEquals(handle.getToast().getId(), entries.get(0).getId());
+	}
+	
+	/**
+	 * The metrics must count the toasts and track the pending and visible toasts.
+	 */
+	@Test
+	public void testMetrics() throws Exception {
+		ToastMetrics metrics = Toaster.getMetrics();
+		metrics.reset();
+		List<ToastHandle> handles = submit(20);
+		int visible = toolkit.getVisiblePopupCount();
+		assertEquals(20, metrics.getQueued());
+		assertEquals(visible, metrics.getShown());
+		assertEquals(visible, metrics.getVisible());
+		assertEquals(20 - visible, metrics.getPending());
+		assertEquals(20 - visible, metrics.getMaxPending());
+		
+		toolkit.closeAll();
+		for (ToastHandle handle : handles) {
+			handle.closed().get(TIMEOUT, TimeUnit.MILLISECONDS);
+		}
+		assertEquals(20, metrics.getShown());
+		assertEquals(20, metrics.getClosed());
+		assertEquals(0, metrics.getFailed());
+		assertEquals(0, metrics.getPending());
+		assertEquals(0, metrics.getVisible());
+		assertEquals(20 - visible, metrics.getMaxPending());
+		assertTrue(metrics.getDisplayThreadNanos() > 0);
+		
+		metrics.reset();
+		assertEquals(0, metrics.getQueued());
+		assertEquals(0, metrics.getMaxPending());
+	}
+	
+	/**
+	 * The sampled toasts must be traced through all stages until they are fully opaque.
+	 */
+	@Test
+	public void testTracing() {
+		ToastTracer tracer = Toaster.getTracer();
+		tracer.reset();
+		tracer.setSampleInterval(1);
+		try {
+			List<Toast> toasts = toast(3);
+			List<ToastTrace> traces = tracer.getRecentTraces();
+			assertEquals(toasts.size(), traces.size());
+			for (int i = 0; i < toasts.size(); i++) {
+				ToastTrace trace = traces.get(i);
+				assertEquals(toasts.get(i).getId(), trace.getToastId());
+				assertTrue(trace.isCompleted());
+				for (ToastTrace.Stage stage : ToastTrace.Stage.values()) {
+					assertTrue(stage + " not reached", trace.getTimestamp(stage) != 0);
+				}
+				assertTrue(trace.getTotalNanos() >= trace.getStageNanos(ToastTrace.Stage.OPAQUE));
+			}
+			assertEquals(toasts.size(), tracer.getStatistics().get(ToastTrace.Stage.OPAQUE).getCount());
+			
+			tracer.setSampleInterval(0);
+			toast(1);
+			assertEquals(toasts.size(), tracer.getRecentTraces().size());
+		} finally {
+			tracer.setSampleInterval(0);
+			tracer.reset();
+		}
+	}
+	
+	/**
+	 * The animation mode must follow the number of pending toasts.
+	 */
+	@Test
+	public void testAnimationMode() {
+		try {
+			toast(20);
+			int pending = 20 - toolkit.getVisiblePopupCount();
+			ToastAnimationPolicy policy = ToastAnimationPolicy.ALWAYS_FULL.toBuilder().reducedPending(pending / 2).skippedPending(pending).build();
+			Toaster.setAnimationPolicy(policy);
+			assertEquals(ToastAnimationMode.NONE, Toaster.getAnimationMode());
+			assertEquals(ToastAnimationMode.NONE, Toaster.getMetrics().getAnimationMode());
+			
+			toolkit.closeOldest();
+			Toaster.setAnimationPolicy(policy);
+			assertEquals(ToastAnimationMode.REDUCED, Toaster.getAnimationMode());
+			
+			toolkit.closeAll();
+			Toaster.setAnimationPolicy(policy);
+			assertEquals(ToastAnimationMode.FULL, Toaster.getAnimationMode());
+		} finally {
+			Toaster.setAnimationPolicy(ToastAnimationPolicy.DEFAULT);
+		}
+	}
+	
+	/**
+	 * The display time must only be shortened by the policy if toasts are pending.
+	 */
+	@Test
+	public void testDisplayTimePolicy() {
+		Toast toast = Toast.builder().title("Long").displayTime(60000).build();
+		assertEquals(60000, Toaster.getDisplayTime(toast));
+		Toaster.setDisplayTimePolicy(ToastDisplayTimePolicy.DEFAULT);
+		try {
+			assertEquals(60000, Toaster.getDisplayTime(toast));
+			toast(20);
+			int displayTime = Toaster.getDisplayTime(toast);
+			assertTrue(String.valueOf(displayTime), displayTime >= ToastDisplayTimePolicy.DEFAULT.getMinDisplayTime() && displayTime < 60000);
+		} finally {
+			Toaster.setDisplayTimePolicy(null);
+		}
+	}
+	
+	/**
+	 * Pending toasts must be dropped after their deadline without creating their popups.
+	 */
+	@Test
+	public void testTtl() throws Exception {
+		List<Toast> expiredToasts = new CopyOnWriteArrayList<>();
+		Toaster.setExpiryCallback(expiredToasts::add);
+		try {
+			long expiredBefore = Toaster.getMetrics().getExpired();
+			List<ToastHandle> handles = submit(20);
+			int visible = toolkit.getVisiblePopupCount();
+			ToastHandle expiring = submit(Toast.builder().title("expiring").ttl(50).build());
+			ToastHandle expired = submit(Toast.builder().title("expired").deadline(1).build());
+			assertExpired(expired);
+			
+			Thread.sleep(100);
+			while (toolkit.closeOldest()) {
+				// drain the queue
+			}
+			assertExpired(expiring);
+			assertEquals(handles.size(), toolkit.getCreatedPopupCount());
+			assertTrue(visible < handles.size());
+			assertEquals(2, Toaster.getMetrics().getExpired() - expiredBefore);
+			assertEquals(2, expiredToasts.size());
+			assertTrue(expiredToasts.contains(expiring.getToast()));
+		} finally {
+			Toaster.setExpiryCallback(null);
+		}
+	}
+	
+	/**
+	 * Cancelled pending toasts must be dropped without popups, cancelled visible toasts must be closed.
+	 */
+	@Test
+	public void testCancel() throws Exception {
+		List<ToastHandle> handles = submit(20);
+		int visible = toolkit.getVisiblePopupCount();
+		ToastHandle pending = handles.get(visible);
+		assertTrue(Toaster.cancel(pending.getToast().getId()));
+		assertTrue(pending.shown().isCancelled());
+		assertNull(pending.actionSelected().get(TIMEOUT, TimeUnit.MILLISECONDS));
+		assertNotNull(pending.closed().get(TIMEOUT, TimeUnit.MILLISECONDS));
+		assertFalse(Toaster.cancel(pending.getToast().getId()));
+		
+		ToastHandle shown = handles.get(0);
+		assertTrue(Toaster.cancel(shown.getToast().getId()));
+		shown.closed().get(TIMEOUT, TimeUnit.MILLISECONDS);
+		assertTrue(shown.shown().isDone() && !shown.shown().isCompletedExceptionally());
+		
+		// the free area is used by the next pending toast
+		handles.get(visible + 1).shown().get(TIMEOUT, TimeUnit.MILLISECONDS);
+		
+		toolkit.closeAll();
+		assertEquals(handles.size() - 1, toolkit.getCreatedPopupCount());
+	}
+	
+	/**
+	 * All matching toasts must be cancelled, the other ones must be shown in their order.
+	 */
+	@Test
+	public void testCancelIf() throws Exception {
+		long cancelledBefore = Toaster.getMetrics().getCancelled();
+		List<ToastHandle> handles = submit(20);
+		int visible = toolkit.getVisiblePopupCount();
+		List<Toast> remaining = new ArrayList<>();
+		for (int i = visible; i < handles.size(); i += 2) {
+			remaining.add(handles.get(i).getToast());
+		}
+		int cancelled = Toaster.cancelIf(toast -> !remaining.contains(toast));
+		assertEquals(handles.size() - remaining.size(), cancelled);
+		assertEquals(cancelled, Toaster.getMetrics().getCancelled() - cancelledBefore);
+		for (ToastHandle handle : handles) {
+			if (!remaining.contains(handle.getToast())) {
+				handle.closed().get(TIMEOUT, TimeUnit.MILLISECONDS);
+			}
+		}
+		
+		List<Toast> shown = new ArrayList<>();
+		collectShown(shown);
+		while (toolkit.closeOldest()) {
+			collectShown(shown);
+		}
+		assertEquals(remaining, shown);
+	}
+	
+	/**
+	 * Dismissed toasts must be closed at once and the free areas must be filled with the pending toasts.
+	 */
+	@Test
+	public void testDismiss() throws Exception {
+		List<ToastHandle> handles = submit(20);
+		int visible = toolkit.getVisiblePopupCount();
+		assertEquals(visible, Toaster.dismissAll());
+		for (int i = 0; i < visible; i++) {
+			handles.get(i).closed().get(TIMEOUT, TimeUnit.MILLISECONDS);
+		}
+		for (int i = visible; i < 2 * visible; i++) {
+			handles.get(i).shown().get(TIMEOUT, TimeUnit.MILLISECONDS);
+		}
+		assertEquals(visible, toolkit.getVisiblePopupCount());
+		assertNoOverlap();
+		
+		// pending toasts are not dismissed
+		Toast first = handles.get(visible).getToast();
+		assertEquals(1, Toaster.dismissIf(toast -> toast == first || toast == handles.get(handles.size() - 1).getToast()));
+		handles.get(visible).closed().get(TIMEOUT, TimeUnit.MILLISECONDS);
+		handles.get(2 * visible).shown().get(TIMEOUT, TimeUnit.MILLISECONDS);
+		assertFalse(handles.get(handles.size() - 1).shown().isDone());
+	}
+	
+	/**
+	 * A batch must be placed and queued like single toasts in the order of the collection.
+	 */
+	@Test
+	public void testToastAll() {
+		List<Toast> toasts = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			toasts.add(Toast.builder().title("Toast " + i).build());
+		}
+		Toaster.toastAll(toolkit, toasts);
+		int visible = toolkit.getVisiblePopupCount();
+		assertTrue(visible > 1 && visible < toasts.size());
+		assertEquals(visible, toolkit.getCreatedPopupCount());
+		assertNoOverlap();
+		
+		List<Toast> shown = new ArrayList<>();
+		collectShown(shown);
+		while (toolkit.closeOldest()) {
+			collectShown(shown);
+		}
+		assertEquals(toasts, shown);
+	}
+	
+	/**
+	 * With auto close the popups must be closed after their display time, sticky popups must stay open.
+	 */
+	@Test
+	public void testAutoClose() throws Exception {
+		toolkit.setAutoClose(true);
+		assertTrue(toolkit.isAutoClose());
+		ToastHandle closing = submit(Toast.builder().title("closing").displayTime(50).build());
+		ToastHandle sticky = submit(Toast.builder().title("sticky").sticky(true).build());
+		closing.closed().get(TIMEOUT, TimeUnit.MILLISECONDS);
+		assertTrue(sticky.shown().isDone());
+		assertFalse(sticky.closed().isDone());
+	}
+	
+	private void collectShown(List<Toast> shown) {
+		for (HeadlessToastPopup popup : toolkit.getVisiblePopups()) {
+			if (!shown.contains(popup.getToast())) {
+				shown.add(popup.getToast());
+			}
+		}
+	}
+	
+	private void assertNoOverlap() {
+		HeadlessToastPopup[] popups = toolkit.getVisiblePopups();
+		for (int i = 0; i < popups.length; i++) {
+			Rectangle bounds = bounds(popups[i]);
+			assertTrue(bounds + " outside of " + AREA, AREA.contains(bounds.x, bounds.y) && AREA.contains(bounds.x + bounds.width - 1, bounds.y + bounds.height - 1));
+			for (int j = i + 1; j < popups.length; j++) {
+				assertFalse(bounds + " overlaps " + bounds(popups[j]), bounds.intersects(bounds(popups[j])));
+			}
+		}
+	}
+	
+	private static Rectangle bounds(HeadlessToastPopup popup) {
+		return new Rectangle(popup.getX(), popup.getY(), popup.getWidth(), popup.getHeight());
+	}
+	
+	private List<Toast> toast(int count) {
+		List<Toast> toasts = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Toast toast = Toast.builder().title("Toast " + i).build();
+			toasts.add(toast);
+			Toaster.toast(toolkit, toast);
+		}
+		return toasts;
+	}
+	
+	private List<ToastHandle> submit(int count) throws Exception {
+		List<ToastHandle> handles = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			handles.add(submit(Toast.builder().title("Toast " + i).build()));
+		}
+		return handles;
+	}
+	
+	private ToastHandle submit(Toast toast) throws Exception {
+		ToastHandle handle = Toaster.submit(toolkit, toast);
+		// completed after the toast was shown or enqueued
+		handle.queued().get(TIMEOUT, TimeUnit.MILLISECONDS);
+		return handle;
+	}
+	
+	private static void assertExpired(ToastHandle handle) throws Exception {
+		try {
+			handle.shown().get(TIMEOUT, TimeUnit.MILLISECONDS);
+			fail("Expired toast was shown.");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof TimeoutException);
+		}
+		assertNull(handle.actionSelected().get(TIMEOUT, TimeUnit.MILLISECONDS));
+		handle.closed().get(TIMEOUT, TimeUnit.MILLISECONDS);
+	}
+	
+	private static void assertFailed(Throwable failure, ToastHandle handle) throws Exception {
+		for (CompletableFuture<?> future : Arrays.asList(handle.queued(), handle.shown(), handle.actionSelected(), handle.closed())) {
+			try {
+				future.get(TIMEOUT, TimeUnit.MILLISECONDS);
+				fail("The handle of " + handle.getToast().getTitle() + " did not fail.");
+			} catch (ExecutionException e) {
+				assertSame(failure, e.getCause());
+			}
+		}
+	}
+	
+}
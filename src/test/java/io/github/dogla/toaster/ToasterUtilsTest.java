@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.Base64;
+
+import org.junit.Test;
+
+/**
+ * Tests of the {@link ToasterUtils}.
+ *
+ * @author Dominik
+ */
+@SuppressWarnings("nls")
+public class ToasterUtilsTest {
+	
+	/**
+	 * Only icons which are decoded by {@link ToasterUtils#toImageData(Object)} must be accepted.
+	 */
+	@Test
+	public void testCanDecodeWithoutDisplay() {
+		assertTrue(ToasterUtils.canDecodeWithoutDisplay(new byte[0]));
+		assertTrue(ToasterUtils.canDecodeWithoutDisplay(new ByteArrayInputStream(new byte[0])));
+		for (int length = 1; length <= 6; length++) {
+			assertTrue(ToasterUtils.canDecodeWithoutDisplay(Base64.getEncoder().encodeToString(new byte[length])));
+		}
+		assertTrue(ToasterUtils.canDecodeWithoutDisplay("iVBORw0KGgo+/A=="));
+		
+		assertFalse(ToasterUtils.canDecodeWithoutDisplay(null));
+		assertFalse(ToasterUtils.canDecodeWithoutDisplay(""));
+		assertFalse(ToasterUtils.canDecodeWithoutDisplay("icon.png"));
+		assertFalse(ToasterUtils.canDecodeWithoutDisplay("/icons/info.png"));
+		assertFalse(ToasterUtils.canDecodeWithoutDisplay("abc"));
+		assertFalse(ToasterUtils.canDecodeWithoutDisplay("ab=c"));
+		assertFalse(ToasterUtils.canDecodeWithoutDisplay("a==="));
+		assertFalse(ToasterUtils.canDecodeWithoutDisplay(Integer.valueOf(1)));
+	}
+	
+}
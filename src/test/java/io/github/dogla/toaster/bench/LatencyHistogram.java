@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread safe histogram of latencies with a relative precision of about 1.6%.
+ * <p>
+ * The values are counted in log-linear buckets: each power of two is divided into 64 buckets,
+ * so recording a value is a constant time operation without allocations.
+ * </p>
+ *
+ * @author Dominik
+ */
+public class LatencyHistogram {
+	
+	private static final int SUB_BUCKET_BITS = 6;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	// enough buckets for all positive long values
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+	
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+	
+	/**
+	 * Records the given value.
+	 * 
+	 * @param nanos the latency in nanoseconds, negative values are recorded as 0
+	 */
+	public void record(long nanos) {
+		long value = Math.max(nanos, 0);
+		counts.incrementAndGet(indexOf(value));
+		count.incrementAndGet();
+		max.accumulateAndGet(value, Math::max);
+	}
+	
+	/**
+	 * @return the number of recorded values
+	 */
+	public long getCount() {
+		return count.get();
+	}
+	
+	/**
+	 * @return the maximum recorded value in nanoseconds
+	 */
+	public long getMax() {
+		return max.get();
+	}
+	
+	/**
+	 * Returns the value at the given percentile. 
+	 * The result is the upper bound of the corresponding bucket, but never greater than the maximum value.
+	 * 
+	 * @param percentile the percentile between 0 and 100 (e.g. 99.9)
+	 * 
+	 * @return the value in nanoseconds or 0 if no values were recorded
+	 */
+	public long getPercentile(double percentile) {
+		long total = count.get();
+		if (total == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+		long cumulative = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			cumulative += counts.get(i);
+			if (cumulative >= target) {
+				return i + 1 < BUCKETS ? Math.min(lowerBoundOf(i + 1) - 1, max.get()) : max.get();
+			}
+		}
+		return max.get();
+	}
+	
+	/**
+	 * Removes all recorded values.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		count.set(0);
+		max.set(0);
+	}
+	
+	/**
+	 * @return the count, the 50th, 99th and 99.9th percentile and the maximum in milliseconds
+	 */
+	@SuppressWarnings("nls")
+	public String toSummary() {
+		return String.format("n=%d p50=%.1fms p99=%.1fms p999=%.1fms max=%.1fms", getCount(), 
+				millis(getPercentile(50)), millis(getPercentile(99)), millis(getPercentile(99.9)), millis(getMax()));
+	}
+	
+	private static double millis(long nanos) {
+		return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+	
+	private static int indexOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int group = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return group * SUB_BUCKETS + (int) (value >>> (group - 1)) - SUB_BUCKETS;
+	}
+	
+	private static long lowerBoundOf(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int group = index / SUB_BUCKETS;
+		long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+		return subBucket << (group - 1);
+	}
+	
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.bench;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import io.github.dogla.toaster.ToastDisplayTimePolicy;
+
+/**
+ * Simulates the clearance of a backlog with and without a {@link ToastDisplayTimePolicy}.
+ * <p>
+ * The simulation runs in virtual time with a fixed number of slots for visible toasts. At the start the backlog is pending,
+ * afterwards new toasts arrive with a constant rate. A freed slot is filled with the next pending toast, whose display time
+ * is determined when it is shown like in the popups. The arrival rate is estimated over windows of 250 ms and smoothed like in the toaster.
+ * The simulation reports the time until the backlog was shown completely and the display times used.
+ * </p>
+ * <p>
+ * Usage: <code>ToastDisplayTimeSimulation [slots] [backlog] [arrivals per second] [display time] [clearance time] [min display time]</code>
+ * </p>
+ *
+ * @author Dominik
+ */
+@SuppressWarnings("nls")
+public class ToastDisplayTimeSimulation {
+	
+	private static final int TICK = 10;
+	private static final int LOAD_WINDOW = 250;
+	private static final int REPORT_INTERVAL = 10_000;
+	private static final int ARRIVAL_RATE_SMOOTHING = 2000;
+	private static final long MAX_TIME = 3_600_000;
+	
+	/**
+	 * Runs the simulation.
+	 * 
+	 * @param args the arguments
+	 */
+	public static void main(String[] args) {
+		int slots = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		int backlog = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+		double arrivalRate = args.length > 2 ? Double.parseDouble(args[2]) : 1;
+		int displayTime = args.length > 3 ? Integer.parseInt(args[3]) : 5000;
+		int clearanceTime = args.length > 4 ? Integer.parseInt(args[4]) : 30_000;
+		int minDisplayTime = args.length > 5 ? Integer.parseInt(args[5]) : 1500;
+		
+		System.out.printf("slots=%d backlog=%d arrivalRate=%.1f/s displayTime=%dms clearanceTime=%dms minDisplayTime=%dms%n", 
+				slots, backlog, arrivalRate, displayTime, clearanceTime, minDisplayTime);
+		simulate("fixed", null, slots, backlog, arrivalRate, displayTime);
+		ToastDisplayTimePolicy policy = ToastDisplayTimePolicy.builder()
+				.clearanceTime(clearanceTime)
+				.minDisplayTime(minDisplayTime)
+				.build();
+		simulate("policy", policy, slots, backlog, arrivalRate, displayTime);
+	}
+	
+	private static void simulate(String name, ToastDisplayTimePolicy policy, int slots, int backlog, double arrivalRate, int displayTime) {
+		System.out.println();
+		System.out.println(name + ":");
+		System.out.println("  time[s]  pending  visible  displayTime[ms]");
+		// the queued times of the pending toasts, the backlog is queued at the start
+		Deque<Long> pending = new ArrayDeque<>();
+		for (int i = 0; i < backlog; i++) {
+			pending.add(0L);
+		}
+		long[] closeTimes = new long[slots];
+		boolean[] occupied = new boolean[slots];
+		long remainingBacklog = backlog;
+		double arrivals = 0;
+		long windowArrivals = 0;
+		double estimatedRate = 0;
+		long shownDisplayTimes = 0;
+		long shown = 0;
+		int lastDisplayTime = displayTime;
+		long clearanceTime = -1;
+		for (long time = 0; time <= MAX_TIME; time += TICK) {
+			// arrivals
+			arrivals += arrivalRate * TICK / 1000;
+			while (arrivals >= 1) {
+				arrivals--;
+				pending.add(time);
+				windowArrivals++;
+			}
+			if (time % LOAD_WINDOW == 0) {
+				double weight = LOAD_WINDOW / (double) (LOAD_WINDOW + ARRIVAL_RATE_SMOOTHING);
+				estimatedRate += weight * (windowArrivals * 1000.0 / LOAD_WINDOW - estimatedRate);
+				windowArrivals = 0;
+			}
+			// close expired toasts and show pending toasts in the freed slots
+			int visible = 0;
+			for (int slot = 0; slot < slots; slot++) {
+				if (occupied[slot] && closeTimes[slot] <= time) {
+					occupied[slot] = false;
+				}
+				visible += occupied[slot] ? 1 : 0;
+			}
+			for (int slot = 0; slot < slots && !pending.isEmpty(); slot++) {
+				if (occupied[slot]) {
+					continue;
+				}
+				pending.poll();
+				long oldestPendingAge = pending.isEmpty() ? 0 : time - pending.peek();
+				int effectiveDisplayTime = policy != null 
+						? policy.getDisplayTime(displayTime, policy.getMinDisplayTime(), pending.size(), oldestPendingAge, visible, estimatedRate) 
+						: displayTime;
+				occupied[slot] = true;
+				closeTimes[slot] = time + effectiveDisplayTime;
+				visible++;
+				shown++;
+				shownDisplayTimes += effectiveDisplayTime;
+				lastDisplayTime = effectiveDisplayTime;
+				if (--remainingBacklog == 0) {
+					clearanceTime = time;
+				}
+			}
+			if (time % REPORT_INTERVAL == 0) {
+				System.out.printf("  %7d  %7d  %7d  %15d%n", time / 1000, pending.size(), visible, lastDisplayTime);
+			}
+			if (clearanceTime >= 0) {
+				System.out.printf("  %7d  %7d  %7d  %15d%n", time / 1000, pending.size(), visible, lastDisplayTime);
+				break;
+			}
+		}
+		if (clearanceTime < 0) {
+			System.out.printf("  backlog not cleared within %ds%n", MAX_TIME / 1000);
+		} else {
+			System.out.printf("  backlog of %d toasts shown after %.1fs, %d toasts shown until then with an average display time of %dms%n", 
+					backlog, clearanceTime / 1000.0, shown, shown > 0 ? shownDisplayTimes / shown : 0);
+		}
+	}
+	
+}
@@ -0,0 +1,240 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.bench;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import io.github.dogla.toaster.Toast;
+import io.github.dogla.toaster.ToastDisplayTimePolicy;
+import io.github.dogla.toaster.ToastHandle;
+import io.github.dogla.toaster.ToastMetrics;
+import io.github.dogla.toaster.ToastPosition;
+import io.github.dogla.toaster.Toaster;
+import io.github.dogla.toaster.ui.ToastToolkit;
+import io.github.dogla.toaster.ui.headless.HeadlessToastToolkit;
+
+/**
+ * A load generator for capacity planning of notification storms.
+ * <p>
+ * Toasts are submitted through {@link Toaster#submit(ToastToolkit, Toast)} at a configurable average rate in bursts of a configurable size.
+ * Every sample interval a line of the timeline is printed with the queue depth and the utilization of the popup display thread 
+ * (@see {@link ToastMetrics#getDisplayThreadNanos()}) as well as the delay of a probe executed on the display thread.
+ * After the generation the remaining toasts are drained and the submit-to-visible and submit-to-closed latencies are reported.
+ * </p>
+ * <p>
+ * Usage: <code>ToastLoadGenerator [--option=value ...]</code>
+ * </p>
+ * <ul>
+ * <li><code>toolkit</code>: <code>headless</code> (default) or <code>swt</code> for the default toolkit</li>
+ * <li><code>rate</code>: average number of toasts per second (default 50)</li>
+ * <li><code>burst</code>: number of toasts submitted at once (default 1)</li>
+ * <li><code>duration</code>: generation time in seconds (default 10)</li>
+ * <li><code>displayTime</code>: display time of the toasts in milliseconds (default 5000)</li>
+ * <li><code>clearanceTime</code>: the clearance time in seconds of a {@link ToastDisplayTimePolicy} (default none)</li>
+ * <li><code>title</code>, <code>messageLength</code>, <code>detailsLength</code>: the content of the toasts</li>
+ * <li><code>icon</code>: the path of an image file used as icon of the toasts (default none)</li>
+ * <li><code>positions</code>: comma separated positions used round robin (default BOTTOM_RIGHT)</li>
+ * <li><code>popupHeight</code>: the height of the headless popups (default 100)</li>
+ * <li><code>sample</code>: the sample interval of the timeline in milliseconds (default 1000)</li>
+ * <li><code>drainTimeout</code>: the maximum time in seconds to wait for the remaining toasts (default 300)</li>
+ * </ul>
+ *
+ * @author Dominik
+ */
+@SuppressWarnings("nls")
+public class ToastLoadGenerator {
+	
+	private static final String LOREM = "Lorem ipsum dolor sit amet, consetetur sadipscing elitr, sed diam nonumy eirmod tempor invidunt ut labore et dolore magna aliquyam erat. ";
+	
+	private final Map<String, String> options;
+	private final LatencyHistogram visibleLatency = new LatencyHistogram();
+	private final LatencyHistogram closedLatency = new LatencyHistogram();
+	private final AtomicLong submitted = new AtomicLong();
+	private final AtomicLong completed = new AtomicLong();
+	
+	private ToastLoadGenerator(Map<String, String> options) {
+		this.options = options;
+	}
+	
+	/**
+	 * Runs the load generator.
+	 * 
+	 * @param args the options
+	 * 
+	 * @throws Exception if the load generator failed
+	 */
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new HashMap<>();
+		for (String arg : args) {
+			int index = arg.indexOf('=');
+			if (!arg.startsWith("--") || index < 0) {
+				throw new IllegalArgumentException("Invalid option: " + arg);
+			}
+			options.put(arg.substring(2, index), arg.substring(index + 1));
+		}
+		new ToastLoadGenerator(options).run();
+		System.exit(0);
+	}
+	
+	private String option(String name, String defaultValue) {
+		return options.getOrDefault(name, defaultValue);
+	}
+	
+	private int intOption(String name, int defaultValue) {
+		return Integer.parseInt(option(name, String.valueOf(defaultValue)));
+	}
+	
+	private void run() throws InterruptedException {
+		boolean headless = !"swt".equals(option("toolkit", "headless"));
+		double rate = Double.parseDouble(option("rate", "50"));
+		int burst = Math.max(intOption("burst", 1), 1);
+		int duration = intOption("duration", 10);
+		int displayTime = intOption("displayTime", 5000);
+		int clearanceTime = intOption("clearanceTime", 0);
+		long sampleNanos = TimeUnit.MILLISECONDS.toNanos(intOption("sample", 1000));
+		long drainTimeoutNanos = TimeUnit.SECONDS.toNanos(intOption("drainTimeout", 300));
+		String[] positionNames = option("positions", ToastPosition.BOTTOM_RIGHT.name()).split(",");
+		ToastPosition[] positions = new ToastPosition[positionNames.length];
+		for (int i = 0; i < positions.length; i++) {
+			positions[i] = ToastPosition.valueOf(positionNames[i].trim());
+		}
+		Toast.ToastBuilder builder = Toast.builder()
+				.title(option("title", "Build finished"))
+				.message(text(intOption("messageLength", 80)))
+				.details(text(intOption("detailsLength", 0)))
+				.icon(icon(options.get("icon")))
+				.displayTime(displayTime);
+		
+		ToastToolkit toolkit;
+		if (headless) {
+			HeadlessToastToolkit headlessToolkit = new HeadlessToastToolkit();
+			headlessToolkit.setPopupSize(toast -> toast.getMaxWidth(), toast -> intOption("popupHeight", HeadlessToastToolkit.DEFAULT_POPUP_HEIGHT));
+			// closed after the display time like the real popups
+			headlessToolkit.setAutoClose(true);
+			toolkit = headlessToolkit;
+		} else {
+			toolkit = Toaster.getDefaultToolkit();
+		}
+		if (clearanceTime > 0) {
+			Toaster.setDisplayTimePolicy(ToastDisplayTimePolicy.builder().clearanceTime((int) TimeUnit.SECONDS.toMillis(clearanceTime)).build());
+		}
+		ToastMetrics metrics = Toaster.getMetrics();
+		metrics.reset();
+		
+		System.out.printf("toolkit=%s rate=%.1f/s burst=%d duration=%ds displayTime=%dms clearanceTime=%s positions=%s%n", 
+				headless ? "headless" : "swt", rate, burst, duration, displayTime, 
+				clearanceTime > 0 ? clearanceTime + "s" : "none", String.join(",", positionNames));
+		System.out.println("time[s]  submitted    shown   closed  pending  visible  display-thread  probe-lag[ms]");
+		
+		long start = System.nanoTime();
+		long end = start + TimeUnit.SECONDS.toNanos(duration);
+		long burstInterval = (long) (burst * 1e9 / rate);
+		long nextBurst = start;
+		long nextSample = start + sampleNanos;
+		long lastDisplayThreadNanos = metrics.getDisplayThreadNanos();
+		int positionIndex = 0;
+		boolean generating = true;
+		while (true) {
+			long now = System.nanoTime();
+			if (generating && now >= end) {
+				generating = false;
+			}
+			if (generating && now >= nextBurst) {
+				for (int i = 0; i < burst; i++) {
+					submit(toolkit, builder.position(positions[positionIndex++ % positions.length]).build());
+				}
+				nextBurst += burstInterval;
+				continue;
+			}
+			if (now >= nextSample) {
+				long displayThreadNanos = metrics.getDisplayThreadNanos();
+				double utilization = (displayThreadNanos - lastDisplayThreadNanos) * 100.0 / sampleNanos;
+				lastDisplayThreadNanos = displayThreadNanos;
+				System.out.printf("%7.1f %10d %8d %8d %8d %8d %14.1f%% %14.1f%n", (now - start) / 1e9, submitted.get(), 
+						metrics.getShown(), metrics.getClosed(), metrics.getPending(), metrics.getVisible(), utilization, probe(toolkit) / 1e6);
+				nextSample += sampleNanos;
+				if (!generating && (completed.get() == submitted.get() || now - end > drainTimeoutNanos)) {
+					break;
+				}
+			}
+			LockSupport.parkNanos(Math.max(Math.min(generating ? nextBurst : Long.MAX_VALUE, nextSample) - System.nanoTime(), 0));
+		}
+		
+		System.out.printf("drained %d of %d toasts %.1fs after the generation, max pending: %d, failed: %d%n", 
+				completed.get(), submitted.get(), (System.nanoTime() - end) / 1e9, metrics.getMaxPending(), metrics.getFailed());
+		System.out.println("submit-to-visible: " + visibleLatency.toSummary());
+		System.out.println("submit-to-closed:  " + closedLatency.toSummary());
+	}
+	
+	private void submit(ToastToolkit toolkit, Toast toast) {
+		long submitTime = System.nanoTime();
+		submitted.incrementAndGet();
+		ToastHandle handle = Toaster.submit(toolkit, toast);
+		handle.shown().thenRun(() -> visibleLatency.record(System.nanoTime() - submitTime));
+		handle.closed().whenComplete((t, e) -> {
+			closedLatency.record(System.nanoTime() - submitTime);
+			completed.incrementAndGet();
+		});
+	}
+	
+	/**
+	 * @return the content of the given image file (decoded like any other byte array icon) or <code>null</code> if no path is given
+	 */
+	private static byte[] icon(String path) {
+		if (path == null) {
+			return null;
+		}
+		try {
+			return Files.readAllBytes(Paths.get(path));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Icon could not be read: " + path, e);
+		}
+	}
+	
+	/**
+	 * @return the time in nanoseconds until a runnable is executed by the display thread
+	 */
+	private static long probe(ToastToolkit toolkit) {
+		long start = System.nanoTime();
+		AtomicLong executed = new AtomicLong();
+		toolkit.asyncExec(() -> executed.set(System.nanoTime()));
+		long deadline = start + TimeUnit.SECONDS.toNanos(5);
+		while (executed.get() == 0 && System.nanoTime() < deadline) {
+			LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+		}
+		return executed.get() != 0 ? executed.get() - start : System.nanoTime() - start;
+	}
+	
+	private static String text(int length) {
+		if (length <= 0) {
+			return null;
+		}
+		StringBuilder builder = new StringBuilder(length);
+		while (builder.length() < length) {
+			builder.append(LOREM);
+		}
+		return builder.substring(0, length).trim();
+	}
+	
+}
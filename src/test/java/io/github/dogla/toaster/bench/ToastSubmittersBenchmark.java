@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.github.dogla.toaster.Toast;
+import io.github.dogla.toaster.ToastExecutors;
+import io.github.dogla.toaster.Toaster;
+import io.github.dogla.toaster.ui.headless.HeadlessToastToolkit;
+
+/**
+ * Measures many concurrent submitters which wait until their toasts were closed.
+ * <p>
+ * Each submitter shows its toasts one after another on a {@link HeadlessToastToolkit} and blocks until the toast was closed.
+ * The submitters are executed by {@link ToastExecutors#newBlockingExecutor(String, int, int)}, i.e. by virtual threads on Java 21 and newer
+ * if the benchmark is started from the multi-release jar. The mode <code>pool</code> forces the bounded pool of platform threads.
+ * </p>
+ * <p>
+ * Usage: <code>ToastSubmittersBenchmark [submitters] [toasts per submitter] [auto|pool] [pool threads]</code>
+ * </p>
+ *
+ * @author Dominik
+ */
+@SuppressWarnings("nls")
+public class ToastSubmittersBenchmark {
+	
+	/**
+	 * Runs the benchmark.
+	 * 
+	 * @param args the arguments
+	 * 
+	 * @throws Exception if the benchmark failed
+	 */
+	public static void main(String[] args) throws Exception {
+		int submitters = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+		int toastsPerSubmitter = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		boolean pool = args.length > 2 && "pool".equals(args[2]);
+		int poolThreads = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+		
+		HeadlessToastToolkit toolkit = new HeadlessToastToolkit();
+		toolkit.setPopupSize(350, 20);
+		Toaster.setHistory(null);
+		Thread closer = new Thread(() -> {
+			try {
+				while (true) {
+					toolkit.closeAll();
+					TimeUnit.MILLISECONDS.sleep(1);
+				}
+			} catch (InterruptedException e) {
+				// benchmark finished
+			}
+		}, "Benchmark Closer");
+		closer.setDaemon(true);
+		closer.start();
+		
+		ExecutorService executor = pool 
+				? ToastExecutors.newBoundedExecutor("Benchmark Submitter", poolThreads, submitters)
+				: ToastExecutors.newBlockingExecutor("Benchmark Submitter", poolThreads, submitters);
+		boolean virtual = !pool && ToastExecutors.isVirtualThreads();
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		threads.resetPeakThreadCount();
+		LongAdder closed = new LongAdder();
+		CountDownLatch done = new CountDownLatch(submitters);
+		long start = System.nanoTime();
+		for (int i = 0; i < submitters; i++) {
+			int submitter = i;
+			executor.execute(() -> {
+				try {
+					for (int j = 0; j < toastsPerSubmitter; j++) {
+						Toast toast = Toast.builder().title("Submitter " + submitter).message("Toast " + j).build();
+						// block like a notifier waiting for the user
+						Toaster.submit(toolkit, toast).closed().join();
+						closed.increment();
+					}
+				} finally {
+					done.countDown();
+				}
+			});
+		}
+		done.await();
+		long elapsed = System.nanoTime() - start;
+		executor.shutdown();
+		closer.interrupt();
+		
+		System.out.printf("Java %s, %s, %d submitters x %d toasts%n", Runtime.version().feature(), 
+				virtual ? "virtual threads" : poolThreads + " platform threads", submitters, toastsPerSubmitter);
+		System.out.printf("closed %d toasts in %.1f ms: %.0f toasts/s, peak live threads: %d%n", 
+				closed.sum(), elapsed / 1e6, closed.sum() / (elapsed / 1e9), threads.getPeakThreadCount());
+	}
+	
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.daemon;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.github.dogla.toaster.Toast;
+import io.github.dogla.toaster.ToastPosition;
+
+/**
+ * Tests of the {@link ToastCodec}.
+ *
+ * @author Dominik
+ */
+@SuppressWarnings("nls")
+public class ToastCodecTest {
+	
+	/**
+	 * The forwarded attributes must be decoded as they were encoded.
+	 */
+	@Test
+	public void testSubmit() throws Exception {
+		Toast first = Toast.builder().title("Title").message("Message").details("Details").icon("icon.png")
+				.position(ToastPosition.TOP_LEFT).sticky(true).displayTime(1234).ttl(60_000).build();
+		Toast second = Toast.builder().title("Bytes").icon(new byte[] { 1, 2, 3 }).build();
+		ByteBuffer frame = ToastCodec.encodeSubmit(Arrays.asList(first, second));
+		assertEquals(frame.remaining() - ToastCodec.HEADER_SIZE, frame.getInt());
+		assertEquals(ToastCodec.TYPE_SUBMIT, frame.get());
+		
+		List<Toast> toasts = ToastCodec.decodeSubmit(frame);
+		assertEquals(2, toasts.size());
+		Toast toast = toasts.get(0);
+		assertEquals(first.getId(), toast.getId());
+		assertEquals("Title", toast.getTitle());
+		assertEquals("Message", toast.getMessage());
+		assertEquals("Details", toast.getDetails());
+		assertEquals("icon.png", toast.getIcon());
+		assertEquals(ToastPosition.TOP_LEFT, toast.getPosition());
+		assertEquals(true, toast.isSticky());
+		assertEquals(1234, toast.getDisplayTime());
+		assertEquals(first.getDeadline(), toast.getDeadline());
+		assertEquals(0, toasts.get(1).getDeadline());
+		assertEquals(second.getId(), toasts.get(1).getId());
+		assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) toasts.get(1).getIcon());
+		assertNull(toasts.get(1).getMessage());
+	}
+	
+	/**
+	 * Truncated frames must be rejected.
+	 */
+	@Test
+	public void testMalformed() {
+		ByteBuffer frame = ToastCodec.encodeSubmit(Arrays.asList(Toast.builder().title("Title").build()));
+		frame.getInt();
+		frame.get();
+		frame.limit(frame.limit() - 3);
+		try {
+			ToastCodec.decodeSubmit(frame);
+			fail("Truncated frame was decoded.");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+	
+	/**
+	 * The computed size must match the encoded size, also for characters with more than one UTF-8 byte.
+	 */
+	@Test
+	public void testSizeOf() {
+		Toast ascii = Toast.builder().title("Title").message("Message").icon(new byte[] { 1, 2, 3 }).build();
+		Toast unicode = Toast.builder().title("T\u00fctel \u20ac \ud83d\ude00").details("\ud83d").icon("icon-\u00e4.png").build();
+		long size = ToastCodec.sizeOf(ascii) + ToastCodec.sizeOf(unicode);
+		ByteBuffer frame = ToastCodec.encodeSubmit(Arrays.asList(ascii, unicode));
+		assertEquals(ToastCodec.SUBMIT_OVERHEAD + size, frame.getInt());
+	}
+	
+	/**
+	 * Frames larger than the maximum frame size must not be encoded.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testOversized() {
+		ToastCodec.encodeSubmit(Arrays.asList(Toast.builder().title("Huge").icon(new byte[ToastCodec.MAX_FRAME_SIZE]).build()));
+	}
+	
+	/**
+	 * A length larger than the remaining payload must be rejected before the array is allocated.
+	 */
+	@Test
+	public void testInvalidLength() {
+		ByteBuffer frame = ToastCodec.encodeSubmit(Arrays.asList(Toast.builder().title("Title").build()));
+		frame.getInt();
+		frame.get();
+		// length of the id behind the toast count
+		frame.putInt(frame.position() + 4, Integer.MAX_VALUE);
+		try {
+			ToastCodec.decodeSubmit(frame);
+			fail("Invalid length was accepted.");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+	
+	/**
+	 * Ack frames must be decoded and other frames must be rejected.
+	 */
+	@Test
+	public void testAck() throws Exception {
+		assertEquals(3, ToastCodec.decodeAck(ToastCodec.encodeAck(3)));
+		ByteBuffer frame = ToastCodec.encodeAck(3);
+		frame.put(ToastCodec.HEADER_SIZE, ToastCodec.TYPE_SUBMIT);
+		try {
+			ToastCodec.decodeAck(frame);
+			fail("Submit frame was accepted as ack.");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+	
+}
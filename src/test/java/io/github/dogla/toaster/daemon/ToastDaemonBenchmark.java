@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.daemon;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.github.dogla.toaster.Toast;
+import io.github.dogla.toaster.ToastHandle;
+import io.github.dogla.toaster.Toaster;
+import io.github.dogla.toaster.ui.headless.HeadlessToastToolkit;
+
+/**
+ * Measures the throughput of toasts submitted by several client processes to a {@link ToastDaemon}.
+ * <p>
+ * The daemon runs in the benchmark process on a {@link HeadlessToastToolkit} whose popups are closed continuously.
+ * Each client is started as a separate JVM with the same class path.
+ * </p>
+ * <p>
+ * Usage: <code>ToastDaemonBenchmark [clients] [toasts per client] [batch size]</code>
+ * </p>
+ *
+ * @author Dominik
+ */
+@SuppressWarnings("nls")
+public class ToastDaemonBenchmark {
+	
+	/**
+	 * Runs the benchmark.
+	 * 
+	 * @param args the arguments
+	 * 
+	 * @throws Exception if the benchmark failed
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length > 0 && "client".equals(args[0])) {
+			runClient(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+			return;
+		}
+		int clients = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+		int toastsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+		int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : ToastDaemonToolkit.DEFAULT_MAX_BATCH_SIZE;
+		
+		HeadlessToastToolkit toolkit = new HeadlessToastToolkit();
+		Toaster.setHistory(null);
+		Thread closer = new Thread(() -> {
+			try {
+				while (true) {
+					toolkit.closeAll();
+					TimeUnit.MILLISECONDS.sleep(1);
+				}
+			} catch (InterruptedException e) {
+				// benchmark finished
+			}
+		}, "Benchmark Closer");
+		closer.setDaemon(true);
+		closer.start();
+		
+		try (ToastDaemon daemon = new ToastDaemon(toolkit, 0)) {
+			String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+			List<Process> processes = new ArrayList<>();
+			long start = System.nanoTime();
+			for (int i = 0; i < clients; i++) {
+				processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), ToastDaemonBenchmark.class.getName(),
+						"client", String.valueOf(daemon.getPort()), String.valueOf(toastsPerClient), String.valueOf(batchSize))
+						.inheritIO().start());
+			}
+			long expected = (long) clients * toastsPerClient;
+			while (daemon.getReceivedToasts() < expected && processes.stream().anyMatch(Process::isAlive)) {
+				TimeUnit.MILLISECONDS.sleep(1);
+			}
+			long nanos = System.nanoTime() - start;
+			for (Process process : processes) {
+				process.waitFor();
+			}
+			System.out.printf("%d clients, %d toasts each, batch size %d%n", clients, toastsPerClient, batchSize);
+			System.out.printf("received %d toasts in %.1f ms: %.0f toasts/s (including JVM startup of the clients)%n",
+					daemon.getReceivedToasts(), nanos / 1e6, daemon.getReceivedToasts() / (nanos / 1e9));
+		} finally {
+			closer.interrupt();
+		}
+	}
+	
+	private static void runClient(int port, int count, int batchSize) throws Exception {
+		Toaster.setHistory(null);
+		try (ToastDaemonToolkit toolkit = new ToastDaemonToolkit(port, batchSize)) {
+			Toast template = Toast.builder().title("Benchmark").message("Toast from another process").build();
+			long start = System.nanoTime();
+			ToastHandle last = null;
+			for (int i = 0; i < count; i++) {
+				last = Toaster.submit(toolkit, template.copy().title("Benchmark " + i).build());
+			}
+			if (last != null) {
+				last.closed().join();
+			}
+			long nanos = System.nanoTime() - start;
+			System.out.printf("client: sent %d toasts in %.1f ms: %.0f toasts/s%n", count, nanos / 1e6, count / (nanos / 1e9));
+		}
+	}
+	
+}
@@ -0,0 +1,206 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.daemon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.swt.graphics.Rectangle;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.github.dogla.toaster.Toast;
+import io.github.dogla.toaster.ToastHandle;
+import io.github.dogla.toaster.Toaster;
+import io.github.dogla.toaster.ui.headless.HeadlessToastPopup;
+import io.github.dogla.toaster.ui.headless.HeadlessToastToolkit;
+
+/**
+ * Tests of the {@link ToastDaemon} and the {@link ToastDaemonToolkit} using a daemon in the same process.
+ *
+ * @author Dominik
+ */
+@SuppressWarnings("nls")
+public class ToastDaemonTest {
+	
+	private static final long TIMEOUT = 10_000;
+	
+	private HeadlessToastToolkit headlessToolkit;
+	private ToastDaemon daemon;
+	private ToastDaemonToolkit client;
+	
+	/**
+	 * Starts the daemon and connects the client.
+	 */
+	@Before
+	public void setUp() throws Exception {
+		headlessToolkit = new HeadlessToastToolkit(new Rectangle(0, 0, 1920, 1080));
+		// all forwarded toasts fit
+		headlessToolkit.setPopupSize(300, 50);
+		daemon = new ToastDaemon(headlessToolkit, 0);
+		client = new ToastDaemonToolkit(daemon.getPort(), 4);
+	}
+	
+	/**
+	 * Stops the client and the daemon.
+	 */
+	@After
+	public void tearDown() throws Exception {
+		client.close();
+		if (daemon != null) {
+			daemon.close();
+		}
+		headlessToolkit.closeAll();
+	}
+	
+	/**
+	 * The toasts must be shown by the toolkit of the daemon and the client handles must be closed after the delivery.
+	 */
+	@Test
+	public void testForward() throws Exception {
+		List<ToastHandle> handles = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			handles.add(Toaster.submit(client, Toast.builder().title("Forwarded " + i).message("Message").build()));
+		}
+		for (ToastHandle handle : handles) {
+			// closed on the client means delivered
+			handle.closed().get(TIMEOUT, TimeUnit.MILLISECONDS);
+		}
+		assertEquals(10, daemon.getReceivedToasts());
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while (headlessToolkit.getVisiblePopupCount() < handles.size() && System.currentTimeMillis() < end) {
+			Thread.sleep(10);
+		}
+		HeadlessToastPopup[] popups = headlessToolkit.getVisiblePopups();
+		assertEquals(handles.size(), popups.length);
+		Toast toast = popups[0].getToast();
+		assertEquals(handles.get(0).getToast().getId(), toast.getId());
+		assertEquals("Forwarded 0", toast.getTitle());
+		assertEquals("Message", toast.getMessage());
+	}
+	
+	/**
+	 * If the daemon stops, the handles of the undelivered toasts must fail and no further popups must be accepted.
+	 */
+	@Test
+	public void testStoppedDaemon() throws Exception {
+		daemon.close();
+		daemon = null;
+		List<ToastHandle> handles = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			handles.add(Toaster.submit(client, Toast.builder().title("Undelivered " + i).build()));
+		}
+		for (ToastHandle handle : handles) {
+			try {
+				handle.closed().get(TIMEOUT, TimeUnit.MILLISECONDS);
+				fail("Undelivered toast was closed.");
+			} catch (ExecutionException e) {
+				// not delivered or submitted after the sender noticed the stopped daemon
+				assertTrue(e.getCause() instanceof IOException || e.getCause() instanceof IllegalStateException);
+			}
+		}
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while (client.isOpen() && System.currentTimeMillis() < end) {
+			Thread.sleep(10);
+		}
+		assertFalse(client.isOpen());
+		assertRejected(Toaster.submit(client, Toast.builder().title("Rejected").build()));
+	}
+	
+	/**
+	 * Batches must be cut before they exceed the maximum frame size and toasts which do not fit into a frame must be rejected.
+	 */
+	@Test
+	public void testLargeToasts() throws Exception {
+		byte[] icon = new byte[ToastCodec.MAX_FRAME_SIZE / 3];
+		List<ToastHandle> handles = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			handles.add(Toaster.submit(client, Toast.builder().title("Large " + i).icon(icon).build()));
+		}
+		ToastHandle huge = Toaster.submit(client, Toast.builder().title("Huge").icon(new byte[ToastCodec.MAX_FRAME_SIZE]).build());
+		try {
+			huge.closed().get(TIMEOUT, TimeUnit.MILLISECONDS);
+			fail("Toast larger than a frame was accepted.");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IllegalArgumentException);
+		}
+		for (ToastHandle handle : handles) {
+			handle.closed().get(TIMEOUT, TimeUnit.MILLISECONDS);
+		}
+		assertEquals(4, daemon.getReceivedToasts());
+		assertTrue(client.isOpen());
+	}
+	
+	/**
+	 * A failing submit must only close the connection of its client, the daemon must keep running.
+	 */
+	@Test
+	public void testFailedSubmit() throws Exception {
+		daemon.close();
+		headlessToolkit.closeAll();
+		headlessToolkit = new HeadlessToastToolkit(new Rectangle(0, 0, 1920, 1080)) {
+			@Override
+			public CompletableFuture<Void> prepare(Toast toast) {
+				// Toaster.submit fails with a NullPointerException
+				return "Broken".equals(toast.getTitle()) ? null : super.prepare(toast);
+			}
+		};
+		daemon = new ToastDaemon(headlessToolkit, 0);
+		client.close();
+		client = new ToastDaemonToolkit(daemon.getPort(), 4);
+		ToastHandle broken = Toaster.submit(client, Toast.builder().title("Broken").build());
+		try {
+			broken.closed().get(TIMEOUT, TimeUnit.MILLISECONDS);
+			fail("Toast was delivered although the daemon failed.");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IOException);
+		}
+		client.close();
+		client = new ToastDaemonToolkit(daemon.getPort(), 4);
+		Toaster.submit(client, Toast.builder().title("Valid").build()).closed().get(TIMEOUT, TimeUnit.MILLISECONDS);
+		assertEquals(1, daemon.getReceivedToasts());
+	}
+	
+	/**
+	 * A closed toolkit must not accept further popups.
+	 */
+	@Test
+	public void testClosedToolkit() throws Exception {
+		client.close();
+		assertFalse(client.isOpen());
+		assertRejected(Toaster.submit(client, Toast.builder().title("Rejected").build()));
+	}
+	
+	private static void assertRejected(ToastHandle handle) throws Exception {
+		try {
+			handle.shown().get(TIMEOUT, TimeUnit.MILLISECONDS);
+			fail("Toast was accepted by a closed toolkit.");
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+	}
+	
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.layout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of the {@link SlotLayout}.
+ *
+ * @author Dominik
+ */
+public class SlotLayoutTest {
+	
+	private static final int AREA_X = 0;
+	private static final int AREA_Y = 40;
+	private static final int AREA_WIDTH = 1920;
+	private static final int AREA_HEIGHT = 500;
+	
+	/**
+	 * The layout must find the same positions as the pixel scan used before the slot layout.
+	 */
+	@Test
+	public void testSameResultAsPixelScan() {
+		for (boolean bottomUp : new boolean[] { true, false }) {
+			Random random = new Random(bottomUp ? 1 : 2);
+			SlotLayout layout = new SlotLayout(bottomUp);
+			List<int[]> occupied = new ArrayList<>();
+			List<Integer> slots = new ArrayList<>();
+			for (int i = 0; i < 5000; i++) {
+				if (!slots.isEmpty() && random.nextInt(3) == 0) {
+					int index = random.nextInt(slots.size());
+					assertTrue(layout.release(slots.remove(index).intValue()));
+					occupied.remove(index);
+					continue;
+				}
+				int width = 200 + random.nextInt(200);
+				// some toasts are higher than the area
+				int height = 50 + random.nextInt(AREA_HEIGHT + 100);
+				int x = random.nextBoolean() ? AREA_X : AREA_X + AREA_WIDTH - width;
+				int minY = AREA_Y;
+				int maxY = AREA_Y + AREA_HEIGHT - height;
+				int expected = scan(occupied, bottomUp, x, width, height, minY, maxY);
+				int y = layout.findY(x, width, height, minY, maxY);
+				assertEquals("step " + i, expected, y);
+				if (y != SlotLayout.NO_SPACE) {
+					slots.add(Integer.valueOf(layout.allocate(x, y, width, height)));
+					occupied.add(new int[] { x, y, width, height });
+				}
+			}
+		}
+	}
+	
+	/**
+	 * A toast higher than the area must be placed at the edge instead of never.
+	 */
+	@Test
+	public void testOversizedArea() {
+		SlotLayout layout = new SlotLayout(true);
+		int maxY = AREA_Y + AREA_HEIGHT - 600;
+		int y = layout.findY(AREA_X, 350, 600, AREA_Y, maxY);
+		assertEquals(maxY, y);
+		int slot = layout.allocate(AREA_X, y, 350, 600);
+		// the next toast waits until the oversized one is released
+		assertEquals(SlotLayout.NO_SPACE, layout.findY(AREA_X, 350, 100, AREA_Y, AREA_Y + AREA_HEIGHT - 100));
+		assertTrue(layout.release(slot));
+		assertNotEquals(SlotLayout.NO_SPACE, layout.findY(AREA_X, 350, 100, AREA_Y, AREA_Y + AREA_HEIGHT - 100));
+		assertTrue(layout.isEmpty());
+		
+		SlotLayout topDown = new SlotLayout(false);
+		assertEquals(AREA_Y, topDown.findY(AREA_X, 350, 600, AREA_Y, maxY));
+	}
+	
+	/**
+	 * Equal areas must not collapse.
+	 */
+	@Test
+	public void testEqualAreas() {
+		SlotLayout layout = new SlotLayout(true);
+		int first = layout.allocate(0, 0, 100, 100);
+		int second = layout.allocate(0, 0, 100, 100);
+		assertNotEquals(first, second);
+		assertTrue(layout.release(first));
+		assertTrue(layout.isOccupied(0, 0, 100, 100));
+		assertTrue(layout.release(second));
+		assertFalse(layout.release(second));
+		assertTrue(layout.isEmpty());
+	}
+	
+	/**
+	 * The pixel by pixel scan of the previous placement: the start position is returned if it is free,
+	 * otherwise the position is moved by one pixel until it is free or outside of the area.
+	 */
+	private static int scan(List<int[]> occupied, boolean bottomUp, int x, int width, int height, int minY, int maxY) {
+		int y = bottomUp ? maxY : minY;
+		while (isForbidden(occupied, x, y, width, height)) {
+			y += bottomUp ? -1 : 1;
+			if (y < minY || y > maxY) {
+				return SlotLayout.NO_SPACE;
+			}
+		}
+		return y;
+	}
+	
+	private static boolean isForbidden(List<int[]> occupied, int x, int y, int width, int height) {
+		for (int[] area : occupied) {
+			if (x < area[0] + area[2] && y < area[1] + area[3] && x + width > area[0] && y + height > area[1]) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+}
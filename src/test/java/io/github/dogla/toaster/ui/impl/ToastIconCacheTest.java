@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.ui.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageLoader;
+import org.eclipse.swt.graphics.PaletteData;
+import org.junit.Test;
+
+import io.github.dogla.toaster.Toast;
+
+/**
+ * Tests of the {@link ToastIconCache}.
+ *
+ * @author Dominik
+ */
+@SuppressWarnings("nls")
+public class ToastIconCacheTest {
+	
+	private static final int CLOSE_BUTTON_ICON_SIZE = 16;
+	
+	/**
+	 * Byte array icons must be decoded and prescaled to the icon size of the toast.
+	 */
+	@Test
+	public void testByteArrayIcon() {
+		Toast toast = Toast.builder().title("Icon").icon(png(128, 128)).build();
+		ToastIconCache cache = ToastIconCache.getInstance();
+		cache.prepare(toast, false, CLOSE_BUTTON_ICON_SIZE).join();
+		ToastIconCache.PreparedIcon icon = cache.getPreparedIcon(toast, false, CLOSE_BUTTON_ICON_SIZE);
+		assertNotNull(icon);
+		assertEquals(128, icon.getOriginalWidth());
+		assertEquals(128, icon.getOriginalHeight());
+		assertEquals(64, icon.getImageData().width);
+		assertEquals(64, icon.getImageData().height);
+	}
+	
+	/**
+	 * Sizes which were not prepared must be scaled from the original image.
+	 */
+	@Test
+	public void testOtherSize() {
+		String png = Base64.getEncoder().encodeToString(png(128, 128));
+		ToastIconCache cache = ToastIconCache.getInstance();
+		Toast small = Toast.builder().title("Small").icon(png).minIconWidth(32).minIconHeight(32).maxIconWidth(32).maxIconHeight(32).build();
+		cache.prepare(small, false, CLOSE_BUTTON_ICON_SIZE).join();
+		assertEquals(32, cache.getPreparedIcon(small, false, CLOSE_BUTTON_ICON_SIZE).getImageData().width);
+		
+		Toast large = Toast.builder().title("Large").icon(png).minIconWidth(100).minIconHeight(100).maxIconWidth(100).maxIconHeight(100).build();
+		ToastIconCache.PreparedIcon icon = cache.getPreparedIcon(large, false, CLOSE_BUTTON_ICON_SIZE);
+		assertNotNull(icon);
+		assertEquals(100, icon.getImageData().width);
+		assertEquals(128, icon.getOriginalWidth());
+	}
+	
+	/**
+	 * Base64 encoded icons must be shared by toasts with the same icon string.
+	 */
+	@Test
+	public void testBase64Icon() {
+		String base64 = Base64.getEncoder().encodeToString(png(32, 48));
+		ToastIconCache cache = ToastIconCache.getInstance();
+		Toast toast = Toast.builder().title("Base64").icon(base64).build();
+		cache.prepare(toast, false, CLOSE_BUTTON_ICON_SIZE).join();
+		ToastIconCache.PreparedIcon icon = cache.getPreparedIcon(Toast.builder().title("Other").icon(new String(base64)).build(), false, CLOSE_BUTTON_ICON_SIZE);
+		assertNotNull(icon);
+		assertEquals(32, icon.getOriginalWidth());
+		assertEquals(48, icon.getOriginalHeight());
+	}
+	
+	/**
+	 * The prepared icons must be kept for their toasts even if there are more than fit into the cache.
+	 */
+	@Test
+	public void testPinnedIcons() {
+		byte[] png = png(16, 16);
+		ToastIconCache cache = ToastIconCache.getInstance();
+		List<Toast> toasts = new ArrayList<>();
+		List<CompletableFuture<Void>> preparations = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			// input streams can only be decoded once
+			Toast toast = Toast.builder().title("Stream " + i).icon(new ByteArrayInputStream(png)).build();
+			toasts.add(toast);
+			preparations.add(cache.prepare(toast, false, CLOSE_BUTTON_ICON_SIZE));
+		}
+		CompletableFuture.allOf(preparations.toArray(new CompletableFuture<?>[0])).join();
+		for (Toast toast : toasts) {
+			assertNotNull(toast.getTitle(), cache.getPreparedIcon(toast, false, CLOSE_BUTTON_ICON_SIZE));
+		}
+	}
+	
+	/**
+	 * Icons which are only known by identity must not be cached for other toasts.
+	 */
+	@Test
+	public void testIdentityIconNotCached() {
+		byte[] png = png(16, 16);
+		ToastIconCache cache = ToastIconCache.getInstance();
+		Toast toast = Toast.builder().title("Bytes").icon(png).build();
+		cache.prepare(toast, false, CLOSE_BUTTON_ICON_SIZE).join();
+		assertNull(cache.getPreparedIcon(Toast.builder().title("Other").icon(png).build(), false, CLOSE_BUTTON_ICON_SIZE));
+		assertNotNull(cache.getPreparedIcon(toast, false, CLOSE_BUTTON_ICON_SIZE));
+	}
+	
+	/**
+	 * Icons which need a display must be left to the popup.
+	 */
+	@Test
+	public void testUnsupportedIcon() {
+		Toast toast = Toast.builder().title("Unsupported").icon(Integer.valueOf(SWT.ICON_INFORMATION)).build();
+		ToastIconCache cache = ToastIconCache.getInstance();
+		cache.prepare(toast, false, CLOSE_BUTTON_ICON_SIZE).join();
+		assertNull(cache.getPreparedIcon(toast, false, CLOSE_BUTTON_ICON_SIZE));
+	}
+	
+	/*package*/ static byte[] png(int width, int height) {
+		ImageData imageData = new ImageData(width, height, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+		ImageLoader loader = new ImageLoader();
+		loader.data = new ImageData[] { imageData };
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		loader.save(out, SWT.IMAGE_PNG);
+		return out.toByteArray();
+	}
+	
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.ui.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.junit.Test;
+
+/**
+ * Tests of the {@link ToastIconScaler}.
+ *
+ * @author Dominik
+ */
+public class ToastIconScalerTest {
+	
+	private static final PaletteData PALETTE = new PaletteData(0xFF0000, 0xFF00, 0xFF);
+	
+	/**
+	 * Downscaling with area averaging must average the covered pixels.
+	 */
+	@Test
+	public void testAreaAveraging() {
+		// 2x2 checkerboard of black and white
+		ImageData source = new ImageData(2, 2, 24, PALETTE);
+		source.setPixel(0, 0, 0xFFFFFF);
+		source.setPixel(1, 1, 0xFFFFFF);
+		ImageData scaled = ToastIconScaler.scale(source, 1, 1, SWT.HIGH);
+		assertEquals(1, scaled.width);
+		assertEquals(1, scaled.height);
+		int blue = scaled.getPixel(0, 0) & 0xFF;
+		assertTrue("blue " + blue, blue >= 127 && blue <= 128);
+		assertEquals(255, scaled.getAlpha(0, 0));
+	}
+	
+	/**
+	 * The color of transparent pixels must not bleed into the scaled image.
+	 */
+	@Test
+	public void testPremultipliedAlpha() {
+		ImageData source = new ImageData(2, 1, 24, PALETTE);
+		source.setPixel(0, 0, 0xFF0000);
+		source.setPixel(1, 0, 0x0000FF);
+		source.alphaData = new byte[] { (byte) 255, 0 };
+		for (int interpolation : new int[] { SWT.LOW, SWT.HIGH }) {
+			ImageData scaled = ToastIconScaler.scale(source, 1, 1, interpolation);
+			// only red is visible
+			assertEquals(0xFF0000, scaled.getPixel(0, 0) & 0xFFFFFF);
+		}
+	}
+	
+	/**
+	 * The requested size must be returned by every interpolation and the source must be reused if the size is equal.
+	 */
+	@Test
+	public void testSize() {
+		ImageData source = new ImageData(10, 20, 24, PALETTE);
+		for (int interpolation : new int[] { SWT.NONE, SWT.LOW, SWT.HIGH }) {
+			ImageData up = ToastIconScaler.scale(source, 15, 30, interpolation);
+			assertEquals(15, up.width);
+			assertEquals(30, up.height);
+			ImageData down = ToastIconScaler.scale(source, 3, 7, interpolation);
+			assertEquals(3, down.width);
+			assertEquals(7, down.height);
+		}
+		assertSame(source, ToastIconScaler.scale(source, 10, 20, SWT.HIGH));
+	}
+	
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.ui.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.eclipse.swt.SWTError;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.widgets.Display;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.github.dogla.toaster.Toast;
+import io.github.dogla.toaster.ToastAction;
+
+/**
+ * Tests of the {@link ToastMeasurementCache}. 
+ * The tests are skipped if no display can be created on the current platform.
+ *
+ * @author Dominik
+ */
+@SuppressWarnings("nls")
+public class ToastMeasurementCacheTest {
+	
+	private static Display display;
+	
+	/**
+	 * Creates the display.
+	 */
+	@BeforeClass
+	public static void setUpClass() {
+		try {
+			display = Display.getDefault();
+		} catch (SWTError | LinkageError e) {
+			// no SWT for this platform or no graphical environment
+			display = null;
+		}
+	}
+	
+	/**
+	 * Skips the test if no display is available.
+	 */
+	@Before
+	public void setUp() {
+		Assume.assumeNotNull(display);
+	}
+	
+	/**
+	 * Toasts with the same content must share the measured size, toasts with other content must not.
+	 */
+	@Test
+	public void testKey() {
+		ToastMeasurementCache cache = ToastMeasurementCache.forDisplay(display);
+		cache.clear();
+		cache.store(key(Toast.builder().title("Title").message("Message").build(), null), new Point(350, 100));
+		
+		assertEquals(new Point(350, 100), cache.lookup(key(Toast.builder().title("Title").message("Message").build(), null)));
+		assertNull(cache.lookup(key(Toast.builder().title("Title").message("Other").build(), null)));
+		assertNull(cache.lookup(key(Toast.builder().title("Title").message("Message").build(), new Point(64, 64))));
+	}
+	
+	/**
+	 * Actions with images of different sizes must not share the measured size.
+	 */
+	@Test
+	public void testActionImages() {
+		ToastMeasurementCache cache = ToastMeasurementCache.forDisplay(display);
+		cache.clear();
+		Image small = new Image(display, 16, 16);
+		Image large = new Image(display, 32, 32);
+		try {
+			cache.store(key(toastWithAction(null), null), new Point(350, 100));
+			cache.store(key(toastWithAction(small), null), new Point(350, 110));
+			
+			assertEquals(new Point(350, 100), cache.lookup(key(toastWithAction(null), null)));
+			assertEquals(new Point(350, 110), cache.lookup(key(toastWithAction(small), null)));
+			assertNull(cache.lookup(key(toastWithAction(large), null)));
+		} finally {
+			small.dispose();
+			large.dispose();
+		}
+	}
+	
+	/**
+	 * The cache must not be changed by modifying the returned sizes.
+	 */
+	@Test
+	public void testCopies() {
+		ToastMeasurementCache cache = ToastMeasurementCache.forDisplay(display);
+		assertSame(cache, ToastMeasurementCache.forDisplay(display));
+		ToastMeasurementCache.Key key = key(Toast.builder().title("Copy").build(), null);
+		cache.store(key, new Point(350, 80));
+		cache.lookup(key).y = 0;
+		assertEquals(new Point(350, 80), cache.lookup(key));
+	}
+	
+	private static ToastMeasurementCache.Key key(Toast toast, Point iconSize) {
+		return new ToastMeasurementCache.Key(display, display.getSystemFont(), toast, iconSize);
+	}
+	
+	private static Toast toastWithAction(Image image) {
+		return Toast.builder().title("Action").action(ToastAction.builder().text("Open").image(image).build()).build();
+	}
+	
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.ui.impl;
+
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.github.dogla.toaster.Toast;
+import io.github.dogla.toaster.ToastHandle;
+import io.github.dogla.toaster.Toaster;
+
+/**
+ * Tests of the {@link ToastToolkitImpl}.
+ *
+ * @author Dominik
+ */
+@SuppressWarnings("nls")
+public class ToastToolkitImplTest {
+	
+	private static final long TIMEOUT = 5000;
+	
+	/**
+	 * A toast submitted to a toolkit without a display must fail instead of waiting forever.
+	 */
+	@Test(timeout = 2 * TIMEOUT)
+	public void testDisposedDisplay() throws Exception {
+		ToastToolkitImpl toolkit = new ToastToolkitImpl();
+		try {
+			toolkit.syncExec(() -> toolkit.getPopupDisplay().dispose());
+		} catch (CompletionException e) {
+			// the display could not be created at all (e.g. no SWT library for this platform)
+		}
+		ToastHandle handle = Toaster.submit(toolkit, Toast.builder().title("Disposed display").build());
+		try {
+			handle.closed().get(TIMEOUT, TimeUnit.MILLISECONDS);
+			fail("The handle did not fail.");
+		} catch (ExecutionException e) {
+			// expected
+		}
+	}
+	
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2020-2024 Dominik Glaser
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.dogla.toaster.ui.impl;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Measures the paint cost of a toast icon with and without prescaling.
+ * <p>
+ * Usage: <code>ToasterRenderBenchmark [iterations] [source size] [icon size]</code>
+ * </p>
+ *
+ * @author Dominik
+ */
+@SuppressWarnings("nls")
+public class ToasterRenderBenchmark {
+	
+	/**
+	 * Runs the benchmark.
+	 * 
+	 * @param args the arguments
+	 */
+	public static void main(String[] args) {
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+		int sourceSize = args.length > 1 ? Integer.parseInt(args[1]) : 512;
+		int iconSize = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+		
+		Display display = new Display();
+		try {
+			ImageData sourceData = createSourceData(sourceSize);
+			Image source = new Image(display, sourceData);
+			
+			long start = System.nanoTime();
+			ImageData prescaledData = ToastIconScaler.scale(sourceData, iconSize, iconSize, SWT.HIGH);
+			long prescaleNanos = System.nanoTime() - start;
+			Image prescaled = new Image(display, prescaledData);
+			
+			Image canvas = new Image(display, iconSize, iconSize);
+			GC gc = new GC(canvas);
+			try {
+				// warm up
+				paintScaled(gc, source, sourceSize, iconSize, iterations / 10);
+				paintPrescaled(gc, prescaled, iterations / 10);
+				
+				long scaledNanos = paintScaled(gc, source, sourceSize, iconSize, iterations);
+				long prescaledNanos = paintPrescaled(gc, prescaled, iterations);
+				
+				System.out.printf("Icon %dx%d painted as %dx%d, %d iterations%n", sourceSize, sourceSize, iconSize, iconSize, iterations);
+				System.out.printf("scaling on every paint: %10.2f us/paint%n", scaledNanos / 1000.0 / iterations);
+				System.out.printf("prescaled (1:1):        %10.2f us/paint (+ %.2f ms once for prescaling)%n", prescaledNanos / 1000.0 / iterations, prescaleNanos / 1000000.0);
+			} finally {
+				gc.dispose();
+				canvas.dispose();
+				prescaled.dispose();
+				source.dispose();
+			}
+		} finally {
+			display.dispose();
+		}
+	}
+	
+	private static long paintScaled(GC gc, Image image, int sourceSize, int iconSize, int iterations) {
+		gc.setAntialias(SWT.ON);
+		gc.setInterpolation(SWT.HIGH);
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			gc.drawImage(image, 0, 0, sourceSize, sourceSize, 0, 0, iconSize, iconSize);
+		}
+		return System.nanoTime() - start;
+	}
+	
+	private static long paintPrescaled(GC gc, Image image, int iterations) {
+		gc.setAntialias(SWT.ON);
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			gc.drawImage(image, 0, 0);
+		}
+		return System.nanoTime() - start;
+	}
+	
+	private static ImageData createSourceData(int size) {
+		ImageData data = new ImageData(size, size, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+		byte[] alphaData = new byte[size * size];
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				data.setPixel(x, y, ((x * 255 / size) << 16) | ((y * 255 / size) << 8) | 0x80);
+				alphaData[y * size + x] = (byte) ((x + y) % 2 == 0 ? 255 : 192);
+			}
+		}
+		data.alphaData = alphaData;
+		return data;
+	}
+	
+}